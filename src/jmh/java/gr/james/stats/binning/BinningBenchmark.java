@@ -0,0 +1,68 @@
+package gr.james.stats.binning;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of all data binning strategies over power-law frequency maps with various numbers of distinct keys.
+ * <p>
+ * The sizes are kept small because the maximum binning strategies are quadratic in the number of distinct keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinningBenchmark {
+    @Param({"100", "2000"})
+    public int keys;
+
+    private SortedMap<Double, Long> frequency;
+
+    @Setup
+    public void setup() {
+        final Random r = new Random(29L);
+        frequency = new TreeMap<>();
+        double value = 1;
+        while (frequency.size() < keys) {
+            frequency.put(value, 1 + (long) (1e6 * Math.pow(value, -2.5) * r.nextDouble()));
+            value += 1 + r.nextInt(3);
+        }
+    }
+
+    @Benchmark
+    public List<DataBin<Double, Double>> linear() {
+        return new LinearDataBinning(20).bin(frequency);
+    }
+
+    @Benchmark
+    public List<DataBin<Double, Double>> linearAverage() {
+        return new LinearAverageDataBinning(20).bin(frequency);
+    }
+
+    @Benchmark
+    public List<DataBin<Double, Double>> logarithmic() {
+        return new LogarithmicDataBinning(20, 10).bin(frequency);
+    }
+
+    @Benchmark
+    public List<DataBin<Double, Double>> maximumLinear() {
+        return new MaximumLinearDataBinning().bin(frequency);
+    }
+
+    @Benchmark
+    public List<DataBin<Double, Double>> maximumLinearAverage() {
+        return new MaximumLinearAverageDataBinning().bin(frequency);
+    }
+
+    @Benchmark
+    public List<DataBin<Double, Double>> maximumLogarithmic() {
+        return new MaximumLogarithmicDataBinning(10).bin(frequency);
+    }
+}
@@ -0,0 +1,120 @@
+package gr.james.stats.measures;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the quantity and rank correlation measures for various input sizes and tie ratios, comparing boxed
+ * and primitive inputs where both are available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorrelationBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0.0", "0.5"})
+    public double ties;
+
+    private double[] a;
+    private double[] b;
+    private List<Double> boxedA;
+    private List<Double> boxedB;
+    private List<Integer> rankingA;
+    private List<Integer> rankingB;
+    private Set<Integer> population;
+    private int[] labelsA;
+    private int[] labelsB;
+    private SlidingWindowPearson sliding;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        final Random r = new Random(29L);
+        final int distinct = Math.max(1, (int) (size * (1 - ties)));
+        a = new double[size];
+        b = new double[size];
+        boxedA = new ArrayList<>(size);
+        boxedB = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            a[i] = r.nextInt(distinct);
+            b[i] = a[i] + r.nextInt(distinct);
+            boxedA.add(a[i]);
+            boxedB.add(b[i]);
+        }
+        rankingA = new ArrayList<>(size);
+        population = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            rankingA.add(i);
+            population.add(i);
+        }
+        rankingB = new ArrayList<>(rankingA);
+        Collections.shuffle(rankingA, r);
+        Collections.shuffle(rankingB, r);
+        labelsA = new int[size];
+        labelsB = new int[size];
+        for (int i = 0; i < size; i++) {
+            labelsA[i] = r.nextInt(100);
+            labelsB[i] = r.nextInt(100);
+        }
+        sliding = new SlidingWindowPearson(size);
+        for (int i = 0; i < size; i++) {
+            sliding.add(a[i], b[i]);
+        }
+        tick = 0;
+    }
+
+    @Benchmark
+    public double pearsonIterable() {
+        return new Pearson(boxedA, boxedB).value();
+    }
+
+    @Benchmark
+    public double pearsonIterator() {
+        return new Pearson(boxedA.iterator(), boxedB.iterator()).value();
+    }
+
+    @Benchmark
+    public double pearsonPopulation() {
+        return new Pearson(population, i -> a[i], i -> b[i]).value();
+    }
+
+    @Benchmark
+    public double pearsonPopulationParallel() {
+        return new Pearson(population, i -> a[i], i -> b[i], true).value();
+    }
+
+    @Benchmark
+    public double cosineList() {
+        return new Cosine(boxedA, boxedB).value();
+    }
+
+    @Benchmark
+    public double spearmanList() {
+        return new Spearman(rankingA, rankingB).value();
+    }
+
+    @Benchmark
+    public double spearmanPrimitive() {
+        return new Spearman(a, b).value();
+    }
+
+    @Benchmark
+    public double mutualInformationLabels() {
+        return new MutualInformation(labelsA, labelsB).normalizedMutualInformation();
+    }
+
+    @Benchmark
+    public double slidingWindowPearsonTick() {
+        final int i = tick;
+        tick = i + 1 == size ? 0 : i + 1;
+        sliding.add(a[i], b[i]);
+        return sliding.value();
+    }
+}
@@ -0,0 +1,72 @@
+package gr.james.stats.measures;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the Kendall rank correlation coefficient and the pairwise rank correlation matrices.
+ * <p>
+ * The sizes are kept small because {@link Kendall} runs in quadratic time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KendallBenchmark {
+    @Param({"100", "2000"})
+    public int size;
+
+    @Param({"0.0", "0.5"})
+    public double ties;
+
+    private List<Double> a;
+    private List<Double> b;
+    private List<double[]> inputs;
+
+    @Setup
+    public void setup() {
+        final Random r = new Random(29L);
+        final int distinct = Math.max(1, (int) (size * (1 - ties)));
+        inputs = new ArrayList<>();
+        for (int k = 0; k < 16; k++) {
+            final double[] x = new double[size];
+            for (int i = 0; i < size; i++) {
+                x[i] = r.nextInt(distinct);
+            }
+            inputs.add(x);
+        }
+        a = new ArrayList<>(size);
+        b = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            a.add(inputs.get(0)[i]);
+            b.add(inputs.get(1)[i]);
+        }
+    }
+
+    @Benchmark
+    public double kendall() {
+        return new Kendall(a, b).value();
+    }
+
+    @Benchmark
+    public double kendallMatrixPair() {
+        return new KendallMatrix(Arrays.asList(inputs.get(0), inputs.get(1))).value(0, 1);
+    }
+
+    @Benchmark
+    public KendallMatrix kendallMatrix() {
+        return new KendallMatrix(inputs);
+    }
+
+    @Benchmark
+    public SpearmanMatrix spearmanMatrix() {
+        return new SpearmanMatrix(inputs);
+    }
+}
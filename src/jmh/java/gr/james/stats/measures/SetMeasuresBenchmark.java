@@ -0,0 +1,82 @@
+package gr.james.stats.measures;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the set theoretic measures for various set sizes and overlap ratios.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetMeasuresBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0.1", "0.5", "0.9"})
+    public double overlap;
+
+    private Set<Integer> a;
+    private Set<Integer> b;
+    private Set<Integer> world;
+
+    @Setup
+    public void setup() {
+        final Random r = new Random(29L);
+        final int shared = (int) (size * overlap);
+        a = new HashSet<>();
+        b = new HashSet<>();
+        world = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            a.add(i);
+            b.add(i < shared ? i : size + i);
+        }
+        world.addAll(a);
+        world.addAll(b);
+        for (int i = 0; i < size; i++) {
+            world.add(3 * size + r.nextInt(size));
+        }
+    }
+
+    @Benchmark
+    public double jaccard() {
+        return new Jaccard(a, b).value();
+    }
+
+    @Benchmark
+    public double overlap() {
+        return new Overlap(a, b).value();
+    }
+
+    @Benchmark
+    public double sorensen() {
+        return new Sorensen(a, b).value();
+    }
+
+    @Benchmark
+    public double cosine() {
+        return new Cosine(a, b).value();
+    }
+
+    @Benchmark
+    public double simpleMatching() {
+        return new SimpleMatching(a, b, world).value();
+    }
+
+    @Benchmark
+    public double pearson() {
+        return new Pearson(a, b, world).value();
+    }
+
+    @Benchmark
+    public double mutualInformation() {
+        return new MutualInformation(a, b, world).normalizedMutualInformation();
+    }
+}
@@ -0,0 +1,101 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.LogarithmicDataBinning;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link WelfordVariance}, {@link Frequency} and {@link Distribution} for various input sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"0.0", "0.9"})
+    public double ties;
+
+    private double[] observations;
+    private Frequency frequency;
+    private Distribution distribution;
+    private double median;
+
+    @Setup
+    public void setup() {
+        final Random r = new Random(29L);
+        final int distinct = Math.max(1, (int) (size * (1 - ties)));
+        observations = new double[size];
+        frequency = new Frequency();
+        for (int i = 0; i < size; i++) {
+            observations[i] = r.nextInt(distinct) + 1;
+            frequency.add(observations[i]);
+        }
+        distribution = frequency.toDistribution();
+        median = distinct / 2.0;
+    }
+
+    @Benchmark
+    public double welfordVariance() {
+        final WelfordVariance wv = new WelfordVariance();
+        for (double x : observations) {
+            wv.add(x);
+        }
+        return wv.populationVariance();
+    }
+
+    @Benchmark
+    public Frequency frequencyAdd() {
+        final Frequency f = new Frequency();
+        for (double x : observations) {
+            f.add(x);
+        }
+        return f;
+    }
+
+    @Benchmark
+    public Distribution frequencyNormalize() {
+        return frequency.normalize();
+    }
+
+    @Benchmark
+    public Distribution frequencyBin() {
+        return frequency.bin(new LogarithmicDataBinning(20, 10));
+    }
+
+    @Benchmark
+    public Frequency frequencyTail() {
+        return frequency.tail(median);
+    }
+
+    @Benchmark
+    public double frequencyMode() {
+        return frequency.mode();
+    }
+
+    @Benchmark
+    public Distribution toDistribution() {
+        return frequency.toDistribution();
+    }
+
+    @Benchmark
+    public Distribution distributionNormalize() {
+        return distribution.normalize();
+    }
+
+    @Benchmark
+    public Distribution distributionHead() {
+        return distribution.head(median);
+    }
+
+    @Benchmark
+    public double distributionMode() {
+        return distribution.mode();
+    }
+}
@@ -1,5 +1,7 @@
 package gr.james.stats.binning;
 
+import gr.james.stats.instrumentation.Probe;
+
 import java.util.*;
 
 /**
@@ -34,6 +36,7 @@ public class LinearDataBinning implements DataBinning {
         if (frequency.size() < 2) {
             throw new IllegalArgumentException("data must contain at least two distinct values");
         }
+        final Probe probe = Probe.begin(LinearDataBinning.class, "linear");
 
         final List<DataBin<Double, Double>> binsList = new ArrayList<>();
 
@@ -67,6 +70,7 @@ public class LinearDataBinning implements DataBinning {
 
         assert Math.abs(frequency.values().stream().mapToDouble(Number::doubleValue).sum() - Arrays.stream(groups).sum()) < 1.0e-4;
 
+        Probe.end(probe, frequency.size());
         return Collections.unmodifiableList(binsList);
     }
 }
@@ -1,5 +1,7 @@
 package gr.james.stats.binning;
 
+import gr.james.stats.instrumentation.Probe;
+
 import java.util.*;
 import java.util.function.ToDoubleFunction;
 
@@ -43,6 +45,7 @@ public class LogarithmicDataBinning implements DataBinning {
         if (frequency.size() < 2) {
             throw new IllegalArgumentException("data must contain at least two distinct values");
         }
+        final Probe probe = Probe.begin(LogarithmicDataBinning.class, "logarithmic");
 
         final List<DataBin<Double, Double>> binsList = new ArrayList<>();
 
@@ -86,6 +89,7 @@ public class LogarithmicDataBinning implements DataBinning {
             ));
         }
 
+        Probe.end(probe, frequency.size());
         return Collections.unmodifiableList(binsList);
     }
 }
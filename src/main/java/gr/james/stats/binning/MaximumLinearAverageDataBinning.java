@@ -1,5 +1,7 @@
 package gr.james.stats.binning;
 
+import gr.james.stats.instrumentation.Probe;
+
 import java.util.List;
 import java.util.SortedMap;
 
@@ -23,8 +25,11 @@ public class MaximumLinearAverageDataBinning implements DataBinning {
      */
     @Override
     public List<DataBin<Double, Double>> bin(SortedMap<? extends Number, ? extends Number> frequency) {
+        final Probe probe = Probe.begin(MaximumLinearAverageDataBinning.class, "maximum-linear-average");
         final MaximumLinearDataBinning mldb = new MaximumLinearDataBinning();
         final int size = mldb.bin(frequency).size();
-        return new LinearAverageDataBinning(size).bin(frequency);
+        final List<DataBin<Double, Double>> bins = new LinearAverageDataBinning(size).bin(frequency);
+        Probe.end(probe, frequency.size());
+        return bins;
     }
 }
@@ -1,5 +1,7 @@
 package gr.james.stats.binning;
 
+import gr.james.stats.instrumentation.Probe;
+
 import java.util.*;
 
 /**
@@ -25,6 +27,7 @@ public class MaximumLinearDataBinning implements DataBinning {
         if (frequency.size() < 2) {
             throw new IllegalArgumentException("data must contain at least two distinct values");
         }
+        final Probe probe = Probe.begin(MaximumLinearDataBinning.class, "maximum-linear");
 
         List<DataBin<Double, Double>> previousBinList = null;
 
@@ -47,6 +50,7 @@ public class MaximumLinearDataBinning implements DataBinning {
                 while (e.getKey().doubleValue() > limits[currentBin] && currentBin < bins - 1) {
                     if (groups[currentBin] == 0) {
                         assert previousBinList != null;
+                        Probe.end(probe, frequency.size());
                         return Collections.unmodifiableList(previousBinList);
                     }
                     currentBin++;
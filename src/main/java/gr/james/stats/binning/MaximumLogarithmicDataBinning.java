@@ -1,5 +1,7 @@
 package gr.james.stats.binning;
 
+import gr.james.stats.instrumentation.Probe;
+
 import java.util.*;
 import java.util.function.ToDoubleFunction;
 
@@ -36,6 +38,7 @@ public class MaximumLogarithmicDataBinning implements DataBinning {
         if (frequency.size() < 2) {
             throw new IllegalArgumentException("data must contain at least two distinct values");
         }
+        final Probe probe = Probe.begin(MaximumLogarithmicDataBinning.class, "maximum-logarithmic");
 
         List<DataBin<Double, Double>> previousBinList = null;
 
@@ -62,6 +65,7 @@ public class MaximumLogarithmicDataBinning implements DataBinning {
                 while (e.getKey().doubleValue() > limits[currentBin] && currentBin < bins - 1) {
                     if (groups[currentBin] == 0) {
                         assert previousBinList != null;
+                        Probe.end(probe, frequency.size());
                         return Collections.unmodifiableList(previousBinList);
                     }
                     currentBin++;
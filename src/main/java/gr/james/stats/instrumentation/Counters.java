@@ -0,0 +1,53 @@
+package gr.james.stats.instrumentation;
+
+/**
+ * A snapshot of the counters of an instrumented class.
+ */
+public final class Counters {
+    private final long calls;
+    private final long nanos;
+    private final long elements;
+
+    Counters(long calls, long nanos, long elements) {
+        this.calls = calls;
+        this.nanos = nanos;
+        this.elements = elements;
+    }
+
+    /**
+     * Returns the number of recorded calls.
+     *
+     * @return the number of recorded calls
+     */
+    public long calls() {
+        return calls;
+    }
+
+    /**
+     * Returns the total elapsed time of the recorded calls in nanoseconds.
+     *
+     * @return the total elapsed time of the recorded calls in nanoseconds
+     */
+    public long nanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the total number of input elements processed by the recorded calls.
+     *
+     * @return the total number of input elements processed by the recorded calls
+     */
+    public long elements() {
+        return elements;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+        return String.format("calls=%d, nanos=%d, elements=%d", calls, nanos, elements);
+    }
+}
@@ -0,0 +1,19 @@
+package gr.james.stats.instrumentation;
+
+/**
+ * Emits JDK Flight Recorder events for instrumented computations.
+ * <p>
+ * This is the Java 8 version of this class which does nothing. The Java 11 version is located in
+ * {@code META-INF/versions/11} of the multi-release jar.
+ */
+final class Events {
+    private Events() {
+    }
+
+    static Object begin() {
+        return null;
+    }
+
+    static void commit(Object event, Class<?> source, String path, long elements, long allocated) {
+    }
+}
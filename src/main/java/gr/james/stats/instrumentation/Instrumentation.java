@@ -0,0 +1,91 @@
+package gr.james.stats.instrumentation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entry point of the instrumentation of this library.
+ * <p>
+ * Instrumentation is disabled by default and can be enabled either programmatically using
+ * {@link #setEnabled(boolean)} or by setting the system property {@code gr.james.stats.instrumentation} to
+ * {@code true}. While disabled, the only overhead on the instrumented methods is the read of a volatile field.
+ */
+public final class Instrumentation {
+    private static final Map<Class<?>, Accumulator> COUNTERS = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.getBoolean("gr.james.stats.instrumentation");
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Enable or disable the instrumentation.
+     * <p>
+     * Computations that are in progress while this method is invoked may or may not be recorded.
+     *
+     * @param enabled whether the instrumentation is enabled
+     */
+    public static void setEnabled(boolean enabled) {
+        Instrumentation.enabled = enabled;
+    }
+
+    /**
+     * Returns whether the instrumentation is enabled.
+     *
+     * @return whether the instrumentation is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a snapshot of the counters of all instrumented classes that have been invoked while the instrumentation
+     * was enabled.
+     *
+     * @return a new map from instrumented classes to a snapshot of their counters
+     */
+    public static Map<Class<?>, Counters> counters() {
+        final Map<Class<?>, Counters> snapshot = new HashMap<>();
+        for (Map.Entry<Class<?>, Accumulator> e : COUNTERS.entrySet()) {
+            snapshot.put(e.getKey(), e.getValue().snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns a snapshot of the counters of an instrumented class.
+     *
+     * @param source the instrumented class
+     * @return a snapshot of the counters of {@code source}, all zero if it has never been recorded
+     * @throws NullPointerException if {@code source} is {@code null}
+     */
+    public static Counters counters(Class<?> source) {
+        final Accumulator accumulator = COUNTERS.get(source);
+        return accumulator == null ? new Counters(0, 0, 0) : accumulator.snapshot();
+    }
+
+    /**
+     * Reset all counters to zero.
+     */
+    public static void reset() {
+        COUNTERS.clear();
+    }
+
+    static void record(Class<?> source, long nanos, long elements) {
+        final Accumulator accumulator = COUNTERS.computeIfAbsent(source, k -> new Accumulator());
+        accumulator.calls.increment();
+        accumulator.nanos.add(nanos);
+        accumulator.elements.add(elements);
+    }
+
+    private static final class Accumulator {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder elements = new LongAdder();
+
+        private Counters snapshot() {
+            return new Counters(calls.sum(), nanos.sum(), elements.sum());
+        }
+    }
+}
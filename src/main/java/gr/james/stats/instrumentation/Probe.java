@@ -0,0 +1,86 @@
+package gr.james.stats.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Records a single instrumented computation.
+ * <p>
+ * This class is used by the library in the following pattern, where {@link #begin(Class, String)} returns
+ * {@code null} when the instrumentation is disabled and {@link #end(Probe, long)} accepts {@code null}:
+ * <pre><code>
+ * final Probe probe = Probe.begin(Kendall.class, "pairwise");
+ * // computation
+ * Probe.end(probe, n);
+ * </code></pre>
+ * The bytes allocated are measured on the calling thread only, so allocations of parallel computations that happen in
+ * other threads are not included.
+ */
+public final class Probe {
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocations();
+
+    private final Class<?> source;
+    private final String path;
+    private final long start;
+    private final long allocated;
+    private final Object event;
+
+    private Probe(Class<?> source, String path) {
+        this.source = source;
+        this.path = path;
+        this.allocated = allocatedBytes();
+        this.event = Events.begin();
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Begin recording a computation.
+     *
+     * @param source the class performing the computation
+     * @param path   the algorithm or input path chosen by the computation
+     * @return a new {@link Probe} or {@code null} if the instrumentation is disabled
+     */
+    public static Probe begin(Class<?> source, String path) {
+        if (!Instrumentation.isEnabled()) {
+            return null;
+        }
+        return new Probe(source, path);
+    }
+
+    /**
+     * End recording a computation.
+     *
+     * @param probe    the {@link Probe} as returned by {@link #begin(Class, String)}, can be {@code null}
+     * @param elements the number of input elements processed by the computation
+     */
+    public static void end(Probe probe, long elements) {
+        if (probe == null) {
+            return;
+        }
+        final long nanos = System.nanoTime() - probe.start;
+        final long bytes = probe.allocated < 0 ? -1 : allocatedBytes() - probe.allocated;
+        Instrumentation.record(probe.source, nanos, elements);
+        Events.commit(probe.event, probe.source, probe.path, elements, bytes);
+    }
+
+    private static long allocatedBytes() {
+        if (ALLOCATIONS == null) {
+            return -1;
+        }
+        return ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocations() {
+        try {
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+                if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+                    return sun;
+                }
+            }
+        } catch (LinkageError | SecurityException ignored) {
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Optional instrumentation of the computations in this library.
+ * <p>
+ * When enabled through {@link gr.james.stats.instrumentation.Instrumentation}, every measure construction and binning
+ * call updates per class counters that can be read programmatically and, when running on Java 11 or later, emits a
+ * JDK Flight Recorder event named {@code gr.james.stats.Computation}.
+ * <ul>
+ *     <li>{@link gr.james.stats.instrumentation.Instrumentation}</li>
+ *     <li>{@link gr.james.stats.instrumentation.Counters}</li>
+ *     <li>{@link gr.james.stats.instrumentation.Probe}</li>
+ * </ul>
+ */
+package gr.james.stats.instrumentation;
@@ -0,0 +1,332 @@
+package gr.james.stats.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A streaming reader of numeric columns of a CSV file.
+ * <p>
+ * The input is read sequentially through a fixed-size byte buffer and only the selected columns are parsed, directly
+ * from the bytes and without creating intermediate {@link String} objects, so that files larger than the available
+ * memory can be processed in a single pass without allocations per record. The values are pushed to a callback, for
+ * example {@link gr.james.stats.utils.Frequency#add(double)}, {@link gr.james.stats.utils.WelfordVariance#add(double)}
+ * or {@link gr.james.stats.utils.WelfordCovariance#add(double, double)}.
+ * <p>
+ * The input is expected to be ASCII compatible (for example UTF-8) and is parsed according to RFC 4180: fields may be
+ * enclosed in double quotes, in which case they may contain delimiters, line breaks and escaped double quotes. Records
+ * may be separated by either LF or CRLF and blank lines are ignored. Records in which any of the selected columns is
+ * missing or empty are skipped.
+ * <p>
+ * Each instance can be read only once.
+ */
+public class CsvColumnReader implements Closeable {
+    /**
+     * The default buffer size in bytes.
+     */
+    public static final int DEFAULT_BUFFER = 1 << 16;
+
+    private static final int START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE = 3;
+
+    private final ReadableByteChannel channel;
+    private final byte delimiter;
+    private final boolean header;
+    private final int bufferSize;
+    private boolean consumed;
+
+    /**
+     * Represents an operation that accepts two {@code double} arguments.
+     */
+    @FunctionalInterface
+    public interface DoubleBiConsumer {
+        /**
+         * Performs this operation on the given arguments.
+         *
+         * @param x the first argument
+         * @param y the second argument
+         */
+        void accept(double x, double y);
+    }
+
+    /**
+     * Construct a new {@link CsvColumnReader} from a channel with the {@link #DEFAULT_BUFFER default buffer size}.
+     *
+     * @param channel   the channel to read from
+     * @param delimiter the field delimiter
+     * @param header    whether the first record is a header that should be skipped
+     * @throws NullPointerException     if {@code channel} is {@code null}
+     * @throws IllegalArgumentException if {@code delimiter} is not an ASCII character or is a double quote or a line
+     *                                  break
+     */
+    public CsvColumnReader(ReadableByteChannel channel, char delimiter, boolean header) {
+        this(channel, delimiter, header, DEFAULT_BUFFER);
+    }
+
+    /**
+     * Construct a new {@link CsvColumnReader} from a channel with the given buffer size.
+     *
+     * @param channel    the channel to read from
+     * @param delimiter  the field delimiter
+     * @param header     whether the first record is a header that should be skipped
+     * @param bufferSize the size of the read buffer in bytes
+     * @throws NullPointerException     if {@code channel} is {@code null}
+     * @throws IllegalArgumentException if {@code delimiter} is not an ASCII character or is a double quote or a line
+     *                                  break
+     * @throws IllegalArgumentException if {@code bufferSize} is not positive
+     */
+    public CsvColumnReader(ReadableByteChannel channel, char delimiter, boolean header, int bufferSize) {
+        if (channel == null) {
+            throw new NullPointerException();
+        }
+        if (delimiter > 127 || delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("delimiter must be an ASCII character other than quote or line break");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        this.channel = channel;
+        this.delimiter = (byte) delimiter;
+        this.header = header;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Construct a new {@link CsvColumnReader} from a file with the {@link #DEFAULT_BUFFER default buffer size}.
+     *
+     * @param path      the path of the file
+     * @param delimiter the field delimiter
+     * @param header    whether the first record is a header that should be skipped
+     * @throws NullPointerException     if {@code path} is {@code null}
+     * @throws IllegalArgumentException if {@code delimiter} is not an ASCII character or is a double quote or a line
+     *                                  break
+     * @throws IOException              if an I/O error occurs while opening the file
+     */
+    public CsvColumnReader(Path path, char delimiter, boolean header) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ), delimiter, header);
+    }
+
+    /**
+     * Performs the given action for each value of a column in order.
+     *
+     * @param column the zero-based index of the column
+     * @param action the action to be performed for each value
+     * @return the number of records that were passed to {@code action}
+     * @throws NullPointerException     if {@code action} is {@code null}
+     * @throws IllegalArgumentException if {@code column} is negative
+     * @throws NumberFormatException    if a value of the column is not a number
+     * @throws IllegalStateException    if this reader has already been read
+     * @throws IOException              if an I/O error occurs
+     */
+    public long forEach(int column, DoubleConsumer action) throws IOException {
+        return forEach(new int[]{column}, row -> action.accept(row[0]));
+    }
+
+    /**
+     * Performs the given action for each pair of values of two columns in order.
+     * <p>
+     * This method can be used to compute a correlation of two columns in a single pass, for example with
+     * {@code reader.forEach(0, 1, covariance::add)} where {@code covariance} is a
+     * {@link gr.james.stats.utils.WelfordCovariance}.
+     *
+     * @param columnX the zero-based index of the one column
+     * @param columnY the zero-based index of the other column
+     * @param action  the action to be performed for each pair of values
+     * @return the number of records that were passed to {@code action}
+     * @throws NullPointerException     if {@code action} is {@code null}
+     * @throws IllegalArgumentException if {@code columnX} or {@code columnY} is negative or if they are equal
+     * @throws NumberFormatException    if a value of the columns is not a number
+     * @throws IllegalStateException    if this reader has already been read
+     * @throws IOException              if an I/O error occurs
+     */
+    public long forEach(int columnX, int columnY, DoubleBiConsumer action) throws IOException {
+        return forEach(new int[]{columnX, columnY}, row -> action.accept(row[0], row[1]));
+    }
+
+    /**
+     * Performs the given action for each record with the values of the given columns.
+     * <p>
+     * The array passed to {@code action} contains the values in the order of {@code columns} and is reused between
+     * records, so it must not be retained.
+     *
+     * @param columns the zero-based indices of the columns
+     * @param action  the action to be performed for each record
+     * @return the number of records that were passed to {@code action}
+     * @throws NullPointerException     if either {@code columns} or {@code action} is {@code null}
+     * @throws IllegalArgumentException if {@code columns} is empty, contains negative or duplicate indices
+     * @throws NumberFormatException    if a value of the columns is not a number
+     * @throws IllegalStateException    if this reader has already been read
+     * @throws IOException              if an I/O error occurs
+     */
+    public long forEach(int[] columns, Consumer<double[]> action) throws IOException {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("columns cannot be empty");
+        }
+        int max = 0;
+        for (int c : columns) {
+            if (c < 0) {
+                throw new IllegalArgumentException("columns cannot be negative");
+            }
+            max = Math.max(max, c);
+        }
+        final int[] slots = new int[max + 1];
+        Arrays.fill(slots, -1);
+        for (int k = 0; k < columns.length; k++) {
+            if (slots[columns[k]] != -1) {
+                throw new IllegalArgumentException("columns cannot contain duplicates");
+            }
+            slots[columns[k]] = k;
+        }
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        if (consumed) {
+            throw new IllegalStateException("reader has already been read");
+        }
+        consumed = true;
+        return new Scanner(slots, columns.length, action).run();
+    }
+
+    /**
+     * Closes the underlying channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The state of a single pass over the input.
+     */
+    private final class Scanner {
+        private final int[] slots;
+        private final int selected;
+        private final Consumer<double[]> action;
+        private final double[] row;
+        private byte[] field = new byte[64];
+        private int fieldLength = 0;
+        private int column = 0;
+        private int seen = 0;
+        private boolean touched = false;
+        private boolean skip = header;
+        private long line = 1;
+        private long count = 0;
+
+        private Scanner(int[] slots, int selected, Consumer<double[]> action) {
+            this.slots = slots;
+            this.selected = selected;
+            this.action = action;
+            this.row = new double[selected];
+        }
+
+        private long run() throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+            final byte[] bytes = buffer.array();
+            int state = START;
+            while (channel.read(buffer) != -1) {
+                final int length = buffer.position();
+                for (int i = 0; i < length; i++) {
+                    final byte b = bytes[i];
+                    switch (state) {
+                        case START:
+                        case UNQUOTED:
+                            if (b == delimiter) {
+                                endField();
+                                state = START;
+                            } else if (b == '\n') {
+                                endRecord();
+                                state = START;
+                            } else if (b == '"' && state == START) {
+                                touched = true;
+                                state = QUOTED;
+                            } else if (b != '\r') {
+                                touched = true;
+                                append(b);
+                                state = UNQUOTED;
+                            }
+                            break;
+                        case QUOTED:
+                            if (b == '"') {
+                                state = QUOTE;
+                            } else {
+                                if (b == '\n') {
+                                    line++;
+                                }
+                                append(b);
+                            }
+                            break;
+                        default:
+                            if (b == '"') {
+                                append(b);
+                                state = QUOTED;
+                            } else if (b == delimiter) {
+                                endField();
+                                state = START;
+                            } else if (b == '\n') {
+                                endRecord();
+                                state = START;
+                            } else if (b != '\r') {
+                                append(b);
+                                state = UNQUOTED;
+                            }
+                            break;
+                    }
+                }
+                buffer.clear();
+            }
+            endRecord();
+            return count;
+        }
+
+        private void append(byte b) {
+            if (column < slots.length && slots[column] >= 0) {
+                if (fieldLength == field.length) {
+                    field = Arrays.copyOf(field, field.length * 2);
+                }
+                field[fieldLength++] = b;
+            }
+        }
+
+        private void endField() {
+            if (!skip && column < slots.length && slots[column] >= 0 && fieldLength > 0) {
+                try {
+                    row[slots[column]] = DoubleParser.parse(field, 0, fieldLength);
+                } catch (NumberFormatException e) {
+                    throw new NumberFormatException(String.format("Invalid number at line %d, column %d: %s",
+                            line, column, e.getMessage()));
+                }
+                seen++;
+            }
+            fieldLength = 0;
+            column++;
+            touched = true;
+        }
+
+        private void endRecord() {
+            if (touched) {
+                endField();
+                if (!skip && seen == selected) {
+                    action.accept(row);
+                    count++;
+                }
+                skip = false;
+            }
+            fieldLength = 0;
+            column = 0;
+            seen = 0;
+            touched = false;
+            line++;
+        }
+    }
+}
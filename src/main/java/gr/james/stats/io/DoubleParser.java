@@ -0,0 +1,123 @@
+package gr.james.stats.io;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses decimal numbers from ASCII bytes without intermediate {@link String} objects.
+ * <p>
+ * Numbers with at most 19 significant digits, a mantissa that is exactly representable as a {@code double} and a
+ * decimal exponent in {@code [-22, 22]} are parsed exactly using a single multiplication or division by an exact power
+ * of ten (Clinger's fast path). All other inputs, including the special values accepted by
+ * {@link Double#parseDouble(String)}, fall back to {@link Double#parseDouble(String)} so the result is always
+ * identical to it.
+ */
+final class DoubleParser {
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private DoubleParser() {
+    }
+
+    /**
+     * Parse a number from the given bytes.
+     *
+     * @param b    the bytes
+     * @param from the first position, inclusive
+     * @param to   the last position, exclusive
+     * @return the parsed number
+     * @throws NumberFormatException if the bytes do not represent a number
+     */
+    static double parse(byte[] b, int from, int to) {
+        int i = from;
+        int end = to;
+        while (i < end && b[i] == ' ') {
+            i++;
+        }
+        while (end > i && b[end - 1] == ' ') {
+            end--;
+        }
+        final int start = i;
+
+        boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        int digits = 0;
+        while (i < end && b[i] >= '0' && b[i] <= '9') {
+            if (mantissa != 0 || b[i] != '0') {
+                if (significant == 19) {
+                    return fallback(b, start, end);
+                }
+                mantissa = mantissa * 10 + (b[i] - '0');
+                significant++;
+            }
+            digits++;
+            i++;
+        }
+        if (i < end && b[i] == '.') {
+            i++;
+            while (i < end && b[i] >= '0' && b[i] <= '9') {
+                if (mantissa != 0 || b[i] != '0') {
+                    if (significant == 19) {
+                        return fallback(b, start, end);
+                    }
+                    mantissa = mantissa * 10 + (b[i] - '0');
+                    significant++;
+                }
+                exponent--;
+                digits++;
+                i++;
+            }
+        }
+        if (digits == 0) {
+            return fallback(b, start, end);
+        }
+        if (i < end && (b[i] == 'e' || b[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (b[i] == '-' || b[i] == '+')) {
+                negativeExponent = b[i] == '-';
+                i++;
+            }
+            if (i == end) {
+                return fallback(b, start, end);
+            }
+            int e = 0;
+            while (i < end && b[i] >= '0' && b[i] <= '9') {
+                if (e > 10000) {
+                    return fallback(b, start, end);
+                }
+                e = e * 10 + (b[i] - '0');
+                i++;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != end || mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return fallback(b, start, end);
+        }
+
+        double value = mantissa;
+        if (exponent < 0) {
+            value /= POWERS_OF_TEN[-exponent];
+        } else {
+            value *= POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    private static double fallback(byte[] b, int from, int to) {
+        return Double.parseDouble(new String(b, from, to - from, StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,245 @@
+package gr.james.stats.io;
+
+import gr.james.stats.utils.Frequency;
+import gr.james.stats.utils.WelfordCovariance;
+import gr.james.stats.utils.WelfordVariance;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.DoubleConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A column of observations stored in a raw binary file of little-endian 8-byte values.
+ * <p>
+ * The file is never loaded in the heap. Instead, it is accessed through a sequence of read-only memory mapped windows
+ * of a fixed size and the values are passed directly to the accumulators. The methods that fill an accumulator
+ * process independent windows in parallel in the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}
+ * and merge the partial results.
+ * <p>
+ * The mapped windows are released when they are garbage collected.
+ */
+public class MappedColumn implements Closeable {
+    /**
+     * The default window size in bytes.
+     */
+    public static final int DEFAULT_WINDOW = 1 << 26;
+
+    /**
+     * The type of the values of a column.
+     */
+    public enum Type {
+        /**
+         * IEEE 754 double precision values.
+         */
+        FLOAT64,
+        /**
+         * Two's complement signed 64-bit integers.
+         */
+        INT64
+    }
+
+    private final FileChannel channel;
+    private final Type type;
+    private final long size;
+    private final int window;
+
+    /**
+     * Open a column with the {@link #DEFAULT_WINDOW default window size}.
+     *
+     * @param path the path of the file
+     * @param type the type of the values in the file
+     * @throws NullPointerException     if either {@code path} or {@code type} is {@code null}
+     * @throws IllegalArgumentException if the size of the file is not a multiple of 8
+     * @throws IOException              if an I/O error occurs while opening the file
+     */
+    public MappedColumn(Path path, Type type) throws IOException {
+        this(path, type, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Open a column with the given window size.
+     *
+     * @param path   the path of the file
+     * @param type   the type of the values in the file
+     * @param window the size of each mapped window in bytes
+     * @throws NullPointerException     if either {@code path} or {@code type} is {@code null}
+     * @throws IllegalArgumentException if {@code window} is not a positive multiple of 8
+     * @throws IllegalArgumentException if the size of the file is not a multiple of 8
+     * @throws IOException              if an I/O error occurs while opening the file
+     */
+    public MappedColumn(Path path, Type type, int window) throws IOException {
+        if (window <= 0 || window % Long.BYTES != 0) {
+            throw new IllegalArgumentException("window must be a positive multiple of 8");
+        }
+        if (type == null) {
+            throw new NullPointerException();
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        final long bytes = channel.size();
+        if (bytes % Long.BYTES != 0) {
+            channel.close();
+            throw new IllegalArgumentException("file size must be a multiple of 8");
+        }
+        this.type = type;
+        this.size = bytes / Long.BYTES;
+        this.window = window;
+    }
+
+    /**
+     * Returns the number of values in this column.
+     *
+     * @return the number of values in this column
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Performs the given action for each value of this column in order.
+     *
+     * @param action the action to be performed for each value
+     * @throws NullPointerException if {@code action} is {@code null}
+     * @throws UncheckedIOException if an I/O error occurs while mapping the file
+     */
+    public void forEach(DoubleConsumer action) {
+        for (int w = 0; w < windows(); w++) {
+            scan(w, action);
+        }
+    }
+
+    /**
+     * Add every value of this column as an observation to the given {@link Frequency}.
+     *
+     * @param frequency the {@link Frequency} to add the values to
+     * @throws NullPointerException     if {@code frequency} is {@code null}
+     * @throws IllegalArgumentException if this column contains non-finite values
+     * @throws UncheckedIOException     if an I/O error occurs while mapping the file
+     */
+    public void addTo(Frequency frequency) {
+        frequency.merge(IntStream.range(0, windows()).parallel()
+                .mapToObj(w -> {
+                    final Frequency f = new Frequency();
+                    scan(w, f::add);
+                    return f;
+                })
+                .collect(Frequency::new, Frequency::merge, Frequency::merge));
+    }
+
+    /**
+     * Returns a new {@link WelfordVariance} with every value of this column added as an observation.
+     *
+     * @return a new {@link WelfordVariance} with every value of this column added as an observation
+     * @throws UncheckedIOException if an I/O error occurs while mapping the file
+     */
+    public WelfordVariance variance() {
+        return IntStream.range(0, windows()).parallel()
+                .mapToObj(w -> {
+                    final WelfordVariance wv = new WelfordVariance();
+                    scan(w, wv::add);
+                    return wv;
+                })
+                .collect(WelfordVariance::new, WelfordVariance::merge, WelfordVariance::merge);
+    }
+
+    /**
+     * Returns a new {@link WelfordCovariance} with every pair of values of this column and {@code other} at the same
+     * position added as a paired observation.
+     * <p>
+     * The Pearson correlation coefficient and the Cosine similarity of the columns can be queried from the returned
+     * instance using {@link WelfordCovariance#pearson()} and {@link WelfordCovariance#cosine()}.
+     *
+     * @param other the other column
+     * @return a new {@link WelfordCovariance} from the paired values of this column and {@code other}
+     * @throws NullPointerException     if {@code other} is {@code null}
+     * @throws IllegalArgumentException if this column and {@code other} are of different size
+     * @throws UncheckedIOException     if an I/O error occurs while mapping the files
+     */
+    public WelfordCovariance covariance(MappedColumn other) {
+        if (this.size != other.size) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        final int values = Math.min(this.window, other.window) / Long.BYTES;
+        final int regions = (int) ((size + values - 1) / values);
+        return IntStream.range(0, regions).parallel()
+                .mapToObj(r -> {
+                    final long from = (long) r * values;
+                    final int length = (int) Math.min(values, size - from);
+                    final Window x = this.map(from, length);
+                    final Window y = other.map(from, length);
+                    final WelfordCovariance wc = new WelfordCovariance();
+                    for (int i = 0; i < length; i++) {
+                        wc.add(x.get(i), y.get(i));
+                    }
+                    return wc;
+                })
+                .collect(WelfordCovariance::new, WelfordCovariance::merge, WelfordCovariance::merge);
+    }
+
+    /**
+     * Closes the underlying file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int windows() {
+        final int values = window / Long.BYTES;
+        return (int) ((size + values - 1) / values);
+    }
+
+    private void scan(int w, DoubleConsumer action) {
+        final int values = window / Long.BYTES;
+        final long from = (long) w * values;
+        final int length = (int) Math.min(values, size - from);
+        final Window buffer = map(from, length);
+        for (int i = 0; i < length; i++) {
+            action.accept(buffer.get(i));
+        }
+    }
+
+    /**
+     * Maps a region of this column.
+     */
+    private Window map(long from, int length) {
+        final MappedByteBuffer mapped;
+        try {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, from * Long.BYTES, (long) length * Long.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (type == Type.FLOAT64) {
+            return new Window(mapped.asDoubleBuffer(), null);
+        }
+        return new Window(null, mapped.asLongBuffer());
+    }
+
+    /**
+     * A mapped region of a column that reads its values as doubles.
+     */
+    private static final class Window {
+        private final DoubleBuffer doubles;
+        private final LongBuffer longs;
+
+        private Window(DoubleBuffer doubles, LongBuffer longs) {
+            this.doubles = doubles;
+            this.longs = longs;
+        }
+
+        private double get(int i) {
+            return doubles != null ? doubles.get(i) : longs.get(i);
+        }
+    }
+}
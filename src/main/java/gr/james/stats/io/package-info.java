@@ -0,0 +1,8 @@
+/**
+ * Readers that stream large observation files directly into the accumulators of this library.
+ * <ul>
+ *     <li>{@link gr.james.stats.io.CsvColumnReader}</li>
+ *     <li>{@link gr.james.stats.io.MappedColumn}</li>
+ * </ul>
+ */
+package gr.james.stats.io;
@@ -0,0 +1,346 @@
+package gr.james.stats.measures;
+
+import gr.james.stats.instrumentation.Probe;
+import gr.james.stats.utils.SparseVector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Finds all pairs of sparse vectors whose Cosine similarity is at least a threshold.
+ * <p>
+ * The vectors are normalized to unit length and their dimensions are ordered by decreasing document frequency. For
+ * each vector, the longest leading part of its elements whose dot product with any vector is bounded below the
+ * threshold, using both its norm and the maximum weight of each dimension, is left out of the inverted index, so the
+ * frequent dimensions with long posting lists are rarely indexed (the All-Pairs prefix filter with the L2 bound of
+ * L2AP). A pair above the threshold always shares an indexed dimension, so probing the index with every vector finds
+ * all of them. During probing, a candidate is only admitted if the bound on the remaining elements of the query plus
+ * the bound on the unindexed part of the candidate can reach the threshold, and it is only verified if its partial
+ * score plus the latter bound can.
+ * <p>
+ * The bounds and scores are computed from the normalized vectors and carry rounding errors that grow with the number
+ * of non-zero elements of the pair, so all pruning is done against a threshold that is relaxed by a slack
+ * proportional to that number, and the pairs whose score falls within that slack of the threshold are decided by
+ * recomputing their similarity exactly as {@link Cosine} does. As a result, the pairs are exactly the ones whose
+ * {@link Cosine} similarity is at least the threshold, even for a threshold of 1.
+ * <p>
+ * The index is built when this instance is created. The pairs are streamed to a callback by
+ * {@link #forEach(PairConsumer)}, which probes the vectors in parallel, so that the result never has to be held in
+ * memory.
+ * <p>
+ * The values of the vectors must be non-negative, for example term frequencies or TF-IDF weights. Vectors without
+ * non-zero elements have no Cosine similarity and never appear in a pair.
+ */
+public class AllPairsCosine {
+    private static final double SLACK = 1e-12;
+    private static final double SLACK_PER_ELEMENT = 4 * Math.ulp(1.0);
+
+    private final int size;
+    private final double threshold;
+    private final SparseVector[] vectors;
+    private final int[][] ranks;
+    private final double[][] weights;
+    private final int[] prefix;
+    private final double[] prefixBound;
+    private final double[] maxWeight;
+    private final int[] postingStart;
+    private final int[] postingIds;
+    private final double[] postingWeights;
+
+    /**
+     * Represents an operation that accepts a pair of vectors and their Cosine similarity.
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+        /**
+         * Performs this operation on the given pair.
+         *
+         * @param a          the position of the one vector in the input list
+         * @param b          the position of the other vector in the input list, always greater than {@code a}
+         * @param similarity the Cosine similarity of the vectors
+         */
+        void accept(int a, int b, double similarity);
+    }
+
+    /**
+     * Create a new {@link AllPairsCosine} and build the index of the given vectors.
+     *
+     * @param vectors   the sparse vectors
+     * @param threshold the minimum Cosine similarity of the pairs
+     * @throws NullPointerException     if {@code vectors} or any of its elements is {@code null}
+     * @throws IllegalArgumentException if {@code vectors} is empty
+     * @throws IllegalArgumentException if the vectors in {@code vectors} do not have the same dimension
+     * @throws IllegalArgumentException if any vector in {@code vectors} has negative values
+     * @throws IllegalArgumentException if {@code threshold} is not in {@code (0, 1]}
+     */
+    public AllPairsCosine(List<SparseVector> vectors, double threshold) {
+        if (vectors.isEmpty()) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("threshold must be in (0, 1]");
+        }
+        final Probe probe = Probe.begin(AllPairsCosine.class, "index");
+        final int dimension = vectors.get(0).dimension();
+        this.size = vectors.size();
+        this.threshold = threshold;
+        this.vectors = vectors.toArray(new SparseVector[0]);
+
+        final double[] norms = vectors.parallelStream().mapToDouble(v -> {
+            if (v.dimension() != dimension) {
+                throw new IllegalArgumentException("Inputs must have the same size");
+            }
+            for (int k = 0; k < v.size(); k++) {
+                if (v.value(k) < 0) {
+                    throw new IllegalArgumentException("Inputs cannot have negative values");
+                }
+            }
+            return Math.sqrt(v.sumOfSquares());
+        }).toArray();
+
+        final int[] frequency = new int[dimension];
+        final double[] maxByDimension = new double[dimension];
+        long elements = 0;
+        int largest = 0;
+        for (int i = 0; i < size; i++) {
+            final SparseVector v = vectors.get(i);
+            for (int k = 0; k < v.size(); k++) {
+                frequency[v.index(k)]++;
+                maxByDimension[v.index(k)] = Math.max(maxByDimension[v.index(k)], v.value(k) / norms[i]);
+            }
+            elements += v.size();
+            largest = Math.max(largest, v.size());
+        }
+
+        final long[] order = new long[dimension];
+        for (int d = 0; d < dimension; d++) {
+            order[d] = ((long) (Integer.MAX_VALUE - frequency[d]) << 32) | d;
+        }
+        Arrays.sort(order);
+        final int[] rankOf = new int[dimension];
+        this.maxWeight = new double[dimension];
+        for (int r = 0; r < dimension; r++) {
+            final int d = (int) order[r];
+            rankOf[d] = r;
+            maxWeight[r] = maxByDimension[d];
+        }
+
+        this.ranks = new int[size][];
+        this.weights = new double[size][];
+        this.prefix = new int[size];
+        this.prefixBound = new double[size];
+        final int maxElements = largest;
+        IntStream.range(0, size).parallel().forEach(i -> {
+            final SparseVector v = vectors.get(i);
+            final long[] keys = new long[v.size()];
+            for (int k = 0; k < v.size(); k++) {
+                keys[k] = ((long) rankOf[v.index(k)] << 32) | k;
+            }
+            Arrays.sort(keys);
+            final int[] r = new int[keys.length];
+            final double[] w = new double[keys.length];
+            for (int k = 0; k < keys.length; k++) {
+                r[k] = (int) (keys[k] >>> 32);
+                w[k] = v.value((int) keys[k]) / norms[i];
+            }
+            // the partner of the vector is not known, so the slack covers the largest one
+            final double relaxed = threshold - slack(r.length, maxElements);
+            double bound = 0;
+            double squares = 0;
+            int p = 0;
+            while (p < r.length) {
+                final double nextBound = bound + w[p] * maxWeight[r[p]];
+                final double nextSquares = squares + w[p] * w[p];
+                if (Math.min(nextBound, Math.sqrt(nextSquares)) >= relaxed) {
+                    break;
+                }
+                bound = nextBound;
+                squares = nextSquares;
+                p++;
+            }
+            ranks[i] = r;
+            weights[i] = w;
+            prefix[i] = p;
+            prefixBound[i] = Math.min(bound, Math.sqrt(squares));
+        });
+
+        this.postingStart = new int[dimension + 1];
+        for (int i = 0; i < size; i++) {
+            for (int k = prefix[i]; k < ranks[i].length; k++) {
+                postingStart[ranks[i][k] + 1]++;
+            }
+        }
+        for (int r = 0; r < dimension; r++) {
+            postingStart[r + 1] += postingStart[r];
+        }
+        this.postingIds = new int[postingStart[dimension]];
+        this.postingWeights = new double[postingStart[dimension]];
+        final int[] fill = Arrays.copyOf(postingStart, dimension);
+        for (int i = 0; i < size; i++) {
+            for (int k = prefix[i]; k < ranks[i].length; k++) {
+                final int position = fill[ranks[i][k]]++;
+                postingIds[position] = i;
+                postingWeights[position] = weights[i][k];
+            }
+        }
+        Probe.end(probe, elements);
+    }
+
+    /**
+     * Returns the number of vectors.
+     *
+     * @return the number of vectors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of elements in the inverted index.
+     * <p>
+     * This is at most the total number of non-zero elements of the vectors and is typically much smaller.
+     *
+     * @return the number of elements in the inverted index
+     */
+    public int indexSize() {
+        return postingIds.length;
+    }
+
+    /**
+     * Performs the given action for each pair of vectors whose Cosine similarity is at least the threshold, probing
+     * the vectors in parallel.
+     * <p>
+     * Each pair is passed exactly once, in unspecified order and possibly concurrently from multiple threads, so
+     * {@code action} must be thread-safe.
+     *
+     * @param action the action to be performed for each pair
+     * @return the number of pairs that were passed to {@code action}
+     * @throws NullPointerException if {@code action} is {@code null}
+     */
+    public long forEach(PairConsumer action) {
+        return forEach(action, true);
+    }
+
+    /**
+     * Performs the given action for each pair of vectors whose Cosine similarity is at least the threshold.
+     * <p>
+     * Each pair is passed exactly once and in unspecified order. If {@code parallel} is {@code true}, {@code action}
+     * may be invoked concurrently from multiple threads and must be thread-safe.
+     *
+     * @param action   the action to be performed for each pair
+     * @param parallel whether to probe the vectors in parallel
+     * @return the number of pairs that were passed to {@code action}
+     * @throws NullPointerException if {@code action} is {@code null}
+     */
+    public long forEach(PairConsumer action, boolean parallel) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        final Probe probe = Probe.begin(AllPairsCosine.class, parallel ? "probe-parallel" : "probe");
+        final LongAdder pairs = new LongAdder();
+        final int tasks = parallel ? Math.min(size, 8 * Runtime.getRuntime().availableProcessors()) : 1;
+        IntStream stream = IntStream.range(0, tasks);
+        if (parallel) {
+            stream = stream.parallel();
+        }
+        stream.forEach(task -> {
+            final double[] scores = new double[size];
+            final int[] candidates = new int[size];
+            long found = 0;
+            // later vectors have more candidates, so the queries are interleaved between the tasks
+            for (int x = task; x < size; x += tasks) {
+                found += probe(x, scores, candidates, action);
+            }
+            pairs.add(found);
+        });
+        Probe.end(probe, postingIds.length);
+        return pairs.sum();
+    }
+
+    private long probe(int x, double[] scores, int[] candidates, PairConsumer action) {
+        final int[] r = ranks[x];
+        final double[] w = weights[x];
+        final int n = r.length;
+        final double[] remainingBound = new double[n + 1];
+        final double[] remainingSquares = new double[n + 1];
+        for (int k = n - 1; k >= 0; k--) {
+            remainingBound[k] = remainingBound[k + 1] + w[k] * maxWeight[r[k]];
+            remainingSquares[k] = remainingSquares[k + 1] + w[k] * w[k];
+        }
+
+        int count = 0;
+        for (int k = 0; k < n; k++) {
+            final double bound = Math.min(remainingBound[k], Math.sqrt(remainingSquares[k]));
+            final int end = postingStart[r[k] + 1];
+            for (int p = postingStart[r[k]]; p < end; p++) {
+                final int y = postingIds[p];
+                if (y >= x) {
+                    break;
+                }
+                if (scores[y] == 0) {
+                    if (bound + prefixBound[y] < threshold - slack(n, ranks[y].length)) {
+                        continue;
+                    }
+                    candidates[count++] = y;
+                }
+                scores[y] += w[k] * postingWeights[p];
+            }
+        }
+
+        long found = 0;
+        for (int c = 0; c < count; c++) {
+            final int y = candidates[c];
+            final double partial = scores[y];
+            scores[y] = 0;
+            final double slack = slack(n, ranks[y].length);
+            if (partial + prefixBound[y] < threshold - slack) {
+                continue;
+            }
+            double similarity = partial + prefixDot(x, y);
+            if (similarity < threshold - slack) {
+                continue;
+            }
+            if (similarity < threshold + slack) {
+                similarity = new Cosine(vectors[y], vectors[x]).value();
+                if (similarity < threshold) {
+                    continue;
+                }
+            }
+            action.accept(y, x, Math.min(similarity, 1.0));
+            found++;
+        }
+        return found;
+    }
+
+    /**
+     * Returns the bound on the rounding error of the scores of a pair of vectors with the given numbers of non-zero
+     * elements, including the error of {@link Cosine}, which grows linearly with the number of terms of the sums.
+     */
+    private static double slack(int a, int b) {
+        return SLACK + ((double) a + b) * SLACK_PER_ELEMENT;
+    }
+
+    /**
+     * Returns the dot product of vector {@code x} with the unindexed part of vector {@code y}.
+     */
+    private double prefixDot(int x, int y) {
+        final int[] rx = ranks[x];
+        final int[] ry = ranks[y];
+        final int end = prefix[y];
+        double sum = 0;
+        int i = 0;
+        int j = 0;
+        while (i < rx.length && j < end) {
+            if (rx[i] < ry[j]) {
+                i++;
+            } else if (rx[i] > ry[j]) {
+                j++;
+            } else {
+                sum += weights[x][i++] * weights[y][j++];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,134 @@
+package gr.james.stats.measures;
+
+import gr.james.stats.instrumentation.Probe;
+
+import java.util.Random;
+
+/**
+ * Approximate Kendall rank correlation coefficient from uniformly sampled pairs, with a confidence interval.
+ * <p>
+ * The tau-b variant, identical to {@link Kendall}, is the ratio {@code E[sa sb] / sqrt(E[sa^2] E[sb^2])} where
+ * {@code sa} and {@code sb} are the signs of the differences of a pair of elements drawn uniformly in each input. Pairs
+ * are sampled with replacement in batches and the ratio of the sample means is reported, together with a normal
+ * confidence interval from the delta method. Sampling stops as soon as the half-width of the interval is at most the
+ * requested precision, or when the maximum number of samples is reached, so the cost is bounded by the number of
+ * samples and not by the size of the inputs.
+ * <p>
+ * The interval is asymptotic and is only reliable after a few thousand samples; unless the maximum number of samples is
+ * lower, at least {@value SampledCorrelation#MIN_SAMPLES} pairs are always sampled before the precision is checked.
+ * Values are compared with {@link Double#compare}, as in {@link Kendall}, and the inputs are not scanned, so
+ * {@link Double#NaN} values are not detected.
+ */
+public class ApproximateKendall {
+    /**
+     * The default confidence of the interval.
+     */
+    public static final double DEFAULT_CONFIDENCE = 0.95;
+
+    /**
+     * The default maximum number of sampled pairs.
+     */
+    public static final long DEFAULT_MAX_SAMPLES = 10_000_000L;
+
+    private final double value;
+    private final double lower;
+    private final double upper;
+    private final long samples;
+
+    /**
+     * Create a new {@link ApproximateKendall} from the given score vectors with the default confidence and maximum
+     * number of samples.
+     *
+     * @param a         the one score vector
+     * @param b         the other score vector
+     * @param halfWidth the requested half-width of the confidence interval
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     * @throws IllegalArgumentException if {@code halfWidth} is not positive
+     */
+    public ApproximateKendall(double[] a, double[] b, double halfWidth) {
+        this(a, b, halfWidth, DEFAULT_CONFIDENCE, DEFAULT_MAX_SAMPLES, new Random());
+    }
+
+    /**
+     * Create a new {@link ApproximateKendall} from the given score vectors.
+     * <p>
+     * Elements are matched between the inputs by index.
+     *
+     * @param a          the one score vector
+     * @param b          the other score vector
+     * @param halfWidth  the requested half-width of the confidence interval
+     * @param confidence the confidence of the interval
+     * @param maxSamples the maximum number of sampled pairs
+     * @param random     the source of randomness
+     * @throws NullPointerException     if either {@code a}, {@code b} or {@code random} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     * @throws IllegalArgumentException if {@code halfWidth} or {@code maxSamples} is not positive
+     * @throws IllegalArgumentException if {@code confidence} is not in {@code (0, 1)}
+     */
+    public ApproximateKendall(double[] a, double[] b, double halfWidth, double confidence, long maxSamples,
+                              Random random) {
+        SampledCorrelation.check(a, b, halfWidth, confidence, maxSamples, random);
+        final Probe probe = Probe.begin(ApproximateKendall.class, "sampling");
+
+        final int n = a.length;
+        final double quantile = SampledCorrelation.twoSidedQuantile(confidence);
+        final SampledCorrelation s = new SampledCorrelation();
+        double width;
+        do {
+            final long batch = Math.min(SampledCorrelation.BATCH, maxSamples - s.samples());
+            for (long k = 0; k < batch; k++) {
+                final int i = random.nextInt(n);
+                final int j = random.nextInt(n);
+                final int signA = Integer.signum(Double.compare(a[i], a[j]));
+                final int signB = Integer.signum(Double.compare(b[i], b[j]));
+                s.add(signA * signB, signA * signA, signB * signB);
+            }
+            width = s.halfWidth(quantile);
+        } while (!s.done(width, halfWidth, maxSamples));
+
+        this.value = s.value();
+        this.lower = Math.max(-1, value - width);
+        this.upper = Math.min(1, value + width);
+        this.samples = s.samples();
+        Probe.end(probe, samples);
+    }
+
+    /**
+     * Returns the estimate of the Kendall rank correlation coefficient of the inputs.
+     *
+     * @return the estimate of the Kendall rank correlation coefficient of the inputs
+     */
+    public double value() {
+        return this.value;
+    }
+
+    /**
+     * Returns the lower bound of the confidence interval, clamped to {@code -1}.
+     *
+     * @return the lower bound of the confidence interval
+     */
+    public double lower() {
+        return this.lower;
+    }
+
+    /**
+     * Returns the upper bound of the confidence interval, clamped to {@code 1}.
+     *
+     * @return the upper bound of the confidence interval
+     */
+    public double upper() {
+        return this.upper;
+    }
+
+    /**
+     * Returns the number of pairs that were sampled.
+     *
+     * @return the number of pairs that were sampled
+     */
+    public long samples() {
+        return this.samples;
+    }
+}
@@ -0,0 +1,143 @@
+package gr.james.stats.measures;
+
+import gr.james.stats.instrumentation.Probe;
+
+import java.util.Random;
+
+/**
+ * Approximate Spearman's rank correlation coefficient from uniformly sampled elements, with a confidence interval.
+ * <p>
+ * With fractional ranks, as in {@link Spearman#Spearman(double[], double[])}, the centered rank of an element is
+ * proportional to the expected sign of its difference from an element drawn uniformly. The coefficient is therefore
+ * the ratio {@code E[z] / sqrt(E[u] E[v])} over triples {@code (i, j, k)} drawn uniformly, where {@code z} is the
+ * symmetrized product {@code (sa(i, j) sb(i, k) + sa(i, k) sb(i, j)) / 2}, {@code u = sa(i, j) sa(i, k)} and
+ * {@code v = sb(i, j) sb(i, k)}. No ranking is required, so the cost is bounded by the number of samples and not by
+ * the size of the inputs.
+ * <p>
+ * Triples are sampled with replacement in batches and the ratio of the sample means is reported, together with a normal
+ * confidence interval from the delta method. Sampling stops as soon as the half-width of the interval is at most the
+ * requested precision, or when the maximum number of samples is reached. The interval is asymptotic and is only
+ * reliable after a few thousand samples; unless the maximum number of samples is lower, at least
+ * {@value SampledCorrelation#MIN_SAMPLES} triples are always sampled before the precision is checked. The inputs are
+ * not scanned, so {@link Double#NaN} values are not detected.
+ */
+public class ApproximateSpearman {
+    /**
+     * The default confidence of the interval.
+     */
+    public static final double DEFAULT_CONFIDENCE = 0.95;
+
+    /**
+     * The default maximum number of sampled triples.
+     */
+    public static final long DEFAULT_MAX_SAMPLES = 10_000_000L;
+
+    private final double value;
+    private final double lower;
+    private final double upper;
+    private final long samples;
+
+    /**
+     * Create a new {@link ApproximateSpearman} from the given score vectors with the default confidence and maximum
+     * number of samples.
+     *
+     * @param a         the one score vector
+     * @param b         the other score vector
+     * @param halfWidth the requested half-width of the confidence interval
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     * @throws IllegalArgumentException if {@code halfWidth} is not positive
+     */
+    public ApproximateSpearman(double[] a, double[] b, double halfWidth) {
+        this(a, b, halfWidth, DEFAULT_CONFIDENCE, DEFAULT_MAX_SAMPLES, new Random());
+    }
+
+    /**
+     * Create a new {@link ApproximateSpearman} from the given score vectors.
+     * <p>
+     * Elements are matched between the inputs by index.
+     *
+     * @param a          the one score vector
+     * @param b          the other score vector
+     * @param halfWidth  the requested half-width of the confidence interval
+     * @param confidence the confidence of the interval
+     * @param maxSamples the maximum number of sampled triples
+     * @param random     the source of randomness
+     * @throws NullPointerException     if either {@code a}, {@code b} or {@code random} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     * @throws IllegalArgumentException if {@code halfWidth} or {@code maxSamples} is not positive
+     * @throws IllegalArgumentException if {@code confidence} is not in {@code (0, 1)}
+     */
+    public ApproximateSpearman(double[] a, double[] b, double halfWidth, double confidence, long maxSamples,
+                               Random random) {
+        SampledCorrelation.check(a, b, halfWidth, confidence, maxSamples, random);
+        final Probe probe = Probe.begin(ApproximateSpearman.class, "sampling");
+
+        final int n = a.length;
+        final double quantile = SampledCorrelation.twoSidedQuantile(confidence);
+        final SampledCorrelation s = new SampledCorrelation();
+        double width;
+        do {
+            final long batch = Math.min(SampledCorrelation.BATCH, maxSamples - s.samples());
+            for (long t = 0; t < batch; t++) {
+                final int i = random.nextInt(n);
+                final int j = random.nextInt(n);
+                final int k = random.nextInt(n);
+                final int aj = sign(a[i], a[j]);
+                final int ak = sign(a[i], a[k]);
+                final int bj = sign(b[i], b[j]);
+                final int bk = sign(b[i], b[k]);
+                s.add((aj * bk + ak * bj) / 2.0, aj * ak, bj * bk);
+            }
+            width = s.halfWidth(quantile);
+        } while (!s.done(width, halfWidth, maxSamples));
+
+        this.value = s.value();
+        this.lower = Math.max(-1, value - width);
+        this.upper = Math.min(1, value + width);
+        this.samples = s.samples();
+        Probe.end(probe, samples);
+    }
+
+    private static int sign(double x, double y) {
+        return x < y ? -1 : x > y ? 1 : 0;
+    }
+
+    /**
+     * Returns the estimate of the Spearman's rank correlation coefficient of the inputs.
+     *
+     * @return the estimate of the Spearman's rank correlation coefficient of the inputs
+     */
+    public double value() {
+        return this.value;
+    }
+
+    /**
+     * Returns the lower bound of the confidence interval, clamped to {@code -1}.
+     *
+     * @return the lower bound of the confidence interval
+     */
+    public double lower() {
+        return this.lower;
+    }
+
+    /**
+     * Returns the upper bound of the confidence interval, clamped to {@code 1}.
+     *
+     * @return the upper bound of the confidence interval
+     */
+    public double upper() {
+        return this.upper;
+    }
+
+    /**
+     * Returns the number of triples that were sampled.
+     *
+     * @return the number of triples that were sampled
+     */
+    public long samples() {
+        return this.samples;
+    }
+}
@@ -1,5 +1,9 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.instrumentation.Probe;
+import gr.james.stats.utils.Kernels;
+import gr.james.stats.utils.SparseVector;
+
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -25,6 +29,7 @@ public class Cosine {
         if (a.isEmpty() || b.isEmpty()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(Cosine.class, "sets");
         Set<T> big;
         Set<T> small;
         if (a.size() > b.size()) {
@@ -42,6 +47,7 @@ public class Cosine {
         }
         this.value = (double) intersection / Math.sqrt((double) small.size() * (double) big.size());
         assert this.value >= 0 && this.value <= 1;
+        Probe.end(probe, small.size());
     }
 
     /**
@@ -71,16 +77,19 @@ public class Cosine {
         if (!a.hasNext() || !b.hasNext()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(Cosine.class, "iterator");
 
+        long n = 0;
         double numerator = 0;
         double denominatorA = 0;
         double denominatorB = 0;
         while (a.hasNext() && b.hasNext()) {
             double aNext = a.next();
             double bNext = b.next();
+            n++;
             numerator += aNext * bNext;
-            denominatorA += Math.pow(aNext, 2);
-            denominatorB += Math.pow(bNext, 2);
+            denominatorA += aNext * aNext;
+            denominatorB += bNext * bNext;
         }
 
         if (a.hasNext() || b.hasNext()) {
@@ -89,6 +98,56 @@ public class Cosine {
 
         this.value = numerator / (Math.sqrt(denominatorA) * Math.sqrt(denominatorB));
         assert this.value >= 0 && this.value <= 1;
+        Probe.end(probe, n);
+    }
+
+    /**
+     * Create a new {@link Cosine} from the given primitive vectors.
+     * <p>
+     * Elements are matched between the inputs by index. The dot product and the norms are computed with the
+     * {@link Kernels}, which are vectorized when available.
+     *
+     * @param a the one vector
+     * @param b the other vector
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     */
+    public Cosine(double[] a, double[] b) {
+        if (a.length == 0 || b.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        final Probe probe = Probe.begin(Cosine.class, "arrays");
+        this.value = Kernels.dot(a, b) / (Math.sqrt(Kernels.sumOfSquares(a)) * Math.sqrt(Kernels.sumOfSquares(b)));
+        assert Double.isNaN(this.value) || Math.abs(this.value) <= 1 + 1e-12;
+        Probe.end(probe, a.length);
+    }
+
+    /**
+     * Create a new {@link Cosine} from the given sparse vectors.
+     * <p>
+     * Only the non-zero elements of the vectors are visited.
+     *
+     * @param a the one vector
+     * @param b the other vector
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} has zero dimension
+     * @throws IllegalArgumentException if {@code a} and {@code b} have different dimensions
+     */
+    public Cosine(SparseVector a, SparseVector b) {
+        if (a.dimension() == 0 || b.dimension() == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (a.dimension() != b.dimension()) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        final Probe probe = Probe.begin(Cosine.class, "sparse");
+        this.value = a.dot(b) / (Math.sqrt(a.sumOfSquares()) * Math.sqrt(b.sumOfSquares()));
+        assert Double.isNaN(this.value) || Math.abs(this.value) <= 1 + 1e-12;
+        Probe.end(probe, a.size() + b.size());
     }
 
     /**
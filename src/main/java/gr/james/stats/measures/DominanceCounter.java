@@ -0,0 +1,191 @@
+package gr.james.stats.measures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dynamic multiset of points in the plane that counts the points strictly dominated by a query point.
+ * <p>
+ * Points are kept in static blocks of geometrically decreasing sizes (the logarithmic method of Bentley and Saxe).
+ * Every block is sorted by {@code x} and stores a merge sort tree of the ranks of {@code y}, so that a block of size
+ * {@code b} answers a dominance query in {@code O(log^2 b)}. A new point is pushed as a block of size 1 and blocks of
+ * similar size are merged, so that every point is rebuilt {@code O(log n)} times. Removed points are inserted in a
+ * second such structure whose counts are subtracted, and both are rebuilt from the live points by the owner when the
+ * removed points become too many.
+ * <p>
+ * An insertion costs amortized {@code O(log^2 n)} and a query {@code O(log^3 n)} in the worst case, but the many small
+ * blocks are cheap and the query is dominated by the largest block.
+ */
+final class DominanceCounter {
+    private final Blocks added = new Blocks();
+    private final Blocks removed = new Blocks();
+
+    /**
+     * Adds a point.
+     */
+    void add(double x, double y) {
+        added.add(x, y);
+    }
+
+    /**
+     * Removes a point that was previously added.
+     */
+    void remove(double x, double y) {
+        removed.add(x, y);
+    }
+
+    /**
+     * Removes all points and adds the first {@code n} points of the given arrays in a single block.
+     */
+    void reset(double[] x, double[] y, int n) {
+        added.reset(x, y, n);
+        removed.reset(x, y, 0);
+    }
+
+    /**
+     * Returns the number of points that were removed since the last {@link #reset(double[], double[], int)}.
+     */
+    int removed() {
+        return removed.size;
+    }
+
+    /**
+     * Returns the number of points {@code (x', y')} with {@code x' < x} and {@code y' < y}.
+     */
+    long count(double x, double y) {
+        return added.count(x, y) - removed.count(x, y);
+    }
+
+    private static final class Blocks {
+        private final List<Block> blocks = new ArrayList<>();
+        private int size = 0;
+
+        void add(double x, double y) {
+            blocks.add(new Block(new double[]{x}, new double[]{y}, 1));
+            size++;
+            while (blocks.size() > 1 && blocks.get(blocks.size() - 2).x.length <= blocks.get(blocks.size() - 1).x.length) {
+                final Block b = blocks.remove(blocks.size() - 1);
+                final Block a = blocks.remove(blocks.size() - 1);
+                final int n = a.x.length + b.x.length;
+                final double[] mx = Arrays.copyOf(a.x, n);
+                final double[] my = Arrays.copyOf(a.yByX, n);
+                System.arraycopy(b.x, 0, mx, a.x.length, b.x.length);
+                System.arraycopy(b.yByX, 0, my, a.x.length, b.x.length);
+                blocks.add(new Block(mx, my, n));
+            }
+        }
+
+        void reset(double[] x, double[] y, int n) {
+            blocks.clear();
+            size = n;
+            if (n > 0) {
+                blocks.add(new Block(x, y, n));
+            }
+        }
+
+        long count(double x, double y) {
+            long count = 0;
+            for (Block b : blocks) {
+                count += b.count(x, y);
+            }
+            return count;
+        }
+    }
+
+    private static final class Block {
+        private final double[] x;
+        private final double[] yByX;
+        private final double[] y;
+        private final int[][] levels;
+
+        /**
+         * Builds a block from the first {@code n} points of the given arrays, in any order.
+         */
+        Block(double[] px, double[] py, int n) {
+            final double[] cx = px.length == n ? px : Arrays.copyOf(px, n);
+            final int[] permutation = Ranks.sortedPermutation(cx);
+            this.x = new double[n];
+            this.yByX = new double[n];
+            for (int k = 0; k < n; k++) {
+                x[k] = cx[permutation[k]];
+                yByX[k] = py[permutation[k]];
+            }
+            this.y = yByX.clone();
+            Arrays.sort(y);
+
+            this.levels = new int[32 - Integer.numberOfLeadingZeros(n)][];
+            levels[0] = new int[n];
+            for (int k = 0; k < n; k++) {
+                levels[0][k] = lowerBound(y, 0, n, yByX[k]);
+            }
+            for (int level = 1; level < levels.length; level++) {
+                final int[] source = levels[level - 1];
+                final int[] target = new int[n];
+                final int width = 1 << (level - 1);
+                for (int from = 0; from < n; from += 2 * width) {
+                    final int middle = Math.min(from + width, n);
+                    final int to = Math.min(from + 2 * width, n);
+                    int i = from;
+                    int j = middle;
+                    int k = from;
+                    while (i < middle && j < to) {
+                        target[k++] = source[j] < source[i] ? source[j++] : source[i++];
+                    }
+                    while (i < middle) {
+                        target[k++] = source[i++];
+                    }
+                    while (j < to) {
+                        target[k++] = source[j++];
+                    }
+                }
+                levels[level] = target;
+            }
+        }
+
+        /**
+         * Returns the number of points of this block with {@code x' < x} and {@code y' < y}.
+         * <p>
+         * The first {@code p} points in {@code x} order are covered by aligned segments of decreasing power of two
+         * sizes, one for each bit of {@code p}, and each segment is sorted in the level of its size.
+         */
+        long count(double qx, double qy) {
+            final int p = lowerBound(x, 0, x.length, qx);
+            final int r = lowerBound(y, 0, y.length, qy);
+            long count = 0;
+            int position = 0;
+            for (int level = levels.length - 1; level >= 0; level--) {
+                if ((p & (1 << level)) != 0) {
+                    final int end = position + (1 << level);
+                    count += lowerBound(levels[level], position, end, r) - position;
+                    position = end;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static int lowerBound(double[] a, int from, int to, double key) {
+        while (from < to) {
+            final int middle = (from + to) >>> 1;
+            if (a[middle] < key) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static int lowerBound(int[] a, int from, int to, int key) {
+        while (from < to) {
+            final int middle = (from + to) >>> 1;
+            if (a[middle] < key) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+}
@@ -1,5 +1,7 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.instrumentation.Probe;
+
 import java.util.List;
 
 /**
@@ -25,6 +27,7 @@ public class Kendall {
         if (a.size() != b.size()) {
             throw new IllegalArgumentException("Inputs must have the same size");
         }
+        final Probe probe = Probe.begin(Kendall.class, "pairwise");
 
         long num = 0;
         long tiesA = 0;
@@ -47,6 +50,7 @@ public class Kendall {
 
         this.value = num / (Math.sqrt(n - tiesA) * Math.sqrt(n - tiesB));
         assert this.value >= -1 - 1e-4 && this.value <= 1 + 1e-4;
+        Probe.end(probe, a.size());
     }
 
     /**
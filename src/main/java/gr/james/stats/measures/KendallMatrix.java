@@ -0,0 +1,157 @@
+package gr.james.stats.measures;
+
+import gr.james.stats.instrumentation.Probe;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Pairwise Kendall rank correlation coefficients of a collection of score vectors.
+ * <p>
+ * Each input is sorted exactly once and its sort permutation, dense ranks and tie count are cached. Every pair is then
+ * computed in {@code O(n log n)} using Knight's algorithm, which reorders the ranks of one input by the cached
+ * permutation of the other and counts the inversions with a merge sort. All pairs are computed in parallel and the
+ * result is stored as a packed symmetric matrix that includes the diagonal.
+ * <p>
+ * The coefficient computed is the tau-b variant which accounts for ties, identical to {@link Kendall}.
+ */
+public class KendallMatrix {
+    private final int size;
+    private final double[] values;
+
+    /**
+     * Create a new {@link KendallMatrix} from the given score vectors.
+     *
+     * @param inputs the score vectors
+     * @throws NullPointerException     if {@code inputs} or any of its elements is {@code null}
+     * @throws IllegalArgumentException if {@code inputs} is empty or any vector inside it is empty
+     * @throws IllegalArgumentException if the vectors in {@code inputs} are not of the same size
+     * @throws IllegalArgumentException if any vector in {@code inputs} contains {@link Double#NaN} values
+     */
+    public KendallMatrix(List<double[]> inputs) {
+        final int n = Ranks.commonLength(inputs);
+        final Probe probe = Probe.begin(KendallMatrix.class, "knight");
+        this.size = inputs.size();
+        this.values = new double[Math.toIntExact((long) size * (size + 1) / 2)];
+
+        final int[][] permutations = new int[size][];
+        final int[][] ranks = new int[size][];
+        final long[] ties = new long[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            final double[] x = inputs.get(i);
+            permutations[i] = Ranks.sortedPermutation(x);
+            ranks[i] = Ranks.denseRanks(x, permutations[i]);
+            ties[i] = Ranks.tiedPairs(x, permutations[i]);
+        });
+
+        final long pairs = (long) n * (n - 1) / 2;
+        IntStream.range(0, size).parallel().forEach(i -> {
+            final int[] y = new int[n];
+            final int[] buffer = new int[n];
+            for (int j = 0; j <= i; j++) {
+                final long jointTies = reorder(permutations[i], ranks[i], ranks[j], y);
+                final long swaps = inversions(y, buffer);
+                final double num = pairs - ties[i] - ties[j] + jointTies - 2 * swaps;
+                values[Ranks.packedIndex(size, i, j)] =
+                        num / (Math.sqrt(pairs - ties[i]) * Math.sqrt(pairs - ties[j]));
+            }
+        });
+        Probe.end(probe, (long) n * size);
+    }
+
+    /**
+     * Writes the ranks of the other input ordered by the permutation of the one input into {@code y}.
+     * <p>
+     * Runs of ties in the one input are ordered by the ranks of the other input.
+     *
+     * @return the number of pairs tied in both inputs
+     */
+    private static long reorder(int[] permutation, int[] ranksX, int[] ranksY, int[] y) {
+        final int n = permutation.length;
+        for (int k = 0; k < n; k++) {
+            y[k] = ranksY[permutation[k]];
+        }
+        long jointTies = 0;
+        int start = 0;
+        while (start < n) {
+            int end = start + 1;
+            while (end < n && ranksX[permutation[end]] == ranksX[permutation[start]]) {
+                end++;
+            }
+            if (end - start > 1) {
+                Arrays.sort(y, start, end);
+                long run = 1;
+                for (int k = start + 1; k < end; k++) {
+                    if (y[k] == y[k - 1]) {
+                        run++;
+                    } else {
+                        jointTies += run * (run - 1) / 2;
+                        run = 1;
+                    }
+                }
+                jointTies += run * (run - 1) / 2;
+            }
+            start = end;
+        }
+        return jointTies;
+    }
+
+    /**
+     * Sorts {@code y} and returns the number of strict inversions it contained.
+     */
+    private static long inversions(int[] y, int[] buffer) {
+        final int n = y.length;
+        long swaps = 0;
+        int[] source = y;
+        int[] target = buffer;
+        for (int width = 1; width < n; width *= 2) {
+            for (int from = 0; from < n; from += 2 * width) {
+                final int middle = Math.min(from + width, n);
+                final int to = Math.min(from + 2 * width, n);
+                int i = from;
+                int j = middle;
+                int k = from;
+                while (i < middle && j < to) {
+                    if (source[j] < source[i]) {
+                        swaps += middle - i;
+                        target[k++] = source[j++];
+                    } else {
+                        target[k++] = source[i++];
+                    }
+                }
+                while (i < middle) {
+                    target[k++] = source[i++];
+                }
+                while (j < to) {
+                    target[k++] = source[j++];
+                }
+            }
+            final int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return swaps;
+    }
+
+    /**
+     * Returns the number of inputs that this matrix was created from.
+     *
+     * @return the number of inputs that this matrix was created from
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the Kendall rank correlation coefficient of the inputs at positions {@code i} and {@code j}.
+     *
+     * @param i the position of the one input
+     * @param j the position of the other input
+     * @return the Kendall rank correlation coefficient of the inputs at positions {@code i} and {@code j}
+     * @throws IndexOutOfBoundsException if either {@code i} or {@code j} is not in {@code [0, size())}
+     */
+    public double value(int i, int j) {
+        return this.values[Ranks.packedIndex(size, i, j)];
+    }
+}
@@ -0,0 +1,158 @@
+package gr.james.stats.measures;
+
+/**
+ * A primitive open addressing hash map from {@code long} keys to positive {@code long} counts.
+ * <p>
+ * Slots with a zero count are empty, so no sentinel key is reserved and every {@code long} is a valid key.
+ */
+final class LongCounts {
+    private long[] keys;
+    private long[] counts;
+    private int size;
+
+    /**
+     * Construct a new empty {@link LongCounts} with room for the given number of keys before resizing.
+     *
+     * @param expected the expected number of keys
+     */
+    LongCounts(int expected) {
+        int capacity = 16;
+        while (capacity * 2L / 3 < expected) {
+            capacity *= 2;
+        }
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Increase the count of a key.
+     *
+     * @param key   the key
+     * @param count the amount to increase the count by, must be positive
+     */
+    void add(long key, long count) {
+        assert count > 0;
+        final int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = count;
+        if (++size > keys.length * 2L / 3) {
+            resize();
+        }
+    }
+
+    /**
+     * Returns the count of a key or 0 if the key is not present.
+     *
+     * @param key the key
+     * @return the count of {@code key} or 0 if it is not present
+     */
+    long get(long key) {
+        final int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Add all counts of another instance to this instance.
+     *
+     * @param other the other instance
+     */
+    void addAll(LongCounts other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.counts[i] != 0) {
+                add(other.keys[i], other.counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct keys.
+     *
+     * @return the number of distinct keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots, occupied or not.
+     *
+     * @return the number of slots
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key at the given slot, which is meaningful only if {@link #count(int)} is positive.
+     *
+     * @param slot the slot
+     * @return the key at the given slot
+     */
+    long key(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the count at the given slot or 0 if the slot is empty.
+     *
+     * @param slot the slot
+     * @return the count at the given slot or 0 if the slot is empty
+     */
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * Returns all positive counts in unspecified order.
+     *
+     * @return all positive counts in unspecified order
+     */
+    long[] counts() {
+        final long[] values = new long[size];
+        int k = 0;
+        for (long c : counts) {
+            if (c != 0) {
+                values[k++] = c;
+            }
+        }
+        return values;
+    }
+
+    private void resize() {
+        final long[] oldKeys = keys;
+        final long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldCounts.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -1,13 +1,36 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.instrumentation.Probe;
+import gr.james.stats.utils.HyperLogLog;
+
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Normalized mutual information implementation.
+ * <p>
+ * All quantities are expressed in bits and the normalization uses the arithmetic mean of the two entropies.
  */
 public class MutualInformation {
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final double LN2 = Math.log(2);
+    private static final double[] LOG_FACTORIAL = new double[256];
+
+    static {
+        for (int i = 1; i < LOG_FACTORIAL.length; i++) {
+            LOG_FACTORIAL[i] = LOG_FACTORIAL[i - 1] + Math.log(i);
+        }
+    }
+
     private final double normalizedMutualInformation;
     private final double mutualInformation;
+    private final double meanEntropy;
+    private final long[] rowSums;
+    private final long[] columnSums;
+    private final long n;
+    private Double adjustedMutualInformation;
 
     /**
      * Create a new {@link MutualInformation} from the given sets.
@@ -26,6 +49,7 @@ public class MutualInformation {
         if (a.isEmpty() || b.isEmpty()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(MutualInformation.class, "sets");
         Set<T> big;
         Set<T> small;
         if (a.size() > b.size()) {
@@ -36,24 +60,166 @@ public class MutualInformation {
             small = a;
         }
         int intersection = 0;
-        int union = big.size();
         for (T t : small) {
             if (big.contains(t)) {
                 intersection++;
-            } else {
-                union++;
             }
         }
 
-        final double N11 = intersection;
-        final double N00 = world.size() - union;
-        final double N10 = a.size() - intersection;
-        final double N01 = b.size() - intersection;
-        final double N0X = world.size() - a.size();
-        final double NX0 = world.size() - b.size();
-        final double NX1 = b.size();
-        final double N1X = a.size();
-        final double N = world.size();
+        final double[] binary = binary(intersection, a.size(), b.size(), world.size());
+        this.mutualInformation = binary[0];
+        this.normalizedMutualInformation = binary[1];
+        this.meanEntropy = binary[2];
+        this.rowSums = positive(a.size(), world.size() - a.size());
+        this.columnSums = positive(b.size(), world.size() - b.size());
+        this.n = world.size();
+
+        assert this.normalizedMutualInformation >= 0 - 1e-4 && this.normalizedMutualInformation <= 1 + 1e-4;
+        assert this.mutualInformation >= 0;
+        Probe.end(probe, small.size());
+    }
+
+    /**
+     * Create a new {@link MutualInformation} from the given {@link HyperLogLog} sketches.
+     * <p>
+     * The sizes of the sets are estimated by the sketches and the intersection is estimated with the
+     * inclusion-exclusion principle, see {@link HyperLogLog#intersectionCardinality(HyperLogLog)}. The {@code world}
+     * sketch is merged with a copy of {@code a} and {@code b}, so that it always covers them. The sketches are not
+     * modified. The marginals used by {@link #adjustedMutualInformation()} are the estimates rounded to integers.
+     *
+     * @param a     one sketch
+     * @param b     the other sketch
+     * @param world the sketch of the world set
+     * @throws NullPointerException     if any input is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if the sketches have different precisions
+     */
+    public MutualInformation(HyperLogLog a, HyperLogLog b, HyperLogLog world) {
+        final Probe probe = Probe.begin(MutualInformation.class, "sketches");
+        final SketchCounts counts = new SketchCounts(a, b);
+        final double size = Math.max(SketchCounts.world(world, a, b), counts.union);
+
+        final double[] binary = binary(counts.intersection, counts.a, counts.b, size);
+        this.mutualInformation = binary[0];
+        this.normalizedMutualInformation = binary[1];
+        this.meanEntropy = binary[2];
+        this.n = Math.round(size);
+        this.rowSums = positive(Math.round(counts.a), this.n - Math.round(counts.a));
+        this.columnSums = positive(Math.round(counts.b), this.n - Math.round(counts.b));
+
+        assert Double.isNaN(this.normalizedMutualInformation) ||
+                (this.normalizedMutualInformation >= 0 - 1e-4 && this.normalizedMutualInformation <= 1 + 1e-4);
+        Probe.end(probe, 1L << a.precision());
+    }
+
+    /**
+     * Create a new {@link MutualInformation} from the given clustering labels.
+     * <p>
+     * The element at position {@code i} is assigned to cluster {@code a[i]} in the one clustering and to cluster
+     * {@code b[i]} in the other. Labels can be arbitrary integers and do not need to be consecutive.
+     * <p>
+     * The contingency table of the two clusterings is built in a primitive hash map so that memory is proportional to
+     * the number of distinct label pairs and no object is allocated per element. This constructor is equivalent to
+     * {@link #MutualInformation(int[], int[], boolean) MutualInformation(a, b, false)}.
+     *
+     * @param a the one clustering
+     * @param b the other clustering
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     */
+    public MutualInformation(int[] a, int[] b) {
+        this(a, b, false);
+    }
+
+    /**
+     * Create a new {@link MutualInformation} from the given clustering labels, optionally building the contingency
+     * table in parallel.
+     * <p>
+     * When {@code parallel} is {@code true}, the inputs are split into chunks whose contingency tables are built
+     * independently in the {@link ForkJoinPool#commonPool() common pool} and then merged.
+     *
+     * @param a        the one clustering
+     * @param b        the other clustering
+     * @param parallel whether to build the contingency table in parallel
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     * @see #MutualInformation(int[], int[])
+     */
+    public MutualInformation(int[] a, int[] b, boolean parallel) {
+        if (a.length == 0 || b.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        final Probe probe = Probe.begin(MutualInformation.class, parallel ? "labels-parallel" : "labels");
+
+        final LongCounts table;
+        if (parallel && a.length > CHUNK_SIZE) {
+            final int chunks = (a.length - 1) / CHUNK_SIZE + 1;
+            final Optional<LongCounts> merged = IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> contingency(a, b, c * CHUNK_SIZE,
+                            (int) Math.min(a.length, (c + 1L) * CHUNK_SIZE)))
+                    .reduce((x, y) -> {
+                        if (x.size() < y.size()) {
+                            y.addAll(x);
+                            return y;
+                        }
+                        x.addAll(y);
+                        return x;
+                    });
+            table = merged.orElseThrow(IllegalStateException::new);
+        } else {
+            table = contingency(a, b, 0, a.length);
+        }
+
+        final LongCounts rows = new LongCounts(16);
+        final LongCounts columns = new LongCounts(16);
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            final long count = table.count(slot);
+            if (count != 0) {
+                final long key = table.key(slot);
+                rows.add(key >> 32, count);
+                columns.add((int) key, count);
+            }
+        }
+
+        final double N = a.length;
+        double mi = 0;
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            final long count = table.count(slot);
+            if (count != 0) {
+                final long key = table.key(slot);
+                final double ai = rows.get(key >> 32);
+                final double bj = columns.get((int) key);
+                mi += (count / N) * Math.log(N * count / (ai * bj)) / LN2;
+            }
+        }
+
+        this.rowSums = rows.counts();
+        this.columnSums = columns.counts();
+        this.n = a.length;
+        this.mutualInformation = Math.max(mi, 0);
+        this.meanEntropy = (entropy(rowSums, n) + entropy(columnSums, n)) / 2;
+        this.normalizedMutualInformation = this.mutualInformation / this.meanEntropy;
+
+        assert Double.isNaN(this.normalizedMutualInformation) ||
+                (this.normalizedMutualInformation >= 0 - 1e-4 && this.normalizedMutualInformation <= 1 + 1e-4);
+        Probe.end(probe, a.length);
+    }
+
+    /**
+     * Returns the mutual information, the normalized mutual information and the mean entropy of two binary
+     * clusterings, given the size of the intersection, the sizes of the sets and the size of the world.
+     */
+    private static double[] binary(double N11, double N1X, double NX1, double N) {
+        final double N00 = N - (N1X + NX1 - N11);
+        final double N10 = N1X - N11;
+        final double N01 = NX1 - N11;
+        final double N0X = N - N1X;
+        final double NX0 = N - NX1;
 
         final double pmi1 = (1.0 * N11 / N) * Math.log((1.0 * N * N11) / (1.0 * N1X * NX1)) / Math.log(2);
         final double pmi2 = (1.0 * N01 / N) * Math.log((1.0 * N * N01) / (1.0 * N0X * NX1)) / Math.log(2);
@@ -71,11 +237,113 @@ public class MutualInformation {
                 (Double.isNaN(pmi3) ? 0.0 : pmi3) +
                 (Double.isNaN(pmi4) ? 0.0 : pmi4);
 
-        this.mutualInformation = mi;
-        this.normalizedMutualInformation = -(2 * mi) / (entropy1 + entropy2);
+        return new double[]{mi, -(2 * mi) / (entropy1 + entropy2), -(entropy1 + entropy2) / 2};
+    }
+
+    private static LongCounts contingency(int[] a, int[] b, int from, int to) {
+        final LongCounts table = new LongCounts(64);
+        for (int i = from; i < to; i++) {
+            table.add(((long) a[i] << 32) | (b[i] & 0xffffffffL), 1);
+        }
+        return table;
+    }
 
-        assert this.normalizedMutualInformation >= 0 - 1e-4 && this.normalizedMutualInformation <= 1 + 1e-4;
-        assert this.mutualInformation >= 0;
+    private static long[] positive(long x, long y) {
+        if (x == 0) {
+            return new long[]{y};
+        }
+        if (y == 0) {
+            return new long[]{x};
+        }
+        return new long[]{x, y};
+    }
+
+    private static double entropy(long[] sums, long n) {
+        double entropy = 0;
+        for (long s : sums) {
+            final double p = (double) s / n;
+            entropy -= p * Math.log(p) / LN2;
+        }
+        return entropy;
+    }
+
+    private static double logFactorial(long k) {
+        if (k < LOG_FACTORIAL.length) {
+            return LOG_FACTORIAL[(int) k];
+        }
+        final double x = k;
+        final double x2 = x * x;
+        return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x)
+                + 1 / (12 * x) - 1 / (360 * x * x2) + 1 / (1260 * x * x2 * x2);
+    }
+
+    /**
+     * Returns the expected mutual information of two random clusterings with the given marginals under the
+     * hypergeometric model of randomness.
+     * <p>
+     * For every pair of marginals the summation starts from the mode of the hypergeometric distribution and proceeds
+     * outwards until the probabilities become negligible, which bounds the cost by the spread of the distribution
+     * rather than by the size of the clusters.
+     */
+    private static double expectedMutualInformation(long[] rows, long[] columns, long n) {
+        final double N = n;
+        final double logFactorialN = logFactorial(n);
+        double emi = 0;
+        for (long ai : rows) {
+            for (long bj : columns) {
+                final long lo = Math.max(1, ai + bj - n);
+                final long hi = Math.min(ai, bj);
+                if (lo > hi) {
+                    continue;
+                }
+                final long mode = Math.min(hi, Math.max(lo, (long) ((ai + 1.0) * (bj + 1.0) / (N + 2))));
+                final double logMode = logFactorial(ai) + logFactorial(bj) + logFactorial(n - ai)
+                        + logFactorial(n - bj) - logFactorialN - logFactorial(mode) - logFactorial(ai - mode)
+                        - logFactorial(bj - mode) - logFactorial(n - ai - bj + mode);
+                final double logAB = Math.log((double) ai * bj);
+
+                double logP = logMode;
+                for (long nij = mode; nij <= hi; nij++) {
+                    final double p = Math.exp(logP);
+                    emi += p * (nij / N) * (Math.log(N * nij) - logAB);
+                    if (p < 1e-20 && nij > mode) {
+                        break;
+                    }
+                    logP += Math.log((double) (ai - nij) * (bj - nij)) - Math.log((nij + 1.0) * (n - ai - bj + nij + 1));
+                }
+
+                logP = logMode;
+                for (long nij = mode - 1; nij >= lo; nij--) {
+                    logP += Math.log((nij + 1.0) * (n - ai - bj + nij + 1)) - Math.log((double) (ai - nij) * (bj - nij));
+                    final double p = Math.exp(logP);
+                    emi += p * (nij / N) * (Math.log(N * nij) - logAB);
+                    if (p < 1e-20) {
+                        break;
+                    }
+                }
+            }
+        }
+        return emi / LN2;
+    }
+
+    /**
+     * Returns the Adjusted mutual information of the inputs that this instance was created from.
+     * <p>
+     * The adjusted mutual information corrects the mutual information for chance, using its expected value under the
+     * hypergeometric model of randomness: {@code AMI = (MI - E[MI]) / (mean(H(a), H(b)) - E[MI])}. Its value is 1 when
+     * the inputs are identical and close to 0 for independent inputs.
+     * <p>
+     * The expected mutual information is computed the first time this method is invoked and its cost depends on the
+     * product of the number of distinct labels in the inputs.
+     *
+     * @return the Adjusted mutual information of the inputs that this instance was created from
+     */
+    public synchronized double adjustedMutualInformation() {
+        if (this.adjustedMutualInformation == null) {
+            final double emi = expectedMutualInformation(rowSums, columnSums, n);
+            this.adjustedMutualInformation = (this.mutualInformation - emi) / (this.meanEntropy - emi);
+        }
+        return this.adjustedMutualInformation;
     }
 
     /**
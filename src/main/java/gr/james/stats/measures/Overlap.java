@@ -1,5 +1,8 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.instrumentation.Probe;
+import gr.james.stats.utils.HyperLogLog;
+
 import java.util.Set;
 
 /**
@@ -21,6 +24,7 @@ public class Overlap {
         if (a.isEmpty() || b.isEmpty()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(Overlap.class, "sets");
         Set<T> big;
         Set<T> small;
         if (a.size() > b.size()) {
@@ -38,6 +42,28 @@ public class Overlap {
         }
         this.value = (double) intersection / (double) small.size();
         assert this.value >= 0 && this.value <= 1;
+        Probe.end(probe, small.size());
+    }
+
+    /**
+     * Create a new {@link Overlap} from the given {@link HyperLogLog} sketches.
+     * <p>
+     * The sizes of the sets are estimated by the sketches and the intersection is estimated with the
+     * inclusion-exclusion principle, see {@link HyperLogLog#intersectionCardinality(HyperLogLog)}. The sketches are not
+     * modified.
+     *
+     * @param a one sketch
+     * @param b the other sketch
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} have different precisions
+     */
+    public Overlap(HyperLogLog a, HyperLogLog b) {
+        final Probe probe = Probe.begin(Overlap.class, "sketches");
+        final SketchCounts counts = new SketchCounts(a, b);
+        this.value = counts.intersection / Math.min(counts.a, counts.b);
+        assert this.value >= 0 && this.value <= 1;
+        Probe.end(probe, 1L << a.precision());
     }
 
     /**
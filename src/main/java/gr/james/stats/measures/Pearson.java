@@ -1,5 +1,10 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.instrumentation.Probe;
+import gr.james.stats.utils.Kernels;
+import gr.james.stats.utils.SparseVector;
+import gr.james.stats.utils.WelfordCovariance;
+
 import java.util.Iterator;
 import java.util.Set;
 import java.util.function.ToDoubleFunction;
@@ -29,6 +34,7 @@ public class Pearson {
         if (a.isEmpty() || b.isEmpty()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(Pearson.class, "sets");
         Set<T> big;
         Set<T> small;
         if (a.size() > b.size()) {
@@ -55,6 +61,7 @@ public class Pearson {
         this.value = ((double) intersection * n00 - n10 * n01) /
                 Math.sqrt((double) a.size() * (double) b.size() * n0_ * n_0);
         assert Double.isNaN(this.value) || (this.value >= -1 && this.value <= 1);
+        Probe.end(probe, small.size());
     }
 
     /**
@@ -75,6 +82,7 @@ public class Pearson {
         if (!a.iterator().hasNext() || !b.iterator().hasNext()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(Pearson.class, "iterable");
 
         int aSize = 0;
         double averageA = 0;
@@ -100,8 +108,8 @@ public class Pearson {
             final Double aNext = aIterator.next() - averageA;
             final Double bNext = bIterator.next() - averageB;
             cov += aNext * bNext;
-            varA += Math.pow(aNext, 2);
-            varB += Math.pow(bNext, 2);
+            varA += aNext * aNext;
+            varB += bNext * bNext;
         }
         if (aIterator.hasNext() || bIterator.hasNext()) {
             throw new IllegalArgumentException("Inputs must have the same size");
@@ -116,6 +124,7 @@ public class Pearson {
 
         this.value = cov / (varA * varB);
         assert this.value >= -1 && this.value <= 1;
+        Probe.end(probe, aSize);
     }
 
     /**
@@ -138,6 +147,7 @@ public class Pearson {
         if (!a.hasNext() || !b.hasNext()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(Pearson.class, "iterator");
 
         int n = 0;
         double aSum = 0;
@@ -163,51 +173,129 @@ public class Pearson {
         this.value = (n * productSum - aSum * bSum) / (Math.sqrt(n * aSquaredSum - aSum * aSum) * Math.sqrt(n * bSquaredSum - bSum * bSum));
 
         assert this.value >= -1 && this.value <= 1;
+        Probe.end(probe, n);
+    }
+
+    /**
+     * Create a new {@link Pearson} from the given primitive vectors.
+     * <p>
+     * Elements are matched between the inputs by index. The means and the co-moments are computed with the
+     * {@link Kernels}, which are vectorized when available.
+     *
+     * @param a the one vector
+     * @param b the other vector
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     */
+    public Pearson(double[] a, double[] b) {
+        if (a.length == 0 || b.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        final Probe probe = Probe.begin(Pearson.class, "arrays");
+
+        final double averageA = Kernels.sum(a) / a.length;
+        final double averageB = Kernels.sum(b) / b.length;
+        final double cov = Kernels.coMoment(a, b, averageA, averageB);
+        final double varA = Kernels.coMoment(a, a, averageA, averageA);
+        final double varB = Kernels.coMoment(b, b, averageB, averageB);
+
+        this.value = cov / (Math.sqrt(varA) * Math.sqrt(varB));
+        assert Double.isNaN(this.value) || Math.abs(this.value) <= 1 + 1e-12;
+        Probe.end(probe, a.length);
+    }
+
+    /**
+     * Create a new {@link Pearson} from the given sparse vectors.
+     * <p>
+     * Only the union of the non-zero elements of the vectors is visited. The means are derived from the sums of the
+     * non-zero elements and the dimension, and the contribution of the elements that are zero in both vectors to the
+     * co-moments is added analytically, see {@link SparseVector#coMoment(SparseVector, double, double)}.
+     *
+     * @param a the one vector
+     * @param b the other vector
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} has zero dimension
+     * @throws IllegalArgumentException if {@code a} and {@code b} have different dimensions
+     */
+    public Pearson(SparseVector a, SparseVector b) {
+        if (a.dimension() == 0 || b.dimension() == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (a.dimension() != b.dimension()) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        final Probe probe = Probe.begin(Pearson.class, "sparse");
+
+        final double averageA = a.sum() / a.dimension();
+        final double averageB = b.sum() / b.dimension();
+        final double cov = a.coMoment(b, averageA, averageB);
+        final double varA = a.coMoment(a, averageA, averageA);
+        final double varB = b.coMoment(b, averageB, averageB);
+
+        this.value = cov / (Math.sqrt(varA) * Math.sqrt(varB));
+        assert Double.isNaN(this.value) || Math.abs(this.value) <= 1 + 1e-12;
+        Probe.end(probe, a.size() + b.size());
     }
 
     /**
      * Create a new {@link Pearson} from the given arguments.
+     * <p>
+     * Each mapping is evaluated exactly once per element of {@code population} and the correlation is computed in a
+     * single pass using the co-moment updates of {@link WelfordCovariance}.
      *
      * @param population the population set
      * @param mapping1   a function representing one input
      * @param mapping2   a function representing one input
      * @param <T>        the type of elements in the inputs
      * @throws NullPointerException     if any input is {@code null}
-     * @throws NullPointerException     if any value returned from either {@code mapping1} or {@code mapping2} is
-     *                                  {@code null}
      * @throws IllegalArgumentException if {@code population} is empty
-     * @throws IllegalArgumentException if some property of {@code mapping1} or {@code mapping2} prevents their average
-     *                                  values to be computed
      * @throws RuntimeException         as propagated from the {@link ToDoubleFunction#applyAsDouble(Object)} method
      */
     public <T> Pearson(Set<T> population, ToDoubleFunction<T> mapping1, ToDoubleFunction<T> mapping2) {
+        this(population, mapping1, mapping2, false);
+    }
+
+    /**
+     * Create a new {@link Pearson} from the given arguments, optionally in parallel.
+     * <p>
+     * Each mapping is evaluated exactly once per element of {@code population} and the correlation is computed in a
+     * single pass using the co-moment updates of {@link WelfordCovariance}. If {@code parallel} is {@code true}, the
+     * population is split with its parallel stream, every part is accumulated independently and the partial
+     * co-moments are combined with the pairwise update of {@link WelfordCovariance#merge(WelfordCovariance)}. In that
+     * case the mappings may be invoked concurrently from multiple threads.
+     *
+     * @param population the population set
+     * @param mapping1   a function representing one input
+     * @param mapping2   a function representing one input
+     * @param parallel   whether to process the population in parallel
+     * @param <T>        the type of elements in the inputs
+     * @throws NullPointerException     if any input is {@code null}
+     * @throws IllegalArgumentException if {@code population} is empty
+     * @throws RuntimeException         as propagated from the {@link ToDoubleFunction#applyAsDouble(Object)} method
+     */
+    public <T> Pearson(Set<T> population, ToDoubleFunction<T> mapping1, ToDoubleFunction<T> mapping2,
+                       boolean parallel) {
         if (population.isEmpty()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
-
-        final double averageA = population.stream().mapToDouble(mapping1).average()
-                .orElseThrow(() -> new IllegalArgumentException("Can't get the average of a"));
-        final double averageB = population.stream().mapToDouble(mapping2).average()
-                .orElseThrow(() -> new IllegalArgumentException("Can't get the average of b"));
-
-        double cov = 0;
-        double varA = 0;
-        double varB = 0;
-        for (T t : population) {
-            cov += (mapping1.applyAsDouble(t) - averageA) * (mapping2.applyAsDouble(t) - averageB);
-            varA += Math.pow(mapping1.applyAsDouble(t) - averageA, 2);
-            varB += Math.pow(mapping2.applyAsDouble(t) - averageB, 2);
+        if (mapping1 == null || mapping2 == null) {
+            throw new NullPointerException();
         }
+        final Probe probe = Probe.begin(Pearson.class, parallel ? "population-parallel" : "population");
 
-        cov /= population.size();
-        varA /= population.size();
-        varB /= population.size();
+        final WelfordCovariance wc = (parallel ? population.parallelStream() : population.stream()).collect(
+                WelfordCovariance::new,
+                (c, t) -> c.add(mapping1.applyAsDouble(t), mapping2.applyAsDouble(t)),
+                WelfordCovariance::merge
+        );
 
-        varA = Math.sqrt(varA);
-        varB = Math.sqrt(varB);
-
-        this.value = cov / (varA * varB);
-        assert this.value >= -1 && this.value <= 1;
+        this.value = wc.pearson();
+        assert Double.isNaN(this.value) || Math.abs(this.value) <= 1 + 1e-12;
+        Probe.end(probe, population.size());
     }
 
     /**
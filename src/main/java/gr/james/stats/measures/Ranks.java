@@ -0,0 +1,193 @@
+package gr.james.stats.measures;
+
+import java.util.List;
+
+/**
+ * Ranking utilities on primitive {@code double} arrays used by the rank correlation measures.
+ */
+final class Ranks {
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private Ranks() {
+    }
+
+    /**
+     * Returns the permutation that sorts {@code x} in ascending order.
+     * <p>
+     * The sort is stable, so tied values keep the relative order of their indices. The input array is not modified.
+     *
+     * @param x the values
+     * @return the permutation that sorts {@code x}, i.e. {@code x[p[0]] <= x[p[1]] <= ... <= x[p[n - 1]]}
+     * @throws NullPointerException     if {@code x} is {@code null}
+     * @throws IllegalArgumentException if {@code x} contains {@link Double#NaN} values
+     */
+    static int[] sortedPermutation(double[] x) {
+        final int n = x.length;
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(x[i])) {
+                throw new IllegalArgumentException("Inputs cannot contain NaN values");
+            }
+            permutation[i] = i;
+        }
+
+        for (int from = 0; from < n; from += INSERTION_SORT_THRESHOLD) {
+            final int to = Math.min(from + INSERTION_SORT_THRESHOLD, n);
+            for (int i = from + 1; i < to; i++) {
+                final int p = permutation[i];
+                final double v = x[p];
+                int j = i - 1;
+                while (j >= from && x[permutation[j]] > v) {
+                    permutation[j + 1] = permutation[j];
+                    j--;
+                }
+                permutation[j + 1] = p;
+            }
+        }
+
+        int[] buffer = new int[n];
+        for (int width = INSERTION_SORT_THRESHOLD; width < n; width *= 2) {
+            for (int from = 0; from < n; from += 2 * width) {
+                final int middle = Math.min(from + width, n);
+                final int to = Math.min(from + 2 * width, n);
+                int i = from;
+                int j = middle;
+                int k = from;
+                while (i < middle && j < to) {
+                    if (x[permutation[j]] < x[permutation[i]]) {
+                        buffer[k++] = permutation[j++];
+                    } else {
+                        buffer[k++] = permutation[i++];
+                    }
+                }
+                while (i < middle) {
+                    buffer[k++] = permutation[i++];
+                }
+                while (j < to) {
+                    buffer[k++] = permutation[j++];
+                }
+            }
+            final int[] swap = permutation;
+            permutation = buffer;
+            buffer = swap;
+        }
+
+        return permutation;
+    }
+
+    /**
+     * Returns the fractional ranks of {@code x} given its sorted permutation.
+     * <p>
+     * Ranks start from 1 and tied values are assigned the average of the ranks they span.
+     *
+     * @param x           the values
+     * @param permutation the permutation that sorts {@code x}, as returned by {@link #sortedPermutation(double[])}
+     * @return the fractional ranks of {@code x}
+     */
+    static double[] fractionalRanks(double[] x, int[] permutation) {
+        final int n = x.length;
+        final double[] ranks = new double[n];
+        int start = 0;
+        while (start < n) {
+            int end = start + 1;
+            while (end < n && x[permutation[end]] == x[permutation[start]]) {
+                end++;
+            }
+            final double rank = (start + end + 1) / 2.0;
+            for (int i = start; i < end; i++) {
+                ranks[permutation[i]] = rank;
+            }
+            start = end;
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns the dense ranks of {@code x} given its sorted permutation.
+     * <p>
+     * Ranks start from 0 and are consecutive, tied values are assigned the same rank.
+     *
+     * @param x           the values
+     * @param permutation the permutation that sorts {@code x}, as returned by {@link #sortedPermutation(double[])}
+     * @return the dense ranks of {@code x}
+     */
+    static int[] denseRanks(double[] x, int[] permutation) {
+        final int[] ranks = new int[x.length];
+        int rank = 0;
+        for (int i = 0; i < x.length; i++) {
+            if (i > 0 && x[permutation[i]] != x[permutation[i - 1]]) {
+                rank++;
+            }
+            ranks[permutation[i]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns the number of pairs of tied values in {@code x} given its sorted permutation.
+     *
+     * @param x           the values
+     * @param permutation the permutation that sorts {@code x}, as returned by {@link #sortedPermutation(double[])}
+     * @return the number of pairs of tied values in {@code x}
+     */
+    static long tiedPairs(double[] x, int[] permutation) {
+        long ties = 0;
+        long run = 1;
+        for (int i = 1; i < x.length; i++) {
+            if (x[permutation[i]] == x[permutation[i - 1]]) {
+                run++;
+            } else {
+                ties += run * (run - 1) / 2;
+                run = 1;
+            }
+        }
+        return ties + run * (run - 1) / 2;
+    }
+
+    /**
+     * Validates a list of vectors that are to be compared pairwise and returns their common length.
+     *
+     * @param inputs the input vectors
+     * @return the common length of the vectors in {@code inputs}
+     * @throws NullPointerException     if {@code inputs} or any of its elements is {@code null}
+     * @throws IllegalArgumentException if {@code inputs} is empty or any vector inside it is empty
+     * @throws IllegalArgumentException if the vectors in {@code inputs} are not of the same size
+     */
+    static int commonLength(List<double[]> inputs) {
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        final int n = inputs.get(0).length;
+        for (double[] input : inputs) {
+            if (input.length == 0) {
+                throw new IllegalArgumentException("Inputs cannot be empty");
+            }
+            if (input.length != n) {
+                throw new IllegalArgumentException("Inputs must have the same size");
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns the position of the pair {@code (i, j)} in a packed lower triangular matrix of the given size that
+     * includes the diagonal.
+     *
+     * @param size the size of the matrix
+     * @param i    the row
+     * @param j    the column
+     * @return the position of the pair {@code (i, j)} in the packed matrix
+     * @throws IndexOutOfBoundsException if either {@code i} or {@code j} is not in {@code [0, size)}
+     */
+    static int packedIndex(int size, int i, int j) {
+        if (i < 0 || i >= size || j < 0 || j >= size) {
+            throw new IndexOutOfBoundsException(String.format("(%d, %d) out of bounds for size %d", i, j, size));
+        }
+        if (i < j) {
+            final int t = i;
+            i = j;
+            j = t;
+        }
+        return (int) ((long) i * (i + 1) / 2 + j);
+    }
+}
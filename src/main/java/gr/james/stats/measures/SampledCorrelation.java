@@ -0,0 +1,161 @@
+package gr.james.stats.measures;
+
+import java.util.Random;
+
+/**
+ * Running estimate of a correlation of the form {@code E[z] / sqrt(E[u] E[v])} from sampled terms, with a normal
+ * confidence interval from the delta method.
+ * <p>
+ * Both the tau-b variant of the Kendall rank correlation coefficient and the Spearman's rank correlation coefficient
+ * with fractional ranks have this form, where the expectations are over pairs or triples of elements drawn uniformly
+ * and independently.
+ */
+final class SampledCorrelation {
+    static final int BATCH = 1024;
+    static final int MIN_SAMPLES = 16 * BATCH;
+
+    private long n = 0;
+    private double sz = 0;
+    private double su = 0;
+    private double sv = 0;
+    private double szz = 0;
+    private double suu = 0;
+    private double svv = 0;
+    private double szu = 0;
+    private double szv = 0;
+    private double suv = 0;
+
+    /**
+     * Checks the common arguments of the approximate estimators.
+     */
+    static void check(double[] a, double[] b, double halfWidth, double confidence, long maxSamples, Random random) {
+        if (a.length == 0 || b.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        if (!(halfWidth > 0)) {
+            throw new IllegalArgumentException("halfWidth must be positive");
+        }
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be in (0, 1)");
+        }
+        if (maxSamples <= 0) {
+            throw new IllegalArgumentException("maxSamples must be positive");
+        }
+        if (random == null) {
+            throw new NullPointerException();
+        }
+    }
+
+    /**
+     * Adds a single sampled term.
+     */
+    void add(double z, double u, double v) {
+        n++;
+        sz += z;
+        su += u;
+        sv += v;
+        szz += z * z;
+        suu += u * u;
+        svv += v * v;
+        szu += z * u;
+        szv += z * v;
+        suv += u * v;
+    }
+
+    /**
+     * Returns the number of sampled terms.
+     */
+    long samples() {
+        return n;
+    }
+
+    /**
+     * Returns whether sampling should stop, given the current half-width of the interval.
+     * <p>
+     * The stopping rule is only applied after {@link #MIN_SAMPLES} terms, so that the asymptotic interval is not relied
+     * upon after a few batches.
+     */
+    boolean done(double width, double halfWidth, long maxSamples) {
+        return n >= maxSamples || (n >= MIN_SAMPLES && width <= halfWidth);
+    }
+
+    /**
+     * Returns the estimate, which is {@link Double#NaN} if either {@code E[u]} or {@code E[v]} is estimated as zero.
+     */
+    double value() {
+        return sz / Math.sqrt(su * sv);
+    }
+
+    /**
+     * Returns the half-width of the confidence interval for the given standard normal quantile.
+     * <p>
+     * The variance of the ratio is approximated by the first order Taylor expansion around the means. In the style of
+     * the Agresti-Coull interval, the moments include {@code quantile^2 / 2} pseudo-terms with {@code z = 1} and as
+     * many with {@code z = -1}, both with {@code u = v = 1}. Otherwise, when the discordant terms are rare enough that
+     * none has been sampled, the sample variance and the half-width would be zero and the interval would exclude the
+     * true value.
+     */
+    double halfWidth(double quantile) {
+        final double pseudo = quantile * quantile;
+        final double m = n + pseudo;
+        final double mz = sz / m;
+        final double mu = (su + pseudo) / m;
+        final double mv = (sv + pseudo) / m;
+        final double value = mz / Math.sqrt(mu * mv);
+        final double gz = 1 / Math.sqrt(mu * mv);
+        final double gu = -value / (2 * mu);
+        final double gv = -value / (2 * mv);
+        final double czz = (szz + pseudo) / m - mz * mz;
+        final double cuu = (suu + pseudo) / m - mu * mu;
+        final double cvv = (svv + pseudo) / m - mv * mv;
+        final double czu = szu / m - mz * mu;
+        final double czv = szv / m - mz * mv;
+        final double cuv = (suv + pseudo) / m - mu * mv;
+        final double variance = gz * gz * czz + gu * gu * cuu + gv * gv * cvv
+                + 2 * (gz * gu * czu + gz * gv * czv + gu * gv * cuv);
+        return quantile * Math.sqrt(Math.max(variance, 0) / n);
+    }
+
+    /**
+     * Returns the two-sided standard normal quantile for the given confidence, i.e. {@code z} such that
+     * {@code P(|Z| <= z) = confidence}.
+     */
+    static double twoSidedQuantile(double confidence) {
+        return normalQuantile((1 + confidence) / 2);
+    }
+
+    /**
+     * Returns the quantile of the standard normal distribution using the rational approximation of Acklam, which has a
+     * relative error below {@code 1.15e-9}.
+     *
+     * @param p the probability, in {@code (0, 1)}
+     * @return the quantile of the standard normal distribution
+     */
+    static double normalQuantile(double p) {
+        final double low = 0.02425;
+        if (p < low) {
+            final double q = Math.sqrt(-2 * Math.log(p));
+            return tail(q);
+        } else if (p > 1 - low) {
+            final double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -tail(q);
+        } else {
+            final double q = p - 0.5;
+            final double r = q * q;
+            return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r
+                    + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+                    / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r
+                    + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1);
+        }
+    }
+
+    private static double tail(double q) {
+        return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q
+                - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q
+                + 3.754408661907416e+00) * q + 1);
+    }
+}
@@ -0,0 +1,308 @@
+package gr.james.stats.measures;
+
+import gr.james.stats.instrumentation.Probe;
+
+import java.util.*;
+
+/**
+ * Exact similarity scoring of a query set against many candidate sets, using an inverted index.
+ * <p>
+ * The candidate sets are indexed once as posting lists: for every element, the positions of the candidates that
+ * contain it. The intersection sizes of a query with all candidates are then accumulated in a single sweep over the
+ * posting lists of the elements of the query, so that only the candidates that share an element with the query are
+ * visited and no set is probed. The scores are computed from the intersection and set sizes and only the {@code k}
+ * best are kept in a bounded heap, instead of materializing the scores of all candidates.
+ * <p>
+ * Candidates that have no element in common with the query have a score of 0 for every {@link Measure} and are never
+ * reported. Queries may be run concurrently from multiple threads.
+ *
+ * @param <T> the type of elements in the sets
+ */
+public class SetSimilarityIndex<T> {
+    private final int size;
+    private final Map<T, Integer> dictionary;
+    private final int[] sizes;
+    private final int[] postingStart;
+    private final int[] postings;
+    private final ThreadLocal<int[]> counts;
+
+    /**
+     * The similarity measures that can be computed from the sizes of two sets and their intersection.
+     */
+    public enum Measure {
+        /**
+         * The {@link Jaccard} index.
+         */
+        JACCARD {
+            @Override
+            double score(int intersection, int a, int b) {
+                return intersection / ((double) a + b - intersection);
+            }
+        },
+        /**
+         * The {@link Sorensen} coefficient.
+         */
+        SORENSEN {
+            @Override
+            double score(int intersection, int a, int b) {
+                return intersection * 2.0 / ((double) a + b);
+            }
+        },
+        /**
+         * The {@link Overlap} coefficient.
+         */
+        OVERLAP {
+            @Override
+            double score(int intersection, int a, int b) {
+                return (double) intersection / Math.min(a, b);
+            }
+        },
+        /**
+         * The {@link Cosine} similarity of the indicator vectors of the sets.
+         */
+        COSINE {
+            @Override
+            double score(int intersection, int a, int b) {
+                return intersection / Math.sqrt((double) a * b);
+            }
+        };
+
+        abstract double score(int intersection, int a, int b);
+    }
+
+    /**
+     * A candidate and its score.
+     */
+    public static final class Match {
+        private final int candidate;
+        private final double value;
+
+        private Match(int candidate, double value) {
+            this.candidate = candidate;
+            this.value = value;
+        }
+
+        /**
+         * Returns the position of the candidate in the list that the index was created from.
+         *
+         * @return the position of the candidate in the list that the index was created from
+         */
+        public int candidate() {
+            return candidate;
+        }
+
+        /**
+         * Returns the score of the candidate.
+         *
+         * @return the score of the candidate
+         */
+        public double value() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d=%s", candidate, value);
+        }
+    }
+
+    /**
+     * Create a new {@link SetSimilarityIndex} by indexing the given candidate sets.
+     * <p>
+     * The sets are not retained and may be modified after this constructor returns.
+     *
+     * @param candidates the candidate sets
+     * @throws NullPointerException     if {@code candidates} or any of its elements is {@code null}
+     * @throws IllegalArgumentException if {@code candidates} is empty
+     */
+    public SetSimilarityIndex(List<? extends Set<T>> candidates) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        final Probe probe = Probe.begin(SetSimilarityIndex.class, "index");
+        this.size = candidates.size();
+        this.sizes = new int[size];
+        this.dictionary = new HashMap<>();
+
+        int[] frequency = new int[16];
+        long elements = 0;
+        for (int c = 0; c < size; c++) {
+            final Set<T> set = candidates.get(c);
+            sizes[c] = set.size();
+            for (T t : set) {
+                final int id = dictionary.computeIfAbsent(t, x -> dictionary.size());
+                if (id == frequency.length) {
+                    frequency = Arrays.copyOf(frequency, frequency.length * 2);
+                }
+                frequency[id]++;
+            }
+            elements += set.size();
+        }
+
+        this.postingStart = new int[dictionary.size() + 1];
+        for (int id = 0; id < dictionary.size(); id++) {
+            postingStart[id + 1] = postingStart[id] + frequency[id];
+        }
+        this.postings = new int[Math.toIntExact(elements)];
+        final int[] fill = Arrays.copyOf(postingStart, dictionary.size());
+        for (int c = 0; c < size; c++) {
+            for (T t : candidates.get(c)) {
+                postings[fill[dictionary.get(t)]++] = c;
+            }
+        }
+        this.counts = ThreadLocal.withInitial(() -> new int[size]);
+        Probe.end(probe, elements);
+    }
+
+    /**
+     * Returns the number of candidate sets.
+     *
+     * @return the number of candidate sets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the {@code k} candidates with the highest scores against the query set.
+     * <p>
+     * The result is sorted by decreasing score and candidates with equal scores are ordered by increasing position.
+     * It contains less than {@code k} matches if less than {@code k} candidates share an element with the query. The
+     * scores are identical to the ones of {@link Jaccard}, {@link Sorensen} and {@link Overlap}.
+     *
+     * @param query   the query set
+     * @param measure the similarity measure
+     * @param k       the maximum number of matches
+     * @return the {@code k} candidates with the highest scores against {@code query}
+     * @throws NullPointerException     if either {@code query} or {@code measure} is {@code null}
+     * @throws IllegalArgumentException if {@code query} is empty
+     * @throws IllegalArgumentException if {@code k} is not positive
+     */
+    public List<Match> top(Set<T> query, Measure measure, int k) {
+        if (query.isEmpty()) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        if (measure == null) {
+            throw new NullPointerException();
+        }
+        final Probe probe = Probe.begin(SetSimilarityIndex.class, "top");
+        final int[] intersections = counts.get();
+        int[] touched = new int[16];
+        int candidates = 0;
+        long visited = 0;
+        for (T t : query) {
+            final Integer id = dictionary.get(t);
+            if (id == null) {
+                continue;
+            }
+            for (int p = postingStart[id]; p < postingStart[id + 1]; p++) {
+                final int c = postings[p];
+                if (intersections[c]++ == 0) {
+                    if (candidates == touched.length) {
+                        touched = Arrays.copyOf(touched, touched.length * 2);
+                    }
+                    touched[candidates++] = c;
+                }
+            }
+            visited += postingStart[id + 1] - postingStart[id];
+        }
+
+        final TopK heap = new TopK(Math.min(k, Math.max(candidates, 1)));
+        final int querySize = query.size();
+        for (int i = 0; i < candidates; i++) {
+            final int c = touched[i];
+            heap.offer(c, measure.score(intersections[c], querySize, sizes[c]));
+            intersections[c] = 0;
+        }
+        final List<Match> result = heap.drain();
+        Probe.end(probe, visited);
+        return result;
+    }
+
+    /**
+     * Bounded min-heap of candidates by score, where the root is the worst of the kept candidates.
+     */
+    private static final class TopK {
+        private final double[] scores;
+        private final int[] ids;
+        private int size = 0;
+
+        TopK(int capacity) {
+            this.scores = new double[capacity];
+            this.ids = new int[capacity];
+        }
+
+        void offer(int id, double score) {
+            if (size < scores.length) {
+                scores[size] = score;
+                ids[size] = id;
+                up(size++);
+            } else if (worse(0, score, id)) {
+                scores[0] = score;
+                ids[0] = id;
+                down(0);
+            }
+        }
+
+        /**
+         * Returns the kept candidates from the best to the worst, emptying the heap.
+         */
+        List<Match> drain() {
+            final Match[] matches = new Match[size];
+            while (size > 0) {
+                matches[size - 1] = new Match(ids[0], scores[0]);
+                size--;
+                scores[0] = scores[size];
+                ids[0] = ids[size];
+                down(0);
+            }
+            return Arrays.asList(matches);
+        }
+
+        /**
+         * Returns whether the candidate at heap position {@code i} is worse than the candidate {@code (score, id)}.
+         */
+        private boolean worse(int i, double score, int id) {
+            return scores[i] < score || (scores[i] == score && ids[i] > id);
+        }
+
+        private void up(int i) {
+            while (i > 0) {
+                final int parent = (i - 1) / 2;
+                if (!worse(i, scores[parent], ids[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                final int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                final int right = left + 1;
+                final int child = right < size && worse(right, scores[left], ids[left]) ? right : left;
+                if (!worse(child, scores[i], ids[i])) {
+                    break;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            final double score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+            final int id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+        }
+    }
+}
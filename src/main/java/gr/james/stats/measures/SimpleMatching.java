@@ -1,5 +1,8 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.instrumentation.Probe;
+import gr.james.stats.utils.HyperLogLog;
+
 import java.util.Set;
 
 /**
@@ -25,6 +28,7 @@ public class SimpleMatching {
         if (a.isEmpty() || b.isEmpty()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(SimpleMatching.class, "sets");
         Set<T> big;
         Set<T> small;
         if (a.size() > b.size()) {
@@ -45,6 +49,31 @@ public class SimpleMatching {
         }
         this.value = (double) (world.size() - union + intersection) / (double) world.size();
         assert this.value >= 0 && this.value <= 1;
+        Probe.end(probe, small.size());
+    }
+
+    /**
+     * Create a new {@link SimpleMatching} from the given {@link HyperLogLog} sketches.
+     * <p>
+     * The sizes of the sets are estimated by the sketches and the intersection is estimated with the
+     * inclusion-exclusion principle, see {@link HyperLogLog#intersectionCardinality(HyperLogLog)}. The {@code world}
+     * sketch is merged with a copy of {@code a} and {@code b}, so that it always covers them. The sketches are not
+     * modified.
+     *
+     * @param a     one sketch
+     * @param b     the other sketch
+     * @param world the sketch of the world set
+     * @throws NullPointerException     if any input is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if the sketches have different precisions
+     */
+    public SimpleMatching(HyperLogLog a, HyperLogLog b, HyperLogLog world) {
+        final Probe probe = Probe.begin(SimpleMatching.class, "sketches");
+        final SketchCounts counts = new SketchCounts(a, b);
+        final double n = Math.max(SketchCounts.world(world, a, b), counts.union);
+        this.value = (n - counts.union + counts.intersection) / n;
+        assert this.value >= 0 && this.value <= 1;
+        Probe.end(probe, 1L << a.precision());
     }
 
     /**
@@ -0,0 +1,41 @@
+package gr.james.stats.measures;
+
+import gr.james.stats.utils.HyperLogLog;
+
+/**
+ * Estimated set sizes of two {@link HyperLogLog} sketches, used by the set theoretic measures.
+ * <p>
+ * The intersection is estimated with the inclusion-exclusion principle and clamped to
+ * {@code [0, min(|A|, |B|)]}, and the union is raised to at least {@code max(|A|, |B|)}, so that the measure formulas
+ * always stay within their ranges.
+ */
+final class SketchCounts {
+    final double a;
+    final double b;
+    final double union;
+    final double intersection;
+
+    /**
+     * Estimates the sizes of the given sketches.
+     *
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} have different precisions
+     */
+    SketchCounts(HyperLogLog a, HyperLogLog b) {
+        this.a = a.cardinality();
+        this.b = b.cardinality();
+        if (this.a == 0 || this.b == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        this.union = Math.max(a.unionCardinality(b), Math.max(this.a, this.b));
+        this.intersection = Math.max(0, Math.min(Math.min(this.a, this.b), this.a + this.b - this.union));
+    }
+
+    /**
+     * Estimates the size of the world, which is raised to at least the size of the union of {@code a} and {@code b}.
+     */
+    static double world(HyperLogLog world, HyperLogLog a, HyperLogLog b) {
+        return world.copy().merge(a).merge(b).cardinality();
+    }
+}
@@ -0,0 +1,124 @@
+package gr.james.stats.measures;
+
+/**
+ * Kendall rank correlation coefficient of two streams over a sliding window of their most recent observations.
+ * <p>
+ * The window keeps the numbers of concordant minus discordant pairs and of the pairs tied in each stream. When an
+ * observation enters or leaves the window, only its pairs with the other observations in the window are counted, using
+ * a dynamic dominance counting structure over the points {@code (a, b)}, instead of recounting all pairs. Both
+ * operations cost amortized {@code O(log^2 N)} for the structure updates and {@code O(log^3 N)} in the worst case for
+ * the queries, compared to the {@code O(N^2)} of recomputing {@link Kendall} for every observation.
+ * <p>
+ * The coefficient computed is the tau-b variant which accounts for ties, identical to {@link Kendall} over the
+ * observations in the window.
+ */
+public class SlidingWindowKendall {
+    private final int window;
+    private final double[] a;
+    private final double[] b;
+    private final DominanceCounter counter = new DominanceCounter();
+    private int head = 0;
+    private int size = 0;
+    private long score = 0;
+    private long tiesA = 0;
+    private long tiesB = 0;
+
+    /**
+     * Create a new empty {@link SlidingWindowKendall}.
+     *
+     * @param window the maximum number of observations in the window
+     * @throws IllegalArgumentException if {@code window} is less than 2
+     */
+    public SlidingWindowKendall(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("window must be at least 2");
+        }
+        this.window = window;
+        this.a = new double[window];
+        this.b = new double[window];
+    }
+
+    /**
+     * Add an observation of both streams, evicting the oldest observation if the window is full.
+     *
+     * @param x the observation of the one stream
+     * @param y the observation of the other stream
+     * @throws IllegalArgumentException if either {@code x} or {@code y} is not finite
+     */
+    public void add(double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new IllegalArgumentException("argument must be finite");
+        }
+        if (size == window) {
+            final double oldA = a[head];
+            final double oldB = b[head];
+            counter.remove(oldA, oldB);
+            size--;
+            account(oldA, oldB, -1);
+        }
+        account(x, y, 1);
+        a[head] = x;
+        b[head] = y;
+        head = (head + 1) % window;
+        size++;
+        if (counter.removed() >= window) {
+            counter.reset(a, b, window);
+        } else {
+            counter.add(x, y);
+        }
+    }
+
+    /**
+     * Adds or subtracts the pairs of {@code (x, y)} with the observations in the counter.
+     */
+    private void account(double x, double y, int sign) {
+        final double upX = Math.nextUp(x);
+        final double upY = Math.nextUp(y);
+        final double inf = Double.POSITIVE_INFINITY;
+        final long lessA = counter.count(x, inf);
+        final long notGreaterA = counter.count(upX, inf);
+        final long lessB = counter.count(inf, y);
+        final long notGreaterB = counter.count(inf, upY);
+        final long bothLess = counter.count(x, y);
+        final long lessANotGreaterB = counter.count(x, upY);
+        final long notGreaterALessB = counter.count(upX, y);
+        final long bothNotGreater = counter.count(upX, upY);
+        final long bothGreater = size - notGreaterA - notGreaterB + bothNotGreater;
+        final long lessAGreaterB = lessA - lessANotGreaterB;
+        final long greaterALessB = lessB - notGreaterALessB;
+        score += sign * (bothLess + bothGreater - lessAGreaterB - greaterALessB);
+        tiesA += sign * (notGreaterA - lessA);
+        tiesB += sign * (notGreaterB - lessB);
+    }
+
+    /**
+     * Returns the maximum number of observations in the window.
+     *
+     * @return the maximum number of observations in the window
+     */
+    public int window() {
+        return this.window;
+    }
+
+    /**
+     * Returns the number of observations currently in the window.
+     *
+     * @return the number of observations currently in the window
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the Kendall rank correlation coefficient of the observations currently in the window.
+     * <p>
+     * The result is {@link Double#NaN} if the window has less than 2 observations or if all the observations of a
+     * stream in the window are tied.
+     *
+     * @return the Kendall rank correlation coefficient of the observations currently in the window
+     */
+    public double value() {
+        final long pairs = (long) size * (size - 1) / 2;
+        return score / (Math.sqrt(pairs - tiesA) * Math.sqrt(pairs - tiesB));
+    }
+}
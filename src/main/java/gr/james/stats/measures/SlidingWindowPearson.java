@@ -0,0 +1,180 @@
+package gr.james.stats.measures;
+
+/**
+ * Pearson correlation coefficient of two streams over a sliding window of their most recent observations.
+ * <p>
+ * The observations are kept in a primitive ring buffer and the means and co-moments of the window are updated in
+ * {@code O(1)} when an observation enters or leaves it, using the updates of Welford's online algorithm and their
+ * inverses. Removing observations lets rounding errors accumulate, so the statistics are recomputed from the buffer in
+ * two passes, relative to the exact means, after every {@code window} evictions. This costs {@code O(1)} amortized and
+ * bounds the drift to that of a single window.
+ * <p>
+ * No memory is allocated after construction, so that many instances can be updated on every tick.
+ */
+public class SlidingWindowPearson {
+    private final int window;
+    private final double[] a;
+    private final double[] b;
+    private int head = 0;
+    private int size = 0;
+    private int evictions = 0;
+    private double meanA = 0;
+    private double meanB = 0;
+    private double m2a = 0;
+    private double m2b = 0;
+    private double cab = 0;
+
+    /**
+     * Create a new empty {@link SlidingWindowPearson}.
+     *
+     * @param window the maximum number of observations in the window
+     * @throws IllegalArgumentException if {@code window} is less than 2
+     */
+    public SlidingWindowPearson(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("window must be at least 2");
+        }
+        this.window = window;
+        this.a = new double[window];
+        this.b = new double[window];
+    }
+
+    /**
+     * Add an observation of both streams, evicting the oldest observation if the window is full.
+     *
+     * @param x the observation of the one stream
+     * @param y the observation of the other stream
+     * @throws IllegalArgumentException if either {@code x} or {@code y} is not finite
+     */
+    public void add(double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new IllegalArgumentException("argument must be finite");
+        }
+        if (size == window) {
+            evict(a[head], b[head]);
+        }
+        a[head] = x;
+        b[head] = y;
+        head = head + 1 == window ? 0 : head + 1;
+        size++;
+        final double dx = x - meanA;
+        final double dy = y - meanB;
+        meanA += dx / size;
+        meanB += dy / size;
+        m2a += dx * (x - meanA);
+        m2b += dy * (y - meanB);
+        cab += dx * (y - meanB);
+        if (evictions == window) {
+            anchor();
+        }
+    }
+
+    /**
+     * Removes the oldest observation from the statistics by inverting the update of {@link #add(double, double)}.
+     * <p>
+     * If a single observation remains, its statistics are set exactly instead.
+     */
+    private void evict(double x, double y) {
+        size--;
+        evictions++;
+        if (size == 1) {
+            final int last = head + 1 == window ? 0 : head + 1;
+            meanA = a[last];
+            meanB = b[last];
+            m2a = 0;
+            m2b = 0;
+            cab = 0;
+            return;
+        }
+        final double previousMeanB = meanB;
+        meanA -= (x - meanA) / size;
+        meanB -= (y - meanB) / size;
+        final double dx = x - meanA;
+        m2a -= dx * (x - (meanA + dx / (size + 1)));
+        m2b -= (y - meanB) * (y - previousMeanB);
+        cab -= dx * (y - previousMeanB);
+    }
+
+    /**
+     * Recomputes the statistics of the window from the buffer.
+     */
+    private void anchor() {
+        evictions = 0;
+        double sumA = 0;
+        double sumB = 0;
+        for (int i = 0; i < size; i++) {
+            sumA += a[i];
+            sumB += b[i];
+        }
+        meanA = sumA / size;
+        meanB = sumB / size;
+        m2a = 0;
+        m2b = 0;
+        cab = 0;
+        for (int i = 0; i < size; i++) {
+            final double dx = a[i] - meanA;
+            final double dy = b[i] - meanB;
+            m2a += dx * dx;
+            m2b += dy * dy;
+            cab += dx * dy;
+        }
+    }
+
+    /**
+     * Removes all observations from the window.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        evictions = 0;
+        meanA = 0;
+        meanB = 0;
+        m2a = 0;
+        m2b = 0;
+        cab = 0;
+    }
+
+    /**
+     * Returns the maximum number of observations in the window.
+     *
+     * @return the maximum number of observations in the window
+     */
+    public int window() {
+        return this.window;
+    }
+
+    /**
+     * Returns the number of observations currently in the window.
+     *
+     * @return the number of observations currently in the window
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the population covariance of the observations currently in the window.
+     * <p>
+     * The result is {@link Double#NaN} if the window is empty.
+     *
+     * @return the population covariance of the observations currently in the window
+     */
+    public double covariance() {
+        return cab / size;
+    }
+
+    /**
+     * Returns the Pearson correlation coefficient of the observations currently in the window.
+     * <p>
+     * The result is {@link Double#NaN} if the window has less than 2 observations or if all the observations of a
+     * stream in the window are equal.
+     *
+     * @return the Pearson correlation coefficient of the observations currently in the window
+     */
+    public double value() {
+        if (size < 2) {
+            return Double.NaN;
+        }
+        return cab / (Math.sqrt(m2a) * Math.sqrt(m2b));
+    }
+}
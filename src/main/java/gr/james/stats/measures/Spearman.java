@@ -1,5 +1,7 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.instrumentation.Probe;
+
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,7 @@ public class Spearman {
         if (a.isEmpty() || b.isEmpty()) {
             throw new IllegalArgumentException("Inputs cannot be empty");
         }
+        final Probe probe = Probe.begin(Spearman.class, "lists");
 
         final Map<T, Integer[]> reverseIndex = new HashMap<>();
         int indexCount;
@@ -56,6 +59,53 @@ public class Spearman {
                 v -> reverseIndex.get(v)[0],
                 v -> reverseIndex.get(v)[1]
         ).value();
+        Probe.end(probe, a.size());
+    }
+
+    /**
+     * Create a new {@link Spearman} from the given score vectors.
+     * <p>
+     * Elements are matched between the inputs by index and each input is ranked independently using a primitive sort.
+     * Unlike {@link #Spearman(List, List)}, ties are allowed and tied values are assigned the average of the ranks
+     * they span (fractional ranking).
+     * <p>
+     * The correlation is computed in a single pass over the rank vectors, using the fact that the mean of the
+     * fractional ranks is always {@code (n + 1) / 2}.
+     *
+     * @param a the one score vector
+     * @param b the other score vector
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if either {@code a} or {@code b} is empty
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     * @throws IllegalArgumentException if either {@code a} or {@code b} contain {@link Double#NaN} values
+     */
+    public Spearman(double[] a, double[] b) {
+        if (a.length == 0 || b.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        final Probe probe = Probe.begin(Spearman.class, "scores");
+
+        final double[] ranksA = Ranks.fractionalRanks(a, Ranks.sortedPermutation(a));
+        final double[] ranksB = Ranks.fractionalRanks(b, Ranks.sortedPermutation(b));
+
+        final double mean = (a.length + 1) / 2.0;
+        double cov = 0;
+        double varA = 0;
+        double varB = 0;
+        for (int i = 0; i < a.length; i++) {
+            final double x = ranksA[i] - mean;
+            final double y = ranksB[i] - mean;
+            cov += x * y;
+            varA += x * x;
+            varB += y * y;
+        }
+
+        this.value = cov / Math.sqrt(varA * varB);
+        assert Double.isNaN(this.value) || (this.value >= -1 - 1e-8 && this.value <= 1 + 1e-8);
+        Probe.end(probe, a.length);
     }
 
     /**
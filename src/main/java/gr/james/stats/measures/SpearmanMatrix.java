@@ -0,0 +1,85 @@
+package gr.james.stats.measures;
+
+import gr.james.stats.instrumentation.Probe;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Pairwise Spearman's rank correlation coefficients of a collection of score vectors.
+ * <p>
+ * Each input is ranked exactly once and its centered rank vector is cached, after which all pairs are computed in
+ * parallel. The result is stored as a packed symmetric matrix that includes the diagonal.
+ */
+public class SpearmanMatrix {
+    private final int size;
+    private final double[] values;
+
+    /**
+     * Create a new {@link SpearmanMatrix} from the given score vectors.
+     * <p>
+     * The value at {@code (i, j)} is equal to {@code new Spearman(inputs.get(i), inputs.get(j)).value()}.
+     *
+     * @param inputs the score vectors
+     * @throws NullPointerException     if {@code inputs} or any of its elements is {@code null}
+     * @throws IllegalArgumentException if {@code inputs} is empty or any vector inside it is empty
+     * @throws IllegalArgumentException if the vectors in {@code inputs} are not of the same size
+     * @throws IllegalArgumentException if any vector in {@code inputs} contains {@link Double#NaN} values
+     * @see Spearman#Spearman(double[], double[])
+     */
+    public SpearmanMatrix(List<double[]> inputs) {
+        final int n = Ranks.commonLength(inputs);
+        final Probe probe = Probe.begin(SpearmanMatrix.class, "ranks");
+        this.size = inputs.size();
+        this.values = new double[Math.toIntExact((long) size * (size + 1) / 2)];
+
+        final double mean = (n + 1) / 2.0;
+        final double[][] ranks = new double[size][];
+        final double[] norms = new double[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            final double[] x = inputs.get(i);
+            final double[] r = Ranks.fractionalRanks(x, Ranks.sortedPermutation(x));
+            double norm = 0;
+            for (int k = 0; k < n; k++) {
+                r[k] -= mean;
+                norm += r[k] * r[k];
+            }
+            ranks[i] = r;
+            norms[i] = Math.sqrt(norm);
+        });
+
+        IntStream.range(0, size).parallel().forEach(i -> {
+            final double[] x = ranks[i];
+            for (int j = 0; j <= i; j++) {
+                final double[] y = ranks[j];
+                double cov = 0;
+                for (int k = 0; k < n; k++) {
+                    cov += x[k] * y[k];
+                }
+                values[Ranks.packedIndex(size, i, j)] = cov / (norms[i] * norms[j]);
+            }
+        });
+        Probe.end(probe, (long) n * size);
+    }
+
+    /**
+     * Returns the number of inputs that this matrix was created from.
+     *
+     * @return the number of inputs that this matrix was created from
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the Spearman's rank correlation coefficient of the inputs at positions {@code i} and {@code j}.
+     *
+     * @param i the position of the one input
+     * @param j the position of the other input
+     * @return the Spearman's rank correlation coefficient of the inputs at positions {@code i} and {@code j}
+     * @throws IndexOutOfBoundsException if either {@code i} or {@code j} is not in {@code [0, size())}
+     */
+    public double value(int i, int j) {
+        return this.values[Ranks.packedIndex(size, i, j)];
+    }
+}
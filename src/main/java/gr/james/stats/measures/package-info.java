@@ -6,6 +6,7 @@
  *     <li>{@link gr.james.stats.measures.Jaccard Jaccard index}</li>
  *     <li>{@link gr.james.stats.measures.MutualInformation Mutual information}</li>
  *     <li>{@link gr.james.stats.measures.Overlap Overlap coefficient}</li>
+ *     <li>{@link gr.james.stats.measures.SetSimilarityIndex Set similarity index}</li>
  *     <li>{@link gr.james.stats.measures.SimpleMatching Simple Matching coefficient}</li>
  *     <li>{@link gr.james.stats.measures.Sorensen Sorensen-Dice coefficient}</li>
  * </ul>
@@ -13,11 +14,18 @@
  * <ul>
  *     <li>{@link gr.james.stats.measures.Kendall Kendall rank correlation coefficient}</li>
  *     <li>{@link gr.james.stats.measures.Spearman Spearman's rank correlation coefficient}</li>
+ *     <li>{@link gr.james.stats.measures.KendallMatrix Pairwise Kendall rank correlation coefficients}</li>
+ *     <li>{@link gr.james.stats.measures.SpearmanMatrix Pairwise Spearman's rank correlation coefficients}</li>
+ *     <li>{@link gr.james.stats.measures.SlidingWindowKendall Kendall rank correlation coefficient over a sliding window}</li>
+ *     <li>{@link gr.james.stats.measures.ApproximateKendall Approximate Kendall rank correlation coefficient}</li>
+ *     <li>{@link gr.james.stats.measures.ApproximateSpearman Approximate Spearman's rank correlation coefficient}</li>
  * </ul>
  * Quantity correlation measures:
  * <ul>
  *     <li>{@link gr.james.stats.measures.Cosine Cosine similarity}</li>
  *     <li>{@link gr.james.stats.measures.Pearson Pearson correlation coefficient}</li>
+ *     <li>{@link gr.james.stats.measures.SlidingWindowPearson Pearson correlation coefficient over a sliding window}</li>
+ *     <li>{@link gr.james.stats.measures.AllPairsCosine All pairs above a Cosine similarity threshold}</li>
  * </ul>
  */
 package gr.james.stats.measures;
@@ -0,0 +1,148 @@
+package gr.james.stats.utils;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * A read-only {@link SortedMap} view over a range of a sorted array of {@code double} keys.
+ * <p>
+ * The keys must be finite and strictly increasing according to {@link Double#compare(double, double)}, which is the
+ * natural ordering of {@link Double}. Because this map reports the natural ordering and its exact size, passing it to
+ * {@link TreeMap#putAll(Map)} of an empty {@link TreeMap} builds the tree in a single linear pass.
+ *
+ * @param <V> the type of the values
+ */
+final class ArraySortedMap<V> extends AbstractMap<Double, V> implements SortedMap<Double, V> {
+    private final double[] keys;
+    private final IntFunction<V> values;
+    private final int from;
+    private final int to;
+
+    /**
+     * Construct a new {@link ArraySortedMap} over the keys in the range {@code [from, to)}.
+     *
+     * @param keys   the sorted keys
+     * @param values the value at each position of {@code keys}
+     * @param from   the first position, inclusive
+     * @param to     the last position, exclusive
+     */
+    ArraySortedMap(double[] keys, IntFunction<V> values, int from, int to) {
+        assert 0 <= from && from <= to && to <= keys.length;
+        this.keys = keys;
+        this.values = values;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        final int i = indexOf(key);
+        return i >= 0 ? values.apply(i) : null;
+    }
+
+    @Override
+    public Comparator<? super Double> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedMap<Double, V> subMap(Double fromKey, Double toKey) {
+        if (Double.compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return new ArraySortedMap<>(keys, values, lowerBound(fromKey), Math.max(lowerBound(fromKey), lowerBound(toKey)));
+    }
+
+    @Override
+    public SortedMap<Double, V> headMap(Double toKey) {
+        return new ArraySortedMap<>(keys, values, from, lowerBound(toKey));
+    }
+
+    @Override
+    public SortedMap<Double, V> tailMap(Double fromKey) {
+        return new ArraySortedMap<>(keys, values, lowerBound(fromKey), to);
+    }
+
+    @Override
+    public Double firstKey() {
+        if (from == to) {
+            throw new NoSuchElementException();
+        }
+        return keys[from];
+    }
+
+    @Override
+    public Double lastKey() {
+        if (from == to) {
+            throw new NoSuchElementException();
+        }
+        return keys[to - 1];
+    }
+
+    @Override
+    public Set<Entry<Double, V>> entrySet() {
+        return new AbstractSet<Entry<Double, V>>() {
+            @Override
+            public Iterator<Entry<Double, V>> iterator() {
+                return new Iterator<Entry<Double, V>>() {
+                    private int i = from;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < to;
+                    }
+
+                    @Override
+                    public Entry<Double, V> next() {
+                        if (i >= to) {
+                            throw new NoSuchElementException();
+                        }
+                        final Entry<Double, V> e = new SimpleImmutableEntry<>(keys[i], values.apply(i));
+                        i++;
+                        return e;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    /**
+     * Returns the first position in {@code [from, to)} whose key is not less than {@code key}, or {@code to}.
+     */
+    private int lowerBound(double key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (Double.compare(keys[middle], key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof Double)) {
+            return -1;
+        }
+        final int i = lowerBound((Double) key);
+        return i < to && Double.compare(keys[i], (Double) key) == 0 ? i : -1;
+    }
+}
@@ -0,0 +1,111 @@
+package gr.james.stats.utils;
+
+import org.knowm.xchart.XYChart;
+
+import java.nio.file.Path;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders charts in parallel on a bounded pool of threads without a display.
+ * <p>
+ * The pool has a fixed number of threads and a bounded queue of pending charts. When the queue is full, the thread
+ * that submits a chart renders it itself, which throttles producers that create charts faster than they can be
+ * rendered. Rendering uses {@link Plotting#render(XYChart, Plotting.Format)} and does not require a display, so it
+ * works in a JVM with {@code -Djava.awt.headless=true}.
+ * <p>
+ * A chart must not be modified after it has been submitted.
+ */
+public class ChartRenderer implements AutoCloseable {
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Construct a new {@link ChartRenderer} with one thread per available processor and a queue of 4 charts per
+     * thread.
+     */
+    public ChartRenderer() {
+        this(Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a new {@link ChartRenderer}.
+     *
+     * @param threads  the number of rendering threads
+     * @param capacity the maximum number of charts waiting to be rendered
+     * @throws IllegalArgumentException if {@code threads} or {@code capacity} is not positive
+     */
+    public ChartRenderer(int threads, int capacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), r -> {
+            final Thread t = new Thread(r, "chart-renderer-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, (r, e) -> {
+            if (e.isShutdown()) {
+                throw new RejectedExecutionException("renderer has been closed");
+            }
+            r.run();
+        });
+    }
+
+    /**
+     * Submit a chart to be rendered to a byte array.
+     *
+     * @param chart  the chart
+     * @param format the output format
+     * @return a {@link Future} of the rendered chart
+     * @throws NullPointerException       if any argument is {@code null}
+     * @throws RejectedExecutionException if this renderer has been closed
+     */
+    public Future<byte[]> submit(XYChart chart, Plotting.Format format) {
+        if (chart == null || format == null) {
+            throw new NullPointerException();
+        }
+        return executor.submit(() -> Plotting.render(chart, format));
+    }
+
+    /**
+     * Submit a chart to be rendered to a file.
+     *
+     * @param chart  the chart
+     * @param format the output format
+     * @param path   the path of the file
+     * @return a {@link Future} that completes when the file has been written
+     * @throws NullPointerException       if any argument is {@code null}
+     * @throws RejectedExecutionException if this renderer has been closed
+     */
+    public Future<Path> submit(XYChart chart, Plotting.Format format, Path path) {
+        if (chart == null || format == null || path == null) {
+            throw new NullPointerException();
+        }
+        return executor.submit(() -> {
+            Plotting.render(chart, format, path);
+            return path;
+        });
+    }
+
+    /**
+     * Stops accepting charts and waits for the submitted charts to be rendered.
+     * <p>
+     * If the calling thread is interrupted while waiting, this method returns early with the interrupt status of the
+     * thread set and the pending charts are still rendered in the background.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                // keep waiting for pending charts
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.DataBinning;
+
+import java.util.Arrays;
+
+/**
+ * An exponentially decayed frequency distribution of double values, using forward decay.
+ * <p>
+ * Time is an arbitrary {@code long}, for example milliseconds. An observation at time {@code t} contributes
+ * {@code 2^(-(now - t) / halfLife)} to the frequency of its value at time {@code now}. With forward decay, the
+ * observation is stored with the weight {@code exp(lambda (t - L))} relative to a fixed landmark time {@code L}, which
+ * never changes as time passes, and all weights are divided by {@code exp(lambda (now - L))} on read. An observation is
+ * therefore added in {@code O(1)} amortized time to a primitive hash table, and there is no periodic decay of the
+ * stored weights.
+ * <p>
+ * The only rescan happens when the observations move far enough from the landmark for the weights to approach
+ * overflow, about every 92 half-lives. The landmark is then moved to the latest observation and the weights are
+ * rescaled, and the values whose decayed frequency has dropped below {@value #PRUNE} are forgotten, which bounds the
+ * memory to the distinct values of roughly the last hundred half-lives.
+ */
+public class DecayedFrequency {
+    /**
+     * The decayed frequency below which a value is forgotten when the landmark moves.
+     */
+    public static final double PRUNE = 1e-9;
+
+    private static final double MAX_EXPONENT = 64;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final double lambda;
+    private long landmark;
+    private boolean empty = true;
+    private DoubleIndex index = new DoubleIndex();
+    private double[] weights = new double[INITIAL_CAPACITY];
+
+    /**
+     * Construct a new empty {@link DecayedFrequency}.
+     *
+     * @param halfLife the time after which the contribution of an observation is halved, in time units
+     * @throws IllegalArgumentException if {@code halfLife} is not positive and finite
+     */
+    public DecayedFrequency(double halfLife) {
+        if (!(halfLife > 0) || !Double.isFinite(halfLife)) {
+            throw new IllegalArgumentException("halfLife must be positive and finite");
+        }
+        this.lambda = Math.log(2) / halfLife;
+    }
+
+    /**
+     * Add a single observation at the given time.
+     * <p>
+     * Observations do not need to arrive in time order.
+     *
+     * @param t    the observation value
+     * @param time the time of the observation
+     * @throws IllegalArgumentException if {@code t} is not finite
+     */
+    public void add(double t, long time) {
+        if (!Double.isFinite(t)) {
+            throw new IllegalArgumentException("argument must be finite");
+        }
+        if (empty) {
+            landmark = time;
+            empty = false;
+        } else if (lambda * (time - landmark) > MAX_EXPONENT) {
+            moveLandmark(time);
+        }
+        put(t, Math.exp(lambda * (time - landmark)));
+    }
+
+    /**
+     * Returns the number of values that are currently stored.
+     *
+     * @return the number of values that are currently stored
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the sum of all decayed frequencies at the given time.
+     *
+     * @param time the time at which to decay the frequencies
+     * @return the sum of all decayed frequencies at {@code time}
+     */
+    public double sum(long time) {
+        return total() * scale(time);
+    }
+
+    /**
+     * Convert the decayed frequencies at the given time into a {@link Distribution}.
+     * <p>
+     * Values whose decayed frequency underflows to zero are omitted.
+     *
+     * @param time the time at which to decay the frequencies
+     * @return a new {@link Distribution} of the decayed frequencies at {@code time}
+     */
+    public Distribution toDistribution(long time) {
+        return toDistribution(scale(time));
+    }
+
+    /**
+     * Returns a new {@link Distribution} by binning the decayed frequencies at the given time.
+     *
+     * @param binning the binning method
+     * @param time    the time at which to decay the frequencies
+     * @return a new {@link Distribution} by binning the decayed frequencies at {@code time}
+     * @see Distribution#bin(DataBinning)
+     */
+    public Distribution bin(DataBinning binning, long time) {
+        return toDistribution(time).bin(binning);
+    }
+
+    /**
+     * Return a normalized distribution for which the decayed frequencies sum to 1.
+     * <p>
+     * The result does not depend on the time at which the frequencies are decayed, because all of them are decayed by
+     * the same factor.
+     *
+     * @return a normalized distribution for which the decayed frequencies sum to 1
+     */
+    public Distribution normalize() {
+        return toDistribution(1 / total());
+    }
+
+    private double total() {
+        double sum = 0;
+        for (int i = 0; i < index.size(); i++) {
+            sum += weights[i];
+        }
+        return sum;
+    }
+
+    private double scale(long time) {
+        return Math.exp(-lambda * (time - landmark));
+    }
+
+    private Distribution toDistribution(double scale) {
+        final double[] sorted = index.sortedKeys();
+        final double[] values = new double[sorted.length];
+        int k = 0;
+        for (double key : sorted) {
+            final double value = weights[index.indexOf(key)] * scale;
+            if (value > 0) {
+                sorted[k] = key;
+                values[k++] = value;
+            }
+        }
+        return new Distribution(new ArraySortedMap<>(sorted, i -> values[i], 0, k));
+    }
+
+    /**
+     * Moves the landmark to {@code time}, rescaling the weights and forgetting the values that have decayed.
+     */
+    private void moveLandmark(long time) {
+        final double scale = Math.exp(-lambda * (time - landmark));
+        final DoubleIndex oldIndex = index;
+        final double[] oldWeights = weights;
+        index = new DoubleIndex();
+        weights = new double[INITIAL_CAPACITY];
+        landmark = time;
+        for (int i = 0; i < oldIndex.size(); i++) {
+            if (oldWeights[i] * scale >= PRUNE) {
+                put(oldIndex.key(i), oldWeights[i] * scale);
+            }
+        }
+    }
+
+    private void put(double key, double weight) {
+        final int size = index.size();
+        final int i = index.add(key);
+        if (i == size) {
+            if (i == weights.length) {
+                weights = Arrays.copyOf(weights, i * 2);
+            }
+            weights[i] = weight;
+        } else {
+            weights[i] += weight;
+        }
+    }
+}
@@ -2,7 +2,11 @@ package gr.james.stats.utils;
 
 import gr.james.stats.binning.DataBin;
 import gr.james.stats.binning.DataBinning;
+import gr.james.stats.instrumentation.Probe;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
 import java.util.function.BiFunction;
 
@@ -19,6 +23,15 @@ public class Distribution {
         this.dist = new TreeMap<>();
     }
 
+    /**
+     * Construct a new {@link Distribution} from a sorted map in linear time.
+     *
+     * @param sorted the entries, which must have finite values and positive finite frequencies
+     */
+    Distribution(SortedMap<Double, Double> sorted) {
+        this.dist = new TreeMap<>(sorted);
+    }
+
     /**
      * Associate a frequency with a value.
      *
@@ -98,11 +111,13 @@ public class Distribution {
      * @return a new {@link Distribution} by binning this distribution
      */
     public Distribution bin(DataBinning binning) {
+        final Probe probe = Probe.begin(Distribution.class, "bin");
         final List<DataBin<Double, Double>> bb = binning.bin(dist);
         final Distribution dd = new Distribution();
         for (DataBin<Double, Double> b : bb) {
             dd.put(b.center, b.value);
         }
+        Probe.end(probe, dist.size());
         return dd;
     }
 
@@ -171,4 +186,71 @@ public class Distribution {
         }
         return dd;
     }
+
+    /**
+     * Returns a lazy {@link DistributionPipeline} over this distribution.
+     * <p>
+     * The transformations of the pipeline are applied in a single pass when a terminal operation is invoked, which
+     * avoids the intermediate copies of chained calls such as {@code tail(x).purge().normalize()}.
+     *
+     * @return a lazy {@link DistributionPipeline} over this distribution
+     */
+    public DistributionPipeline pipeline() {
+        return new DistributionPipeline(dist);
+    }
+
+    /**
+     * Returns an immutable copy of this distribution backed by sorted arrays.
+     * <p>
+     * The returned {@link ImmutableDistribution} takes 16 bytes per entry and its head and tail views are created in
+     * {@code O(log n)} time.
+     *
+     * @return an immutable copy of this distribution backed by sorted arrays
+     */
+    public ImmutableDistribution toImmutable() {
+        final double[] keys = new double[dist.size()];
+        final double[] values = new double[dist.size()];
+        int i = 0;
+        for (Map.Entry<Double, Double> e : dist.entrySet()) {
+            keys[i] = e.getKey();
+            values[i] = e.getValue();
+            i++;
+        }
+        return new ImmutableDistribution(keys, values, 0, keys.length);
+    }
+
+    /**
+     * Write this distribution to a stream in a compact binary format.
+     * <p>
+     * The format has a version header and stores the sorted values with XOR delta encoding and the frequencies as
+     * XOR delta encoded doubles. The stream is flushed but not closed and multiple snapshots may be written to the same
+     * stream.
+     *
+     * @param out the output stream
+     * @throws NullPointerException if {@code out} is {@code null}
+     * @throws IOException          if an I/O error occurs
+     * @see #read(InputStream)
+     */
+    public void write(OutputStream out) throws IOException {
+        Snapshots.writeDistribution(out, dist);
+    }
+
+    /**
+     * Read a {@link Distribution} that was written with {@link #write(OutputStream)}.
+     * <p>
+     * Exactly the bytes of a single snapshot are consumed from the stream and the distribution is built in a single
+     * linear pass. The stream is not closed.
+     *
+     * @param in the input stream
+     * @return the {@link Distribution} that was read
+     * @throws NullPointerException            if {@code in} is {@code null}
+     * @throws java.io.EOFException             if the stream ends before the snapshot
+     * @throws java.io.StreamCorruptedException if the stream does not contain a valid snapshot
+     * @throws IOException                      if an I/O error occurs
+     */
+    public static Distribution read(InputStream in) throws IOException {
+        final Distribution d = new Distribution();
+        Snapshots.readDistribution(in, d.dist);
+        return d;
+    }
 }
@@ -0,0 +1,230 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.DataBinning;
+import gr.james.stats.instrumentation.Probe;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * A lazy sequence of transformations on a distribution.
+ * <p>
+ * The intermediate operations {@link #head(double)}, {@link #tail(double)}, {@link #purge()} and {@link #normalize()}
+ * only record the transformation and return a new pipeline. The transformations are fused and applied in a single
+ * pass over the affected range of the source when a terminal operation is invoked, so that no intermediate
+ * distribution is created. For example, {@code frequency.pipeline().tail(x).purge().normalize().bin(binning)} is
+ * equivalent to {@code frequency.tail(x).purge().normalize().bin(binning)} without the three intermediate copies.
+ * <p>
+ * The source is read when a terminal operation is invoked and must not be modified concurrently. Pipelines are
+ * immutable and can be reused.
+ */
+public final class DistributionPipeline {
+    private final SortedMap<Double, ? extends Number> source;
+    private final double low;
+    private final double high;
+    private final boolean purge;
+    private final double normalizeLow;
+    private final double normalizeHigh;
+    private final boolean normalize;
+
+    private DistributionPipeline(SortedMap<Double, ? extends Number> source, double low, double high, boolean purge,
+                                 boolean normalize, double normalizeLow, double normalizeHigh) {
+        this.source = source;
+        this.low = low;
+        this.high = high;
+        this.purge = purge;
+        this.normalize = normalize;
+        this.normalizeLow = normalizeLow;
+        this.normalizeHigh = normalizeHigh;
+    }
+
+    /**
+     * Construct a new pipeline without transformations over a sorted map.
+     *
+     * @param source the source map
+     */
+    DistributionPipeline(SortedMap<Double, ? extends Number> source) {
+        this(source, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false, false, 0, 0);
+    }
+
+    /**
+     * Records the restriction to the tail of the distribution that is formed by values greater than {@code value}.
+     *
+     * @param value the value dictating the tail of the distribution
+     * @return a new pipeline with the additional transformation
+     * @see Distribution#tail(double)
+     */
+    public DistributionPipeline tail(double value) {
+        return new DistributionPipeline(source, Math.max(low, value), high, purge,
+                normalize, normalizeLow, normalizeHigh);
+    }
+
+    /**
+     * Records the restriction to the head of the distribution that is formed by values smaller than {@code value}.
+     *
+     * @param value the value dictating the head of the distribution
+     * @return a new pipeline with the additional transformation
+     * @see Distribution#head(double)
+     */
+    public DistributionPipeline head(double value) {
+        return new DistributionPipeline(source, low, Math.min(high, value), purge,
+                normalize, normalizeLow, normalizeHigh);
+    }
+
+    /**
+     * Records the removal of all elements with zero frequency.
+     *
+     * @return a new pipeline with the additional transformation
+     * @see Frequency#purge()
+     */
+    public DistributionPipeline purge() {
+        return new DistributionPipeline(source, low, high, true, normalize, normalizeLow, normalizeHigh);
+    }
+
+    /**
+     * Records the normalization of the frequencies so that they sum to 1.
+     * <p>
+     * Only the last normalization has an effect, because normalizing again rescales by the sum at that point, which
+     * is equivalent to normalizing the original frequencies of the remaining range.
+     *
+     * @return a new pipeline with the additional transformation
+     * @see Frequency#normalize()
+     */
+    public DistributionPipeline normalize() {
+        return new DistributionPipeline(source, low, high, purge, true, low, high);
+    }
+
+    /**
+     * Returns the sum of all frequencies of the transformed distribution.
+     *
+     * @return the sum of all frequencies of the transformed distribution
+     */
+    public double sum() {
+        final double[] sum = {0};
+        forEach((k, v) -> sum[0] += v);
+        return sum[0];
+    }
+
+    /**
+     * Performs the given action for each entry of the transformed distribution in ascending order of value.
+     *
+     * @param action the action to be performed for each entry
+     * @throws NullPointerException if {@code action} is {@code null}
+     */
+    public void forEach(BiConsumer<Double, Double> action) {
+        final Probe probe = Probe.begin(DistributionPipeline.class, "forEach");
+        final double divisor = normalize ? rawSum(normalizeLow, normalizeHigh) : 1;
+        long elements = 0;
+        for (Map.Entry<Double, ? extends Number> e : range(low, high).entrySet()) {
+            final double k = e.getKey();
+            final double v = e.getValue().doubleValue();
+            if (k > low && k < high && !(purge && v == 0)) {
+                action.accept(k, v / divisor);
+            }
+            elements++;
+        }
+        Probe.end(probe, elements);
+    }
+
+    /**
+     * Output the transformed distribution in stdout.
+     *
+     * @param format the format of the line
+     */
+    public void print(BiFunction<Double, Double, String> format) {
+        forEach((k, v) -> System.out.print(format.apply(k, v)));
+    }
+
+    /**
+     * Returns an {@link ImmutableDistribution} with the entries of the transformed distribution.
+     *
+     * @return an {@link ImmutableDistribution} with the entries of the transformed distribution
+     * @throws IllegalArgumentException if the transformed distribution contains non-positive frequencies
+     */
+    public ImmutableDistribution toImmutable() {
+        final int capacity = range(low, high).size();
+        final double[][] arrays = {new double[capacity], new double[capacity]};
+        final int[] size = {0};
+        forEach((k, v) -> {
+            if (!(v > 0) || !Double.isFinite(v)) {
+                throw new IllegalArgumentException("frequency must be positive");
+            }
+            arrays[0][size[0]] = k;
+            arrays[1][size[0]] = v;
+            size[0]++;
+        });
+        if (size[0] < capacity) {
+            arrays[0] = Arrays.copyOf(arrays[0], size[0]);
+            arrays[1] = Arrays.copyOf(arrays[1], size[0]);
+        }
+        return new ImmutableDistribution(arrays[0], arrays[1], 0, size[0]);
+    }
+
+    /**
+     * Returns a new {@link Distribution} with the entries of the transformed distribution.
+     *
+     * @return a new {@link Distribution} with the entries of the transformed distribution
+     * @throws IllegalArgumentException if the transformed distribution contains non-positive frequencies
+     */
+    public Distribution toDistribution() {
+        return toImmutable().toDistribution();
+    }
+
+    /**
+     * Returns a read-only sorted map with the entries of the transformed distribution.
+     *
+     * @return a read-only sorted map with the entries of the transformed distribution
+     * @throws IllegalArgumentException if the transformed distribution contains non-positive frequencies
+     */
+    public SortedMap<Double, Double> map() {
+        return toImmutable().map();
+    }
+
+    /**
+     * Returns a new {@link Distribution} by binning the transformed distribution.
+     * <p>
+     * The transformed entries are collected in compact arrays, which are passed to {@code binning} as a sorted map
+     * view.
+     *
+     * @param binning the binning method
+     * @return a new {@link Distribution} by binning the transformed distribution
+     * @throws IllegalArgumentException if the transformed distribution contains non-positive frequencies
+     */
+    public Distribution bin(DataBinning binning) {
+        return toImmutable().bin(binning);
+    }
+
+    /**
+     * Returns the sum of the source frequencies of the values in {@code (from, to)}.
+     */
+    private double rawSum(double from, double to) {
+        double sum = 0;
+        for (Map.Entry<Double, ? extends Number> e : range(from, to).entrySet()) {
+            final double k = e.getKey();
+            if (k > from && k < to) {
+                sum += e.getValue().doubleValue();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns a view of the source that contains at least the values in {@code (from, to)}.
+     */
+    private SortedMap<Double, ? extends Number> range(double from, double to) {
+        if (!(from < to)) {
+            return source.headMap(source.isEmpty() ? 0.0 : source.firstKey());
+        }
+        SortedMap<Double, ? extends Number> view = source;
+        if (from != Double.NEGATIVE_INFINITY) {
+            view = view.tailMap(from);
+        }
+        if (to != Double.POSITIVE_INFINITY) {
+            view = view.headMap(to);
+        }
+        return view;
+    }
+}
@@ -0,0 +1,120 @@
+package gr.james.stats.utils;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table that assigns dense indices to {@code double} keys.
+ * <p>
+ * Keys are numbered {@code 0, 1, 2, ...} in insertion order, so the owner can keep the values of the keys, such as
+ * counts or weights, in plain primitive arrays indexed by these numbers, which are unaffected when the table grows.
+ * Keys are compared by their bit patterns, consistent with the natural ordering of {@link Double} that separates
+ * {@code -0.0} from {@code 0.0}.
+ */
+final class DoubleIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] keys = new double[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size = 0;
+
+    /**
+     * Returns the number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the key with the given index.
+     */
+    double key(int index) {
+        assert index < size;
+        return keys[index];
+    }
+
+    /**
+     * Returns the index of {@code key}, or {@code -1} if it is not present.
+     */
+    int indexOf(double key) {
+        final int mask = slots.length - 1;
+        final long bits = Double.doubleToLongBits(key);
+        for (int slot = hash(bits) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (Double.doubleToLongBits(keys[slots[slot] - 1]) == bits) {
+                return slots[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of {@code key}, adding it with the index {@link #size()} if it is not present.
+     */
+    int add(double key) {
+        final int mask = slots.length - 1;
+        final long bits = Double.doubleToLongBits(key);
+        int slot = hash(bits) & mask;
+        while (slots[slot] != 0) {
+            if (Double.doubleToLongBits(keys[slots[slot] - 1]) == bits) {
+                return slots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size] = key;
+        slots[slot] = ++size;
+        if (size > slots.length * 2L / 3) {
+            rehash(slots.length * 2);
+        }
+        return size - 1;
+    }
+
+    /**
+     * Returns the keys in increasing order.
+     */
+    double[] sortedKeys() {
+        final double[] sorted = Arrays.copyOf(keys, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Removes all keys, shrinking the table if it is much larger than its contents were.
+     */
+    void clear() {
+        if (keys.length > INITIAL_CAPACITY && size < keys.length / 8) {
+            keys = new double[INITIAL_CAPACITY];
+            slots = new int[INITIAL_CAPACITY * 2];
+        } else {
+            Arrays.fill(slots, 0);
+        }
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        final int mask = capacity - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(Double.doubleToLongBits(keys[i])) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Mixes all the bits of the key into the low bits, since integer values have no low mantissa bits.
+     *
+     * @param bits the bit pattern of the key, as returned by {@link Double#doubleToLongBits(double)}
+     * @return the hash code of the key
+     */
+    static int hash(long bits) {
+        long h = bits ^ (bits >>> 33);
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return (int) (h ^ (h >>> 33));
+    }
+}
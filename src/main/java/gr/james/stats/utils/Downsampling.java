@@ -0,0 +1,200 @@
+package gr.james.stats.utils;
+
+import java.util.Arrays;
+
+/**
+ * Downsampling of series of points for plotting.
+ * <p>
+ * All methods accept the coordinates of a series as two arrays sorted by {@code x} and return the sorted indices of
+ * the points to keep, always including the first and the last point. When an axis is logarithmic, the selection is
+ * performed on the logarithm of the coordinates of that axis, which is how the points are laid out on the chart.
+ */
+public final class Downsampling {
+    private Downsampling() {
+    }
+
+    /**
+     * Select points with the Largest-Triangle-Three-Buckets algorithm.
+     * <p>
+     * The points between the first and the last are split into {@code budget - 2} buckets of equal count and from
+     * each bucket the point that forms the largest triangle with the previously selected point and the average of
+     * the next bucket is kept. The algorithm preserves the visual shape of the series.
+     *
+     * @param x      the x coordinates, in ascending order
+     * @param y      the y coordinates
+     * @param budget the maximum number of points to keep
+     * @param logX   whether the x axis is logarithmic
+     * @param logY   whether the y axis is logarithmic
+     * @return the sorted indices of the selected points
+     * @throws NullPointerException     if {@code x} or {@code y} is {@code null}
+     * @throws IllegalArgumentException if {@code x} and {@code y} are of different size
+     * @throws IllegalArgumentException if {@code budget} is less than 3
+     */
+    public static int[] lttb(double[] x, double[] y, int budget, boolean logX, boolean logY) {
+        final int n = validate(x, y, budget);
+        if (n <= budget) {
+            return all(n);
+        }
+        final double[] tx = transform(x, logX);
+        final double[] ty = transform(y, logY);
+        final int[] selected = new int[budget];
+        final double every = (double) (n - 2) / (budget - 2);
+        int a = 0;
+        for (int i = 0; i < budget - 2; i++) {
+            final int nextFrom = (int) ((i + 1) * every) + 1;
+            final int nextTo = Math.min((int) ((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = nextFrom; j < nextTo; j++) {
+                avgX += tx[j];
+                avgY += ty[j];
+            }
+            avgX /= nextTo - nextFrom;
+            avgY /= nextTo - nextFrom;
+            final int from = (int) (i * every) + 1;
+            final int to = (int) ((i + 1) * every) + 1;
+            double maxArea = -1;
+            int max = from;
+            for (int j = from; j < to; j++) {
+                final double area = Math.abs((tx[a] - avgX) * (ty[j] - ty[a]) - (tx[a] - tx[j]) * (avgY - ty[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    max = j;
+                }
+            }
+            selected[i + 1] = max;
+            a = max;
+        }
+        selected[budget - 1] = n - 1;
+        return selected;
+    }
+
+    /**
+     * Select the points with the minimum and maximum {@code y} in equal-width intervals of {@code x}.
+     * <p>
+     * The range of {@code x} is split into {@code (budget - 2) / 2} intervals of equal width on the chart and the
+     * lowest and highest points of each interval are kept, which preserves the envelope of the series, including
+     * isolated spikes.
+     *
+     * @param x      the x coordinates, in ascending order
+     * @param y      the y coordinates
+     * @param budget the maximum number of points to keep
+     * @param logX   whether the x axis is logarithmic
+     * @param logY   whether the y axis is logarithmic
+     * @return the sorted indices of the selected points
+     * @throws NullPointerException     if {@code x} or {@code y} is {@code null}
+     * @throws IllegalArgumentException if {@code x} and {@code y} are of different size
+     * @throws IllegalArgumentException if {@code budget} is less than 3
+     */
+    public static int[] minMax(double[] x, double[] y, int budget, boolean logX, boolean logY) {
+        final int n = validate(x, y, budget);
+        if (n <= budget) {
+            return all(n);
+        }
+        final double[] tx = transform(x, logX);
+        final double[] ty = transform(y, logY);
+        final int buckets = Math.max(1, (budget - 2) / 2);
+        final double low = tx[0];
+        final double width = (tx[n - 1] - low) / buckets;
+        final int[] selected = new int[2 * buckets + 2];
+        int k = 0;
+        selected[k++] = 0;
+        int j = 1;
+        for (int b = 0; b < buckets && j < n - 1; b++) {
+            final double high = b == buckets - 1 ? Double.POSITIVE_INFINITY : low + (b + 1) * width;
+            if (!(tx[j] < high)) {
+                continue;
+            }
+            int min = j;
+            int max = j;
+            while (j < n - 1 && tx[j] < high) {
+                if (ty[j] < ty[min]) {
+                    min = j;
+                }
+                if (ty[j] > ty[max]) {
+                    max = j;
+                }
+                j++;
+            }
+            selected[k++] = Math.min(min, max);
+            if (min != max) {
+                selected[k++] = Math.max(min, max);
+            }
+        }
+        selected[k++] = n - 1;
+        return Arrays.copyOf(selected, k);
+    }
+
+    /**
+     * Select points with both {@link #lttb(double[], double[], int, boolean, boolean) LTTB} and the
+     * {@link #minMax(double[], double[], int, boolean, boolean) min/max envelope}.
+     * <p>
+     * Half of the budget is assigned to each method and the union of the selected points is returned, so that the
+     * series keeps both its shape and its extremes.
+     *
+     * @param x      the x coordinates, in ascending order
+     * @param y      the y coordinates
+     * @param budget the maximum number of points to keep
+     * @param logX   whether the x axis is logarithmic
+     * @param logY   whether the y axis is logarithmic
+     * @return the sorted indices of the selected points
+     * @throws NullPointerException     if {@code x} or {@code y} is {@code null}
+     * @throws IllegalArgumentException if {@code x} and {@code y} are of different size
+     * @throws IllegalArgumentException if {@code budget} is less than 6
+     */
+    public static int[] select(double[] x, double[] y, int budget, boolean logX, boolean logY) {
+        if (budget < 6) {
+            throw new IllegalArgumentException("budget must be at least 6");
+        }
+        final int n = validate(x, y, budget);
+        if (n <= budget) {
+            return all(n);
+        }
+        final int[] a = lttb(x, y, budget / 2, logX, logY);
+        final int[] b = minMax(x, y, budget - budget / 2, logX, logY);
+        final int[] union = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length || j < b.length) {
+            final int next = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i] : b[j];
+            while (i < a.length && a[i] == next) {
+                i++;
+            }
+            while (j < b.length && b[j] == next) {
+                j++;
+            }
+            union[k++] = next;
+        }
+        return Arrays.copyOf(union, k);
+    }
+
+    private static int validate(double[] x, double[] y, int budget) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        if (budget < 3) {
+            throw new IllegalArgumentException("budget must be at least 3");
+        }
+        return x.length;
+    }
+
+    private static int[] all(int n) {
+        final int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static double[] transform(double[] v, boolean log) {
+        if (!log) {
+            return v;
+        }
+        final double[] t = new double[v.length];
+        for (int i = 0; i < v.length; i++) {
+            t[i] = Math.log10(v[i]);
+        }
+        return t;
+    }
+}
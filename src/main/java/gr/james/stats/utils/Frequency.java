@@ -2,14 +2,21 @@ package gr.james.stats.utils;
 
 import gr.james.stats.binning.DataBin;
 import gr.james.stats.binning.DataBinning;
+import gr.james.stats.instrumentation.Probe;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.stream.Collector;
 
 /**
  * Represents a distribution of double values into integer frequencies.
  */
 public class Frequency {
+    private static final int MERGE_RATIO = 16;
+
     private final TreeMap<Double, Long> dist = new TreeMap<>();
 
     /**
@@ -18,6 +25,15 @@ public class Frequency {
     public Frequency() {
     }
 
+    /**
+     * Construct a new {@link Frequency} from a sorted map in linear time.
+     *
+     * @param sorted the entries, which must have finite values and positive frequencies
+     */
+    Frequency(SortedMap<Double, Long> sorted) {
+        dist.putAll(sorted);
+    }
+
     /**
      * Convert this {@link Frequency} into a {@link Distribution}.
      *
@@ -45,6 +61,91 @@ public class Frequency {
         dist.merge(t, 1L, Long::sum);
     }
 
+    /**
+     * Add an observation multiple times.
+     * <p>
+     * If the value exists, its frequency will be increased by {@code count}.
+     *
+     * @param t     the observation value
+     * @param count the number of times the value was observed
+     * @throws IllegalArgumentException if {@code t} is not finite
+     * @throws IllegalArgumentException if {@code count} is not positive
+     * @throws ArithmeticException      if the frequency of {@code t} overflows a {@code long}
+     */
+    public void add(double t, long count) {
+        if (!Double.isFinite(t)) {
+            throw new IllegalArgumentException("argument must be finite");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        dist.merge(t, count, Math::addExact);
+    }
+
+    /**
+     * Add all observations of another {@link Frequency} to this instance.
+     * <p>
+     * If {@code other} is much smaller than this instance its values are inserted individually, otherwise both
+     * distributions are combined in a single linear pass over their sorted values. This method can be used as the
+     * combiner of {@link java.util.stream.DoubleStream#collect}, for example
+     * {@code stream.parallel().collect(Frequency::new, Frequency::add, Frequency::merge)}.
+     *
+     * @param other the other {@link Frequency}
+     * @return this instance
+     * @throws NullPointerException if {@code other} is {@code null}
+     * @throws ArithmeticException  if a frequency overflows a {@code long}
+     */
+    public Frequency merge(Frequency other) {
+        final int m = other.dist.size();
+        final int n = this.dist.size();
+        if (m == 0) {
+            return this;
+        }
+        if ((long) m * MERGE_RATIO < n) {
+            for (Map.Entry<Double, Long> e : other.dist.entrySet()) {
+                dist.merge(e.getKey(), e.getValue(), Math::addExact);
+            }
+            return this;
+        }
+        final double[] keys = new double[n + m];
+        final long[] counts = new long[n + m];
+        final Iterator<Map.Entry<Double, Long>> a = this.dist.entrySet().iterator();
+        final Iterator<Map.Entry<Double, Long>> b = other.dist.entrySet().iterator();
+        Map.Entry<Double, Long> x = a.hasNext() ? a.next() : null;
+        Map.Entry<Double, Long> y = b.next();
+        int k = 0;
+        while (x != null || y != null) {
+            final int c = x == null ? 1 : y == null ? -1 : Double.compare(x.getKey(), y.getKey());
+            if (c <= 0) {
+                keys[k] = x.getKey();
+                counts[k] = x.getValue();
+                x = a.hasNext() ? a.next() : null;
+            }
+            if (c >= 0) {
+                keys[k] = y.getKey();
+                counts[k] = c == 0 ? Math.addExact(counts[k], y.getValue()) : y.getValue();
+                y = b.hasNext() ? b.next() : null;
+            }
+            k++;
+        }
+        dist.clear();
+        dist.putAll(new ArraySortedMap<>(keys, i -> counts[i], 0, k));
+        return this;
+    }
+
+    /**
+     * Returns a {@link Collector} that accumulates observations into a new {@link Frequency}.
+     * <p>
+     * In a parallel stream, every thread accumulates a partial {@link Frequency} and the partials are combined with
+     * {@link #merge(Frequency)}.
+     *
+     * @return a {@link Collector} that accumulates observations into a new {@link Frequency}
+     */
+    public static Collector<Double, ?, Frequency> collector() {
+        return Collector.of(Frequency::new, Frequency::add, Frequency::merge, Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
     /**
      * Returns a read-only view of the underlying frequency map of this distribution.
      *
@@ -105,11 +206,13 @@ public class Frequency {
      * @return a new {@link Distribution} by binning this distribution
      */
     public Distribution bin(DataBinning binning) {
+        final Probe probe = Probe.begin(Frequency.class, "bin");
         final List<DataBin<Double, Double>> bb = binning.bin(dist);
         final Distribution dd = new Distribution();
         for (DataBin<Double, Double> b : bb) {
             dd.put(b.center, b.value);
         }
+        Probe.end(probe, dist.size());
         return dd;
     }
 
@@ -178,4 +281,51 @@ public class Frequency {
         }
         return dd;
     }
+
+    /**
+     * Returns a lazy {@link DistributionPipeline} over this distribution.
+     * <p>
+     * The transformations of the pipeline are applied in a single pass when a terminal operation is invoked, which
+     * avoids the intermediate copies of chained calls such as {@code tail(x).purge().normalize()}.
+     *
+     * @return a lazy {@link DistributionPipeline} over this distribution
+     */
+    public DistributionPipeline pipeline() {
+        return new DistributionPipeline(dist);
+    }
+
+    /**
+     * Write this distribution to a stream in a compact binary format.
+     * <p>
+     * The format has a version header and stores the sorted values with XOR delta encoding and the frequencies as
+     * variable length integers. The stream is flushed but not closed and multiple snapshots may be written to the same
+     * stream.
+     *
+     * @param out the output stream
+     * @throws NullPointerException if {@code out} is {@code null}
+     * @throws IOException          if an I/O error occurs
+     * @see #read(InputStream)
+     */
+    public void write(OutputStream out) throws IOException {
+        Snapshots.writeFrequency(out, dist);
+    }
+
+    /**
+     * Read a {@link Frequency} that was written with {@link #write(OutputStream)}.
+     * <p>
+     * Exactly the bytes of a single snapshot are consumed from the stream and the distribution is built in a single
+     * linear pass. The stream is not closed.
+     *
+     * @param in the input stream
+     * @return the {@link Frequency} that was read
+     * @throws NullPointerException            if {@code in} is {@code null}
+     * @throws java.io.EOFException             if the stream ends before the snapshot
+     * @throws java.io.StreamCorruptedException if the stream does not contain a valid snapshot
+     * @throws IOException                      if an I/O error occurs
+     */
+    public static Frequency read(InputStream in) throws IOException {
+        final Frequency d = new Frequency();
+        Snapshots.readFrequency(in, d.dist);
+        return d;
+    }
 }
@@ -0,0 +1,330 @@
+package gr.james.stats.utils;
+
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch that estimates the number of distinct elements of a set in fixed memory.
+ * <p>
+ * Every element is hashed to 64 bits, the first {@code p} bits select one of {@code m = 2^p} registers and the register
+ * keeps the maximum position of the first set bit in the remaining bits. The cardinality is estimated from the
+ * histogram of the registers with the improved estimator of Ertl, which is accurate over the whole range of
+ * cardinalities without empirical bias correction. The relative standard error is about {@code 1.04 / sqrt(m)}, for
+ * example {@code 1.6%} for the default precision of 12, where the registers take 4 KB in memory and 3 KB serialized.
+ * <p>
+ * Sketches with the same precision are merged by taking the maximum of every register, which gives exactly the
+ * sketch of the union of the sets, so sketches of shards can be built independently and combined in any order. The
+ * cardinality of the intersection is estimated with the inclusion-exclusion principle, whose absolute error is of the
+ * order of the error of the union, so it is only accurate for intersections that are not much smaller than the union.
+ */
+public class HyperLogLog {
+    /**
+     * The default precision.
+     */
+    public static final int DEFAULT_PRECISION = 12;
+
+    /**
+     * The minimum precision.
+     */
+    public static final int MIN_PRECISION = 4;
+
+    /**
+     * The maximum precision.
+     */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Construct a new empty {@link HyperLogLog} with the default precision.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Construct a new empty {@link HyperLogLog} with the given precision.
+     *
+     * @param precision the number of bits that select a register, so that there are {@code 2^precision} registers
+     * @throws IllegalArgumentException if {@code precision} is not in {@code [MIN_PRECISION, MAX_PRECISION]}
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(String.format("precision must be in [%d, %d]",
+                    MIN_PRECISION, MAX_PRECISION));
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Add an element given as a {@code long}.
+     * <p>
+     * The element is hashed with the 64-bit finalizer of MurmurHash3, which is a bijection, so distinct elements never
+     * collide.
+     *
+     * @param element the element
+     */
+    public void add(long element) {
+        addHash(mix(element));
+    }
+
+    /**
+     * Add an element.
+     * <p>
+     * The element is hashed from its {@link Object#hashCode()}, so elements with equal hash codes are counted once.
+     * Because hash codes have 32 bits, estimates of more than a few hundred million elements are biased downwards and
+     * {@link #add(long)} or {@link #addHash(long)} should be used instead.
+     *
+     * @param element the element
+     * @throws NullPointerException if {@code element} is {@code null}
+     */
+    public void add(Object element) {
+        addHash(mix(element.hashCode()));
+    }
+
+    /**
+     * Add an element given as its 64-bit hash.
+     * <p>
+     * The bits of the hash must be uniformly distributed, as in the output of a good hash function.
+     *
+     * @param hash the hash of the element
+     */
+    public void addHash(long hash) {
+        final int index = (int) (hash >>> (64 - precision));
+        final int q = 64 - precision;
+        final byte rank = (byte) (Math.min(Long.numberOfLeadingZeros(hash << precision), q) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Returns the precision of this sketch.
+     *
+     * @return the precision of this sketch
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Returns the estimated number of distinct elements that were added.
+     *
+     * @return the estimated number of distinct elements that were added
+     */
+    public double cardinality() {
+        final int[] histogram = new int[66 - precision];
+        for (byte r : registers) {
+            histogram[r]++;
+        }
+        return estimate(histogram);
+    }
+
+    /**
+     * Returns the estimated number of distinct elements of the union of this sketch and another sketch.
+     * <p>
+     * Neither sketch is modified.
+     *
+     * @param other the other sketch
+     * @return the estimated number of distinct elements of the union
+     * @throws NullPointerException     if {@code other} is {@code null}
+     * @throws IllegalArgumentException if the sketches have different precisions
+     */
+    public double unionCardinality(HyperLogLog other) {
+        checkPrecision(other);
+        final int[] histogram = new int[66 - precision];
+        for (int i = 0; i < registers.length; i++) {
+            histogram[Math.max(registers[i], other.registers[i])]++;
+        }
+        return estimate(histogram);
+    }
+
+    /**
+     * Returns the estimated number of distinct elements of the intersection of this sketch and another sketch.
+     * <p>
+     * The estimate is {@code |A| + |B| - |A union B|}, clamped to {@code [0, min(|A|, |B|)]}. Neither sketch is modified.
+     *
+     * @param other the other sketch
+     * @return the estimated number of distinct elements of the intersection
+     * @throws NullPointerException     if {@code other} is {@code null}
+     * @throws IllegalArgumentException if the sketches have different precisions
+     */
+    public double intersectionCardinality(HyperLogLog other) {
+        final double union = unionCardinality(other);
+        final double a = cardinality();
+        final double b = other.cardinality();
+        return Math.max(0, Math.min(Math.min(a, b), a + b - union));
+    }
+
+    /**
+     * Merge another sketch into this sketch.
+     * <p>
+     * After this method returns, this sketch is identical to the sketch of the union of the elements of both sketches.
+     * The other sketch is not modified.
+     *
+     * @param other the other sketch
+     * @return this instance
+     * @throws NullPointerException     if {@code other} is {@code null}
+     * @throws IllegalArgumentException if the sketches have different precisions
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        checkPrecision(other);
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns a copy of this sketch.
+     *
+     * @return a copy of this sketch
+     */
+    public HyperLogLog copy() {
+        final HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    /**
+     * Serialize this sketch.
+     * <p>
+     * The first byte is the precision and the registers follow, packed in 6 bits each in big-endian bit order.
+     *
+     * @return the serialized sketch
+     * @see #fromBytes(byte[])
+     */
+    public byte[] toBytes() {
+        final byte[] bytes = new byte[1 + (registers.length * 6 + 7) / 8];
+        bytes[0] = (byte) precision;
+        long buffer = 0;
+        int bits = 0;
+        int k = 1;
+        for (byte r : registers) {
+            buffer = (buffer << 6) | r;
+            bits += 6;
+            while (bits >= 8) {
+                bits -= 8;
+                bytes[k++] = (byte) (buffer >>> bits);
+            }
+        }
+        if (bits > 0) {
+            bytes[k] = (byte) (buffer << (8 - bits));
+        }
+        return bytes;
+    }
+
+    /**
+     * Deserialize a sketch that was serialized with {@link #toBytes()}.
+     *
+     * @param bytes the serialized sketch
+     * @return the sketch
+     * @throws NullPointerException     if {@code bytes} is {@code null}
+     * @throws IllegalArgumentException if {@code bytes} is not a valid serialized sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Inputs cannot be empty");
+        }
+        final HyperLogLog sketch = new HyperLogLog(bytes[0]);
+        if (bytes.length != 1 + (sketch.registers.length * 6 + 7) / 8) {
+            throw new IllegalArgumentException("invalid sketch length");
+        }
+        long buffer = 0;
+        int bits = 0;
+        int k = 1;
+        for (int i = 0; i < sketch.registers.length; i++) {
+            if (bits < 6) {
+                buffer = (buffer << 8) | (bytes[k++] & 0xFF);
+                bits += 8;
+            }
+            bits -= 6;
+            final int r = (int) (buffer >>> bits) & 0x3F;
+            if (r > 65 - sketch.precision) {
+                throw new IllegalArgumentException("invalid register value");
+            }
+            sketch.registers[i] = (byte) r;
+        }
+        return sketch;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof HyperLogLog)) {
+            return false;
+        }
+        final HyperLogLog other = (HyperLogLog) obj;
+        return precision == other.precision && Arrays.equals(registers, other.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * precision + Arrays.hashCode(registers);
+    }
+
+    private void checkPrecision(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Inputs must have the same precision");
+        }
+    }
+
+    /**
+     * Estimates the cardinality from the histogram of the register values.
+     */
+    private double estimate(int[] histogram) {
+        final int m = registers.length;
+        final int q = 64 - precision;
+        double z = m * tau(1 - (double) histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += m * sigma((double) histogram[0] / m);
+        return m / (2 * Math.log(2)) * m / z;
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB9FE1A85EC53L;
+        return x ^ (x >>> 33);
+    }
+}
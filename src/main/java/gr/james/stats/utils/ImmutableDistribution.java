@@ -0,0 +1,232 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.DataBin;
+import gr.james.stats.binning.DataBinning;
+import gr.james.stats.instrumentation.Probe;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.function.BiFunction;
+
+/**
+ * An immutable distribution of double values into decimal frequencies.
+ * <p>
+ * The entries are stored as two sorted parallel {@code double} arrays, which takes 16 bytes per entry. The methods
+ * {@link #head(double)}, {@link #tail(double)} and {@link #subRange(double, double)} take {@code O(log n)} time and
+ * return views that share the arrays of this instance.
+ * <p>
+ * Instances are created with {@link Distribution#toImmutable()}.
+ */
+public final class ImmutableDistribution {
+    private final double[] keys;
+    private final double[] values;
+    private final int from;
+    private final int to;
+
+    /**
+     * Construct a new {@link ImmutableDistribution} over the range {@code [from, to)} of sorted arrays.
+     *
+     * @param keys   the values, strictly increasing
+     * @param values the positive frequencies of {@code keys}
+     * @param from   the first position, inclusive
+     * @param to     the last position, exclusive
+     */
+    ImmutableDistribution(double[] keys, double[] values, int from, int to) {
+        assert keys.length == values.length;
+        assert 0 <= from && from <= to && to <= keys.length;
+        this.keys = keys;
+        this.values = values;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Returns the number of values in the distribution.
+     *
+     * @return the number of values in the distribution
+     */
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Returns a read-only view of this distribution as a sorted map.
+     *
+     * @return a read-only view of this distribution as a sorted map
+     */
+    public SortedMap<Double, Double> map() {
+        return new ArraySortedMap<>(keys, i -> values[i], from, to);
+    }
+
+    /**
+     * Returns the sum of all frequencies in the distribution
+     *
+     * @return the sum of all frequencies in the distribution
+     */
+    public double sum() {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the mode of this distribution, i.e. the most frequent value in the data set.
+     * <p>
+     * If the first rank is tied with more than 1 element, this method returns the lowest key.
+     *
+     * @return the mode of this distribution
+     * @throws java.util.NoSuchElementException if this distribution is empty
+     */
+    public double mode() {
+        if (from == to) {
+            throw new NoSuchElementException();
+        }
+        int max = from;
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > values[max]) {
+                max = i;
+            }
+        }
+        return keys[max];
+    }
+
+    /**
+     * Output the distribution in stdout.
+     *
+     * @param format the format of the line
+     */
+    public void print(BiFunction<Double, Double, String> format) {
+        for (int i = from; i < to; i++) {
+            System.out.print(format.apply(keys[i], values[i]));
+        }
+    }
+
+    /**
+     * Returns a new {@link Distribution} by binning this distribution.
+     *
+     * @param binning the binning method
+     * @return a new {@link Distribution} by binning this distribution
+     */
+    public Distribution bin(DataBinning binning) {
+        final Probe probe = Probe.begin(ImmutableDistribution.class, "bin");
+        final List<DataBin<Double, Double>> bb = binning.bin(map());
+        final Distribution dd = new Distribution();
+        for (DataBin<Double, Double> b : bb) {
+            dd.put(b.center, b.value);
+        }
+        Probe.end(probe, size());
+        return dd;
+    }
+
+    /**
+     * Return a normalized distribution for which the frequencies sum to 1.
+     *
+     * @return a normalized distribution for which the frequencies sum to 1
+     */
+    public ImmutableDistribution normalize() {
+        final double sum = sum();
+        final double[] normalized = new double[size()];
+        for (int i = from; i < to; i++) {
+            normalized[i - from] = values[i] / sum;
+        }
+        return new ImmutableDistribution(Arrays.copyOfRange(keys, from, to), normalized, 0, normalized.length);
+    }
+
+    /**
+     * Returns the tail of the distribution that is formed by values greater than {@code value}.
+     * <p>
+     * More formally, returns a view of this distribution with values strictly greater than {@code value}.
+     *
+     * @param value the value dictating the tail of the distribution
+     * @return the tail of the distribution that is formed by values greater than {@code value}
+     */
+    public ImmutableDistribution tail(double value) {
+        return new ImmutableDistribution(keys, values, Math.max(from, firstGreater(value)), to);
+    }
+
+    /**
+     * Returns the head of the distribution that is formed by values smaller than {@code value}.
+     * <p>
+     * More formally, returns a view of this distribution with values strictly smaller than {@code value}.
+     *
+     * @param value the value dictating the head of the distribution
+     * @return the head of the distribution that is formed by values smaller than {@code value}
+     */
+    public ImmutableDistribution head(double value) {
+        return new ImmutableDistribution(keys, values, from, Math.max(from, firstNotLess(value)));
+    }
+
+    /**
+     * Returns the part of the distribution that is formed by values in {@code [low, high)}.
+     * <p>
+     * More formally, returns a view of this distribution with values greater than or equal to {@code low} and
+     * strictly smaller than {@code high}.
+     *
+     * @param low  the lowest value of the range, inclusive
+     * @param high the highest value of the range, exclusive
+     * @return the part of the distribution that is formed by values in {@code [low, high)}
+     */
+    public ImmutableDistribution subRange(double low, double high) {
+        final int start = firstNotLess(low);
+        return new ImmutableDistribution(keys, values, start, Math.max(start, firstNotLess(high)));
+    }
+
+    /**
+     * Returns a lazy {@link DistributionPipeline} over this distribution.
+     * <p>
+     * The transformations of the pipeline are applied in a single pass when a terminal operation is invoked, which
+     * avoids the intermediate copies of chained calls such as {@code tail(x).purge().normalize()}.
+     *
+     * @return a lazy {@link DistributionPipeline} over this distribution
+     */
+    public DistributionPipeline pipeline() {
+        return new DistributionPipeline(map());
+    }
+
+    /**
+     * Convert this {@link ImmutableDistribution} into a mutable {@link Distribution}.
+     *
+     * @return a new {@link Distribution} with the entries of this instance
+     */
+    public Distribution toDistribution() {
+        return new Distribution(map());
+    }
+
+    /**
+     * Returns the first position in {@code [from, to)} whose value is not less than {@code value}, or {@code to}.
+     */
+    private int firstNotLess(double value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (keys[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the first position in {@code [from, to)} whose value is greater than {@code value}, or {@code to}.
+     */
+    private int firstGreater(double value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (keys[middle] > value) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,16 @@
+package gr.james.stats.utils;
+
+/**
+ * Selects the implementation of the {@link Kernels}.
+ * <p>
+ * This is the Java 8 version of this class which always selects the {@link ScalarKernels}. The Java 17 version is
+ * located in {@code META-INF/versions/17} of the multi-release jar.
+ */
+final class KernelLoader {
+    private KernelLoader() {
+    }
+
+    static ScalarKernels load() {
+        return new ScalarKernels();
+    }
+}
@@ -0,0 +1,148 @@
+package gr.james.stats.utils;
+
+/**
+ * Primitive array kernels used by the measures and accumulators of this library.
+ * <p>
+ * In the Java 8 version of the library the kernels are scalar loops. When the library is used as a multi-release jar
+ * on Java 17 or later and the {@code jdk.incubator.vector} module is present (for example with
+ * {@code --add-modules jdk.incubator.vector}), the kernels are implemented with the Vector API instead. The
+ * implementation is selected once, when this class is initialized, and the scalar kernels can be forced by setting
+ * the system property {@code gr.james.stats.kernels} to {@code scalar}.
+ * <p>
+ * The vectorized kernels sum in a different order than the scalar ones and use fused multiply-add, so the results may
+ * differ in the last bits. For a kernel that sums the terms {@code t[i]} of an array of size {@code n}, both
+ * implementations are within {@code n * Math.ulp(1.0) * sum(|t[i]|)} of the exact result. The {@code float} kernels
+ * accumulate in {@code double} precision.
+ */
+public final class Kernels {
+    private static final ScalarKernels IMPLEMENTATION = KernelLoader.load();
+
+    private Kernels() {
+    }
+
+    /**
+     * Returns {@code true} if the vectorized kernels are in use.
+     *
+     * @return {@code true} if the vectorized kernels are in use
+     */
+    public static boolean isVectorized() {
+        return IMPLEMENTATION.getClass() != ScalarKernels.class;
+    }
+
+    /**
+     * Returns the sum of the elements of an array.
+     *
+     * @param a the array
+     * @return the sum of the elements of {@code a}
+     * @throws NullPointerException if {@code a} is {@code null}
+     */
+    public static double sum(double[] a) {
+        return IMPLEMENTATION.sum(a);
+    }
+
+    /**
+     * Returns the sum of the elements of an array.
+     *
+     * @param a the array
+     * @return the sum of the elements of {@code a}
+     * @throws NullPointerException if {@code a} is {@code null}
+     */
+    public static double sum(float[] a) {
+        return IMPLEMENTATION.sum(a);
+    }
+
+    /**
+     * Returns the sum of the squares of the elements of an array.
+     *
+     * @param a the array
+     * @return the sum of the squares of the elements of {@code a}
+     * @throws NullPointerException if {@code a} is {@code null}
+     */
+    public static double sumOfSquares(double[] a) {
+        return IMPLEMENTATION.sumOfSquares(a);
+    }
+
+    /**
+     * Returns the sum of the squares of the elements of an array.
+     *
+     * @param a the array
+     * @return the sum of the squares of the elements of {@code a}
+     * @throws NullPointerException if {@code a} is {@code null}
+     */
+    public static double sumOfSquares(float[] a) {
+        return IMPLEMENTATION.sumOfSquares(a);
+    }
+
+    /**
+     * Returns the dot product of two arrays.
+     *
+     * @param a one array
+     * @param b the other array
+     * @return the dot product of {@code a} and {@code b}
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     */
+    public static double dot(double[] a, double[] b) {
+        checkSize(a.length, b.length);
+        return IMPLEMENTATION.dot(a, b);
+    }
+
+    /**
+     * Returns the dot product of two arrays.
+     *
+     * @param a one array
+     * @param b the other array
+     * @return the dot product of {@code a} and {@code b}
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     */
+    public static double dot(float[] a, float[] b) {
+        checkSize(a.length, b.length);
+        return IMPLEMENTATION.dot(a, b);
+    }
+
+    /**
+     * Returns the co-moment of two arrays about the given means, i.e. the sum of
+     * {@code (a[i] - meanA) * (b[i] - meanB)}.
+     * <p>
+     * The co-moment divided by the size of the arrays is the population covariance if {@code meanA} and {@code meanB}
+     * are the means of the arrays. If {@code a} and {@code b} are the same array, the co-moment is the sum of squared
+     * deviations.
+     *
+     * @param a     one array
+     * @param b     the other array
+     * @param meanA the mean of {@code a}
+     * @param meanB the mean of {@code b}
+     * @return the co-moment of {@code a} and {@code b} about {@code meanA} and {@code meanB}
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     */
+    public static double coMoment(double[] a, double[] b, double meanA, double meanB) {
+        checkSize(a.length, b.length);
+        return IMPLEMENTATION.coMoment(a, b, meanA, meanB);
+    }
+
+    /**
+     * Returns the co-moment of two arrays about the given means, i.e. the sum of
+     * {@code (a[i] - meanA) * (b[i] - meanB)}.
+     *
+     * @param a     one array
+     * @param b     the other array
+     * @param meanA the mean of {@code a}
+     * @param meanB the mean of {@code b}
+     * @return the co-moment of {@code a} and {@code b} about {@code meanA} and {@code meanB}
+     * @throws NullPointerException     if either {@code a} or {@code b} is {@code null}
+     * @throws IllegalArgumentException if {@code a} and {@code b} are of different size
+     * @see #coMoment(double[], double[], double, double)
+     */
+    public static double coMoment(float[] a, float[] b, double meanA, double meanB) {
+        checkSize(a.length, b.length);
+        return IMPLEMENTATION.coMoment(a, b, meanA, meanB);
+    }
+
+    private static void checkSize(int a, int b) {
+        if (a != b) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+    }
+}
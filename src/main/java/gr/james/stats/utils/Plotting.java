@@ -3,20 +3,55 @@ package gr.james.stats.utils;
 import gr.james.stats.binning.DataBin;
 import gr.james.stats.binning.LinearDataBinning;
 import gr.james.stats.binning.LogarithmicDataBinning;
+import org.knowm.xchart.BitmapEncoder;
 import org.knowm.xchart.SwingWrapper;
+import org.knowm.xchart.VectorGraphicsEncoder;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
 import org.knowm.xchart.XYSeries;
 
-import java.util.ArrayList;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.stream.Collectors;
 
 /**
  * Plotting functions using {@link org.knowm.xchart}.
+ * <p>
+ * The {@code linear}, {@code linearBins}, {@code logLog} and {@code logLogBins} methods display a chart in a window.
+ * The corresponding {@code Chart} methods only create the chart, which can then be rendered without a display using
+ * the {@code render} methods, for example in a JVM with {@code -Djava.awt.headless=true}. Many charts can be rendered
+ * in parallel with a {@link ChartRenderer}.
+ * <p>
+ * Charts that are not binned are limited to {@link #DEFAULT_POINTS} points, unless a different amount is given, by
+ * downsampling the distribution with {@link Downsampling}, so that the time to build and render a chart does not
+ * depend on the size of the distribution.
  */
 public final class Plotting {
+    /**
+     * The default maximum number of points of the charts that are not binned.
+     */
+    public static final int DEFAULT_POINTS = 2000;
+
+    /**
+     * The output formats of the {@code render} methods.
+     */
+    public enum Format {
+        /**
+         * Portable Network Graphics.
+         */
+        PNG,
+        /**
+         * Scalable Vector Graphics.
+         */
+        SVG
+    }
+
     /**
      * Display a distribution in linear scale.
      *
@@ -26,13 +61,7 @@ public final class Plotting {
      * @param yLabel the label of the y axis
      */
     public static void linear(Distribution d, String title, String xLabel, String yLabel) {
-        final SortedMap<Double, Double> m = d.map();
-        final List<Double> xData = new ArrayList<>(m.keySet());
-        final List<Double> yData = new ArrayList<>(m.values());
-        final XYChart chart = new XYChartBuilder().title(title).xAxisTitle(xLabel).yAxisTitle(yLabel).build();
-        chart.addSeries(title, xData, yData).setXYSeriesRenderStyle(XYSeries.XYSeriesRenderStyle.Scatter);
-        chart.getStyler().setLegendVisible(false);
-        new SwingWrapper<>(chart).displayChart();
+        new SwingWrapper<>(linearChart(d, title, xLabel, yLabel)).displayChart();
     }
 
     /**
@@ -45,15 +74,7 @@ public final class Plotting {
      * @param yLabel the label of the y axis
      */
     public static void linearBins(Distribution d, int bins, String title, String xLabel, String yLabel) {
-        final SortedMap<Double, Double> m = d.map();
-        final List<DataBin<Double, Double>> bb = new LinearDataBinning(bins).bin(m)
-                .stream().filter(b -> b.value > 0).collect(Collectors.toList());
-        final List<Double> xData = bb.stream().map(x -> x.center).collect(Collectors.toList());
-        final List<Double> yData = bb.stream().map(b -> b.value).collect(Collectors.toList());
-        final XYChart chart = new XYChartBuilder().title(title).xAxisTitle(xLabel).yAxisTitle(yLabel).build();
-        chart.addSeries(title, xData, yData).setXYSeriesRenderStyle(XYSeries.XYSeriesRenderStyle.Scatter);
-        chart.getStyler().setLegendVisible(false);
-        new SwingWrapper<>(chart).displayChart();
+        new SwingWrapper<>(linearBinsChart(d, bins, title, xLabel, yLabel)).displayChart();
     }
 
     /**
@@ -65,14 +86,7 @@ public final class Plotting {
      * @param yLabel the label of the y axis
      */
     public static void logLog(Distribution d, String title, String xLabel, String yLabel) {
-        final SortedMap<Double, Double> m = d.map();
-        final List<Double> xData = new ArrayList<>(m.keySet());
-        final List<Double> yData = new ArrayList<>(m.values());
-        final XYChart chart = new XYChartBuilder().title(title).xAxisTitle(xLabel).yAxisTitle(yLabel).build();
-        chart.addSeries(title, xData, yData).setXYSeriesRenderStyle(XYSeries.XYSeriesRenderStyle.Scatter);
-        chart.getStyler().setLegendVisible(false);
-        chart.getStyler().setXAxisLogarithmic(true).setYAxisLogarithmic(true);
-        new SwingWrapper<>(chart).displayChart();
+        new SwingWrapper<>(logLogChart(d, title, xLabel, yLabel)).displayChart();
     }
 
     /**
@@ -85,15 +99,200 @@ public final class Plotting {
      * @param yLabel the label of the y axis
      */
     public static void logLogBins(Distribution d, int bins, String title, String xLabel, String yLabel) {
-        final SortedMap<Double, Double> m = d.map();
-        final List<DataBin<Double, Double>> bb = new LogarithmicDataBinning(bins, 10).bin(m)
+        new SwingWrapper<>(logLogBinsChart(d, bins, title, xLabel, yLabel)).displayChart();
+    }
+
+    /**
+     * Create the chart of a distribution in linear scale.
+     *
+     * @param d      the distribution
+     * @param title  the chart title
+     * @param xLabel the label of the x axis
+     * @param yLabel the label of the y axis
+     * @return the chart of {@code d} in linear scale
+     */
+    public static XYChart linearChart(Distribution d, String title, String xLabel, String yLabel) {
+        return linearChart(d, DEFAULT_POINTS, title, xLabel, yLabel);
+    }
+
+    /**
+     * Create the chart of a distribution in linear scale with at most a certain amount of points.
+     * <p>
+     * If the distribution has more values than {@code points}, it is downsampled with
+     * {@link Downsampling#select(double[], double[], int, boolean, boolean)}.
+     *
+     * @param d      the distribution
+     * @param points the maximum number of points to plot
+     * @param title  the chart title
+     * @param xLabel the label of the x axis
+     * @param yLabel the label of the y axis
+     * @return the chart of {@code d} in linear scale
+     * @throws IllegalArgumentException if {@code points} is less than 6
+     */
+    public static XYChart linearChart(Distribution d, int points, String title, String xLabel, String yLabel) {
+        return downsampledChart(d.map(), points, false, title, xLabel, yLabel);
+    }
+
+    /**
+     * Create the chart of a distribution in linear scale with a certain amount of bins.
+     *
+     * @param d      the distribution
+     * @param bins   the bin count
+     * @param title  the chart title
+     * @param xLabel the label of the x axis
+     * @param yLabel the label of the y axis
+     * @return the chart of {@code d} in linear scale with {@code bins} bins
+     */
+    public static XYChart linearBinsChart(Distribution d, int bins, String title, String xLabel, String yLabel) {
+        final List<DataBin<Double, Double>> bb = new LinearDataBinning(bins).bin(d.map())
                 .stream().filter(b -> b.value > 0).collect(Collectors.toList());
-        final List<Double> xData = bb.stream().map(x -> x.center).collect(Collectors.toList());
-        final List<Double> yData = bb.stream().map(b -> b.value).collect(Collectors.toList());
+        return binsChart(bb, false, title, xLabel, yLabel);
+    }
+
+    /**
+     * Create the chart of a distribution in log-log scale.
+     *
+     * @param d      the distribution
+     * @param title  the chart title
+     * @param xLabel the label of the x axis
+     * @param yLabel the label of the y axis
+     * @return the chart of {@code d} in log-log scale
+     */
+    public static XYChart logLogChart(Distribution d, String title, String xLabel, String yLabel) {
+        return logLogChart(d, DEFAULT_POINTS, title, xLabel, yLabel);
+    }
+
+    /**
+     * Create the chart of a distribution in log-log scale with at most a certain amount of points.
+     * <p>
+     * If the distribution has more values than {@code points}, it is downsampled in log-log space with
+     * {@link Downsampling#select(double[], double[], int, boolean, boolean)}.
+     *
+     * @param d      the distribution
+     * @param points the maximum number of points to plot
+     * @param title  the chart title
+     * @param xLabel the label of the x axis
+     * @param yLabel the label of the y axis
+     * @return the chart of {@code d} in log-log scale
+     * @throws IllegalArgumentException if {@code points} is less than 6
+     */
+    public static XYChart logLogChart(Distribution d, int points, String title, String xLabel, String yLabel) {
+        return downsampledChart(d.map(), points, true, title, xLabel, yLabel);
+    }
+
+    /**
+     * Create the chart of a distribution in log-log scale with a certain amount of bins.
+     *
+     * @param d      the distribution
+     * @param bins   the bin count
+     * @param title  the chart title
+     * @param xLabel the label of the x axis
+     * @param yLabel the label of the y axis
+     * @return the chart of {@code d} in log-log scale with {@code bins} bins
+     */
+    public static XYChart logLogBinsChart(Distribution d, int bins, String title, String xLabel, String yLabel) {
+        final List<DataBin<Double, Double>> bb = new LogarithmicDataBinning(bins, 10).bin(d.map())
+                .stream().filter(b -> b.value > 0).collect(Collectors.toList());
+        return binsChart(bb, true, title, xLabel, yLabel);
+    }
+
+    /**
+     * Render a chart to a byte array.
+     *
+     * @param chart  the chart
+     * @param format the output format
+     * @return the rendered chart
+     * @throws NullPointerException if any argument is {@code null}
+     * @throws IOException          if an I/O error occurs while encoding the chart
+     */
+    public static byte[] render(XYChart chart, Format format) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        render(chart, format, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Render a chart to an output stream.
+     * <p>
+     * The stream is not closed.
+     *
+     * @param chart  the chart
+     * @param format the output format
+     * @param out    the output stream
+     * @throws NullPointerException if any argument is {@code null}
+     * @throws IOException          if an I/O error occurs
+     */
+    public static void render(XYChart chart, Format format, OutputStream out) throws IOException {
+        switch (format) {
+            case PNG:
+                BitmapEncoder.saveBitmap(chart, out, BitmapEncoder.BitmapFormat.PNG);
+                break;
+            case SVG:
+                VectorGraphicsEncoder.saveVectorGraphic(chart, out, VectorGraphicsEncoder.VectorGraphicsFormat.SVG);
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * Render a chart to a file.
+     * <p>
+     * The file is created or overwritten.
+     *
+     * @param chart  the chart
+     * @param format the output format
+     * @param path   the path of the file
+     * @throws NullPointerException if any argument is {@code null}
+     * @throws IOException          if an I/O error occurs
+     */
+    public static void render(XYChart chart, Format format, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            render(chart, format, out);
+        }
+    }
+
+    private static XYChart binsChart(List<DataBin<Double, Double>> bb, boolean logLog,
+                                     String title, String xLabel, String yLabel) {
+        final double[] xData = bb.stream().mapToDouble(b -> b.center).toArray();
+        final double[] yData = bb.stream().mapToDouble(b -> b.value).toArray();
+        return chart(xData, yData, logLog, title, xLabel, yLabel);
+    }
+
+    private static XYChart downsampledChart(SortedMap<Double, Double> m, int points, boolean logLog,
+                                            String title, String xLabel, String yLabel) {
+        if (points < 6) {
+            throw new IllegalArgumentException("points must be at least 6");
+        }
+        final double[] xData = new double[m.size()];
+        final double[] yData = new double[m.size()];
+        int i = 0;
+        for (Map.Entry<Double, Double> e : m.entrySet()) {
+            xData[i] = e.getKey();
+            yData[i] = e.getValue();
+            i++;
+        }
+        final int[] selected = Downsampling.select(xData, yData, points, logLog, logLog);
+        if (selected.length == xData.length) {
+            return chart(xData, yData, logLog, title, xLabel, yLabel);
+        }
+        final double[] xSampled = new double[selected.length];
+        final double[] ySampled = new double[selected.length];
+        for (int j = 0; j < selected.length; j++) {
+            xSampled[j] = xData[selected[j]];
+            ySampled[j] = yData[selected[j]];
+        }
+        return chart(xSampled, ySampled, logLog, title, xLabel, yLabel);
+    }
+
+    private static XYChart chart(double[] xData, double[] yData, boolean logLog,
+                                 String title, String xLabel, String yLabel) {
         final XYChart chart = new XYChartBuilder().title(title).xAxisTitle(xLabel).yAxisTitle(yLabel).build();
         chart.addSeries(title, xData, yData).setXYSeriesRenderStyle(XYSeries.XYSeriesRenderStyle.Scatter);
         chart.getStyler().setLegendVisible(false);
-        chart.getStyler().setXAxisLogarithmic(true).setYAxisLogarithmic(true);
-        new SwingWrapper<>(chart).displayChart();
+        if (logLog) {
+            chart.getStyler().setXAxisLogarithmic(true).setYAxisLogarithmic(true);
+        }
+        return chart;
     }
 }
@@ -0,0 +1,73 @@
+package gr.james.stats.utils;
+
+/**
+ * The scalar implementation of the {@link Kernels}.
+ * <p>
+ * The {@code float} kernels accumulate in {@code double} precision.
+ */
+class ScalarKernels {
+    double sum(double[] a) {
+        double sum = 0;
+        for (double x : a) {
+            sum += x;
+        }
+        return sum;
+    }
+
+    double sum(float[] a) {
+        double sum = 0;
+        for (float x : a) {
+            sum += x;
+        }
+        return sum;
+    }
+
+    double sumOfSquares(double[] a) {
+        double sum = 0;
+        for (double x : a) {
+            sum += x * x;
+        }
+        return sum;
+    }
+
+    double sumOfSquares(float[] a) {
+        double sum = 0;
+        for (float f : a) {
+            final double x = f;
+            sum += x * x;
+        }
+        return sum;
+    }
+
+    double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += (double) a[i] * b[i];
+        }
+        return sum;
+    }
+
+    double coMoment(double[] a, double[] b, double meanA, double meanB) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += (a[i] - meanA) * (b[i] - meanB);
+        }
+        return sum;
+    }
+
+    double coMoment(float[] a, float[] b, double meanA, double meanB) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += (a[i] - meanA) * (b[i] - meanB);
+        }
+        return sum;
+    }
+}
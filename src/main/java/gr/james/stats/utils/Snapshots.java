@@ -0,0 +1,278 @@
+package gr.james.stats.utils;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The binary snapshot format of {@link Frequency} and {@link Distribution}.
+ * <p>
+ * A snapshot is a fixed header followed by a payload. The header consists of the magic number {@code JSTS}, a version
+ * byte, a kind byte ({@code F} or {@code D}), the number of entries and the length of the payload in bytes, the last
+ * two as big-endian 32-bit integers. The payload contains the entries in ascending key order. Each key is encoded as
+ * the XOR of its IEEE 754 bits with the bits of the previous key, written as the number of trailing zeros of the XOR
+ * in one byte followed by the remaining bits as an unsigned LEB128 varint. Neighbouring keys share their sign, exponent
+ * and leading mantissa bits, so the XOR is usually short. Frequencies are written as varints and decimal frequencies
+ * use the same XOR encoding as the keys.
+ * <p>
+ * Because the payload length is in the header, reading consumes exactly the bytes of one snapshot from the stream. The
+ * header is not trusted: the payload length must be consistent with the number of entries and the payload is decoded
+ * directly from the stream, so the memory used by a reader is proportional to the bytes actually received.
+ */
+final class Snapshots {
+    static final int MAGIC = 0x4A535453;
+    static final byte VERSION = 1;
+    static final byte FREQUENCY = 'F';
+    static final byte DISTRIBUTION = 'D';
+
+    /**
+     * The maximum encoded length of an entry, two XOR values of one byte and a varint of at most 10 bytes each.
+     */
+    private static final int MAX_ENTRY_BYTES = 22;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int BUFFER_SIZE = 8192;
+
+    private Snapshots() {
+    }
+
+    /**
+     * Write a {@link Frequency} map as a snapshot.
+     *
+     * @param out the output stream
+     * @param map the frequency map
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeFrequency(OutputStream out, SortedMap<Double, Long> map) throws IOException {
+        final Encoder encoder = new Encoder(map.size());
+        long previous = 0;
+        for (Map.Entry<Double, Long> e : map.entrySet()) {
+            final long bits = Double.doubleToRawLongBits(e.getKey());
+            encoder.xor(bits ^ previous);
+            encoder.varint(e.getValue());
+            previous = bits;
+        }
+        encoder.writeTo(out, FREQUENCY, map.size());
+    }
+
+    /**
+     * Write a {@link Distribution} map as a snapshot.
+     *
+     * @param out the output stream
+     * @param map the distribution map
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeDistribution(OutputStream out, SortedMap<Double, Double> map) throws IOException {
+        final Encoder encoder = new Encoder(map.size());
+        long previousKey = 0;
+        long previousValue = 0;
+        for (Map.Entry<Double, Double> e : map.entrySet()) {
+            final long key = Double.doubleToRawLongBits(e.getKey());
+            final long value = Double.doubleToRawLongBits(e.getValue());
+            encoder.xor(key ^ previousKey);
+            encoder.xor(value ^ previousValue);
+            previousKey = key;
+            previousValue = value;
+        }
+        encoder.writeTo(out, DISTRIBUTION, map.size());
+    }
+
+    /**
+     * Read a {@link Frequency} snapshot into an empty map.
+     *
+     * @param in     the input stream
+     * @param target the empty map to fill
+     * @throws IOException if an I/O error occurs or the snapshot is malformed
+     */
+    static void readFrequency(InputStream in, TreeMap<Double, Long> target) throws IOException {
+        final Decoder decoder = new Decoder(in, FREQUENCY);
+        double[] keys = new double[decoder.initialCapacity()];
+        long[] counts = new long[keys.length];
+        for (int i = 0; i < decoder.size; i++) {
+            if (i == keys.length) {
+                keys = Arrays.copyOf(keys, decoder.grow(i));
+                counts = Arrays.copyOf(counts, keys.length);
+            }
+            keys[i] = decoder.key(i == 0 ? 0 : keys[i - 1], i == 0);
+            counts[i] = decoder.varint();
+            if (counts[i] <= 0) {
+                throw new StreamCorruptedException("frequency must be positive");
+            }
+        }
+        decoder.finish();
+        final long[] frequencies = counts;
+        target.putAll(new ArraySortedMap<>(keys, i -> frequencies[i], 0, decoder.size));
+    }
+
+    /**
+     * Read a {@link Distribution} snapshot into an empty map.
+     *
+     * @param in     the input stream
+     * @param target the empty map to fill
+     * @throws IOException if an I/O error occurs or the snapshot is malformed
+     */
+    static void readDistribution(InputStream in, TreeMap<Double, Double> target) throws IOException {
+        final Decoder decoder = new Decoder(in, DISTRIBUTION);
+        double[] keys = new double[decoder.initialCapacity()];
+        double[] values = new double[keys.length];
+        long previousValue = 0;
+        for (int i = 0; i < decoder.size; i++) {
+            if (i == keys.length) {
+                keys = Arrays.copyOf(keys, decoder.grow(i));
+                values = Arrays.copyOf(values, keys.length);
+            }
+            keys[i] = decoder.key(i == 0 ? 0 : keys[i - 1], i == 0);
+            previousValue ^= decoder.xor();
+            values[i] = Double.longBitsToDouble(previousValue);
+            if (!Double.isFinite(values[i]) || values[i] <= 0) {
+                throw new StreamCorruptedException("frequency must be finite and positive");
+            }
+        }
+        decoder.finish();
+        final double[] frequencies = values;
+        target.putAll(new ArraySortedMap<>(keys, i -> frequencies[i], 0, decoder.size));
+    }
+
+    private static final class Encoder {
+        private byte[] bytes;
+        private int length = 0;
+
+        private Encoder(int size) {
+            this.bytes = new byte[Math.max(16, size * 4)];
+        }
+
+        private void xor(long x) {
+            final int zeros = Long.numberOfTrailingZeros(x);
+            ensure(1);
+            bytes[length++] = (byte) zeros;
+            if (zeros < 64) {
+                varint(x >>> zeros);
+            }
+        }
+
+        private void varint(long x) {
+            ensure(10);
+            while ((x & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((x & 0x7F) | 0x80);
+                x >>>= 7;
+            }
+            bytes[length++] = (byte) x;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        private void writeTo(OutputStream out, byte kind, int size) throws IOException {
+            final DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeByte(VERSION);
+            data.writeByte(kind);
+            data.writeInt(size);
+            data.writeInt(length);
+            data.write(bytes, 0, length);
+            data.flush();
+        }
+    }
+
+    private static final class Decoder {
+        private final DataInputStream data;
+        private final int size;
+        private final byte[] buffer;
+        private int remaining;
+        private int position = 0;
+        private int limit = 0;
+
+        private Decoder(InputStream in, byte kind) throws IOException {
+            this.data = new DataInputStream(in);
+            if (data.readInt() != MAGIC) {
+                throw new StreamCorruptedException("not a snapshot");
+            }
+            final byte version = data.readByte();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("unsupported snapshot version " + version);
+            }
+            if (data.readByte() != kind) {
+                throw new StreamCorruptedException("unexpected snapshot kind");
+            }
+            this.size = data.readInt();
+            final int length = data.readInt();
+            if (size < 0 || length < 0 || size > length || length > (long) size * MAX_ENTRY_BYTES) {
+                throw new StreamCorruptedException("invalid snapshot size");
+            }
+            this.remaining = length;
+            this.buffer = new byte[Math.min(length, BUFFER_SIZE)];
+        }
+
+        /**
+         * Returns the initial capacity of the arrays of the entries, since the size in the header is not trusted.
+         */
+        private int initialCapacity() {
+            return Math.min(size, INITIAL_CAPACITY);
+        }
+
+        /**
+         * Returns the grown capacity of the arrays of the entries after {@code capacity} entries have been read.
+         */
+        private int grow(int capacity) {
+            return (int) Math.min(size, 2L * capacity);
+        }
+
+        private double key(double previous, boolean first) throws IOException {
+            final long bits = Double.doubleToRawLongBits(first ? 0 : previous) ^ xor();
+            final double key = Double.longBitsToDouble(bits);
+            if (!Double.isFinite(key)) {
+                throw new StreamCorruptedException("value must be finite");
+            }
+            if (!first && Double.compare(previous, key) >= 0) {
+                throw new StreamCorruptedException("values must be strictly increasing");
+            }
+            return key;
+        }
+
+        private long xor() throws IOException {
+            final int zeros = next();
+            if (zeros == 64) {
+                return 0;
+            }
+            if (zeros > 64) {
+                throw new StreamCorruptedException("invalid trailing zeros " + zeros);
+            }
+            return varint() << zeros;
+        }
+
+        private long varint() throws IOException {
+            long x = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = next();
+                x |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return x;
+                }
+            }
+            throw new StreamCorruptedException("varint too long");
+        }
+
+        private int next() throws IOException {
+            if (position == limit) {
+                if (remaining == 0) {
+                    throw new EOFException("truncated snapshot");
+                }
+                limit = Math.min(remaining, buffer.length);
+                data.readFully(buffer, 0, limit);
+                remaining -= limit;
+                position = 0;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private void finish() throws IOException {
+            if (position != limit || remaining != 0) {
+                throw new StreamCorruptedException("trailing bytes in snapshot");
+            }
+        }
+    }
+}
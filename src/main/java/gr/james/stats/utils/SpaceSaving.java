@@ -0,0 +1,456 @@
+package gr.james.stats.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Approximate frequencies of the most frequent double values of a stream in fixed memory, using the Space-Saving
+ * algorithm of Metwally, Agrawal and El Abbadi.
+ * <p>
+ * At most {@code capacity} values are monitored, each with a counter. An observation of a monitored value increments
+ * its counter, and an observation of any other value replaces the value with the minimum counter and increments that
+ * counter, recording the previous minimum as the error of the new value. The counters are kept in a stream-summary: a
+ * list of buckets of equal counters in increasing order, so that the minimum is always at the head and an increment
+ * moves a counter to the next bucket in {@code O(1)}. All structures are allocated at construction, so no memory is
+ * allocated after that.
+ * <p>
+ * If {@code N} observations were added, the counter of a monitored value overestimates its true frequency by at most
+ * its error, which is at most {@code N / capacity}, and every value with a true frequency greater than
+ * {@code N / capacity} is monitored.
+ * <p>
+ * Summaries of different parts of a stream, for example built in different threads, can be combined with
+ * {@link #merge(SpaceSaving)}, which keeps the same guarantees for the union of the parts.
+ */
+public class SpaceSaving {
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private long total = 0;
+    private int size = 0;
+
+    private final double[] keys;
+    private final long[] errors;
+    private final int[] bucketOf;
+    private final int[] next;
+    private final int[] previous;
+
+    private final long[] counts;
+    private final int[] first;
+    private final int[] bucketNext;
+    private final int[] bucketPrevious;
+    private int head = NONE;
+    private int tail = NONE;
+    private int free;
+
+    private final double[] slotKeys;
+    private final int[] slotCounters;
+
+    /**
+     * Construct a new empty {@link SpaceSaving}.
+     *
+     * @param capacity the maximum number of values that are monitored
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new double[capacity];
+        this.errors = new long[capacity];
+        this.bucketOf = new int[capacity];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.counts = new long[capacity + 1];
+        this.first = new int[capacity + 1];
+        this.bucketNext = new int[capacity + 1];
+        this.bucketPrevious = new int[capacity + 1];
+        for (int b = 0; b <= capacity; b++) {
+            bucketNext[b] = b + 1 <= capacity ? b + 1 : NONE;
+        }
+        this.free = 0;
+        final int slots = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2;
+        this.slotKeys = new double[slots];
+        this.slotCounters = new int[slots];
+        Arrays.fill(slotCounters, NONE);
+    }
+
+    /**
+     * Add a single observation.
+     *
+     * @param t the observation value
+     * @throws IllegalArgumentException if {@code t} is not finite
+     */
+    public void add(double t) {
+        add(t, 1);
+    }
+
+    /**
+     * Add an observation multiple times.
+     * <p>
+     * Unlike a single observation, this may move the counter past several buckets.
+     *
+     * @param t     the observation value
+     * @param count the number of times the value was observed
+     * @throws IllegalArgumentException if {@code t} is not finite
+     * @throws IllegalArgumentException if {@code count} is not positive
+     * @throws ArithmeticException      if the total number of observations overflows a {@code long}
+     */
+    public void add(double t, long count) {
+        if (!Double.isFinite(t)) {
+            throw new IllegalArgumentException("argument must be finite");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        total = Math.addExact(total, count);
+        offer(t, count, 0);
+    }
+
+    /**
+     * Adds {@code count} to the counter of {@code t} and {@code error} to its error, replacing the minimum counter if
+     * {@code t} is not monitored and the summary is full.
+     */
+    private void offer(double t, long count, long error) {
+        int i = lookup(t);
+        if (i != NONE) {
+            errors[i] += error;
+            raise(i, counts[bucketOf[i]] + count);
+        } else if (size < capacity) {
+            i = size++;
+            keys[i] = t;
+            errors[i] = error;
+            bucketOf[i] = NONE;
+            insert(t, i);
+            raise(i, count);
+        } else {
+            i = first[head];
+            final long minimum = counts[head];
+            delete(keys[i]);
+            keys[i] = t;
+            errors[i] = minimum + error;
+            insert(t, i);
+            raise(i, minimum + count);
+        }
+    }
+
+    /**
+     * Moves counter {@code i} to the bucket of count {@code c}, which is greater than its current count.
+     */
+    private void raise(int i, long c) {
+        final int b = bucketOf[i];
+        int before = b;
+        int cursor = b == NONE ? head : bucketNext[b];
+        while (cursor != NONE && counts[cursor] < c) {
+            before = cursor;
+            cursor = bucketNext[cursor];
+        }
+        final int target;
+        if (cursor != NONE && counts[cursor] == c) {
+            target = cursor;
+        } else {
+            target = free;
+            free = bucketNext[free];
+            counts[target] = c;
+            first[target] = NONE;
+            bucketPrevious[target] = before;
+            bucketNext[target] = cursor;
+            if (before == NONE) {
+                head = target;
+            } else {
+                bucketNext[before] = target;
+            }
+            if (cursor == NONE) {
+                tail = target;
+            } else {
+                bucketPrevious[cursor] = target;
+            }
+        }
+        if (b != NONE) {
+            detach(i, b);
+        }
+        bucketOf[i] = target;
+        previous[i] = NONE;
+        next[i] = first[target];
+        if (first[target] != NONE) {
+            previous[first[target]] = i;
+        }
+        first[target] = i;
+    }
+
+    /**
+     * Removes counter {@code i} from bucket {@code b}, releasing the bucket if it becomes empty.
+     */
+    private void detach(int i, int b) {
+        if (previous[i] == NONE) {
+            first[b] = next[i];
+        } else {
+            next[previous[i]] = next[i];
+        }
+        if (next[i] != NONE) {
+            previous[next[i]] = previous[i];
+        }
+        if (first[b] == NONE) {
+            if (bucketPrevious[b] == NONE) {
+                head = bucketNext[b];
+            } else {
+                bucketNext[bucketPrevious[b]] = bucketNext[b];
+            }
+            if (bucketNext[b] == NONE) {
+                tail = bucketPrevious[b];
+            } else {
+                bucketPrevious[bucketNext[b]] = bucketPrevious[b];
+            }
+            bucketNext[b] = free;
+            free = b;
+        }
+    }
+
+    /**
+     * Returns the maximum number of values that are monitored.
+     *
+     * @return the maximum number of values that are monitored
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of values that are currently monitored.
+     *
+     * @return the number of values that are currently monitored
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the total number of observations.
+     *
+     * @return the total number of observations
+     */
+    public long sum() {
+        return total;
+    }
+
+    /**
+     * Returns an upper bound of the true frequency of a value.
+     * <p>
+     * This is the counter of the value if it is monitored. Otherwise, it is the minimum counter if the summary is full
+     * and 0 if not.
+     *
+     * @param t the value
+     * @return an upper bound of the true frequency of {@code t}
+     */
+    public long upperBound(double t) {
+        final int i = lookup(t);
+        if (i != NONE) {
+            return counts[bucketOf[i]];
+        }
+        return size < capacity ? 0 : counts[head];
+    }
+
+    /**
+     * Returns a lower bound of the true frequency of a value.
+     * <p>
+     * This is the counter of the value minus its error if it is monitored and 0 if not.
+     *
+     * @param t the value
+     * @return a lower bound of the true frequency of {@code t}
+     */
+    public long lowerBound(double t) {
+        final int i = lookup(t);
+        return i == NONE ? 0 : counts[bucketOf[i]] - errors[i];
+    }
+
+    /**
+     * Returns the value with the largest counter, which is an estimate of the mode of the stream.
+     * <p>
+     * If the largest counter is tied with more than 1 value, this method returns the lowest value, like
+     * {@link Frequency#mode()}. The true mode is guaranteed to be returned if its frequency exceeds the frequency of
+     * every other value by more than {@code N / capacity}.
+     *
+     * @return the value with the largest counter
+     * @throws NoSuchElementException if there are no observations
+     */
+    public double mode() {
+        if (tail == NONE) {
+            throw new NoSuchElementException();
+        }
+        double mode = Double.NaN;
+        for (int i = first[tail]; i != NONE; i = next[i]) {
+            if (Double.isNaN(mode) || Double.compare(keys[i], mode) < 0) {
+                mode = keys[i];
+            }
+        }
+        return mode;
+    }
+
+    /**
+     * Returns a new {@link Frequency} of the monitored values and their counters.
+     * <p>
+     * The frequencies are upper bounds of the true frequencies.
+     *
+     * @return a new {@link Frequency} of the monitored values and their counters
+     */
+    public Frequency toFrequency() {
+        return heavyHitters(0);
+    }
+
+    /**
+     * Returns a new {@link Frequency} of the monitored values whose counter is greater than {@code support} times the
+     * number of observations.
+     * <p>
+     * The result contains every value with a true frequency greater than {@code support * N} if
+     * {@code support >= 1 / capacity}, and no value with a true frequency of at most
+     * {@code support * N - N / capacity}. The frequencies are upper bounds of the true frequencies.
+     *
+     * @param support the minimum fraction of the observations
+     * @return a new {@link Frequency} of the monitored values whose counter is greater than {@code support * N}
+     * @throws IllegalArgumentException if {@code support} is not in {@code [0, 1]}
+     */
+    public Frequency heavyHitters(double support) {
+        if (!(support >= 0 && support <= 1)) {
+            throw new IllegalArgumentException("support must be in [0, 1]");
+        }
+        final double threshold = support * total;
+        final double[] sorted = new double[size];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            if (counts[bucketOf[i]] > threshold) {
+                sorted[k++] = keys[i];
+            }
+        }
+        Arrays.sort(sorted, 0, k);
+        final long[] values = new long[k];
+        for (int j = 0; j < k; j++) {
+            values[j] = counts[bucketOf[lookup(sorted[j])]];
+        }
+        return new Frequency(new ArraySortedMap<>(sorted, j -> values[j], 0, k));
+    }
+
+    /**
+     * Merge the observations of another {@link SpaceSaving} into this instance.
+     * <p>
+     * The counters of a value in both summaries are added. A value monitored in only one summary is assumed to have the
+     * minimum counter of the other summary there, if that is full, which is added to both its counter and its error.
+     * The {@code capacity} largest of the combined counters are kept. The result has the guarantees of a summary of
+     * all {@code N} observations of both instances, with an error of at most {@code N / capacity}. The other instance
+     * is not modified.
+     * <p>
+     * Both instances must have the same capacity, because the minimum counter of a smaller summary can exceed that
+     * error bound.
+     *
+     * @param other the other {@link SpaceSaving}
+     * @return this instance
+     * @throws NullPointerException     if {@code other} is {@code null}
+     * @throws IllegalArgumentException if {@code other} has a different capacity than this instance
+     * @throws ArithmeticException      if the total number of observations overflows a {@code long}
+     */
+    public SpaceSaving merge(SpaceSaving other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException("Inputs must have the same capacity");
+        }
+        if (other.size == 0) {
+            return this;
+        }
+        final long minimumThis = size < capacity ? 0 : counts[head];
+        final long minimumOther = other.size < other.capacity ? 0 : other.counts[other.head];
+        final int n = size + other.size;
+        final double[] mergedKeys = new double[n];
+        final long[] mergedCounts = new long[n];
+        final long[] mergedErrors = new long[n];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            final int j = other.lookup(keys[i]);
+            mergedKeys[k] = keys[i];
+            if (j == NONE) {
+                mergedCounts[k] = counts[bucketOf[i]] + minimumOther;
+                mergedErrors[k] = errors[i] + minimumOther;
+            } else {
+                mergedCounts[k] = counts[bucketOf[i]] + other.counts[other.bucketOf[j]];
+                mergedErrors[k] = errors[i] + other.errors[j];
+            }
+            k++;
+        }
+        for (int j = 0; j < other.size; j++) {
+            if (lookup(other.keys[j]) == NONE) {
+                mergedKeys[k] = other.keys[j];
+                mergedCounts[k] = other.counts[other.bucketOf[j]] + minimumThis;
+                mergedErrors[k] = other.errors[j] + minimumThis;
+                k++;
+            }
+        }
+        final long mergedTotal = Math.addExact(total, other.total);
+
+        final Integer[] order = new Integer[k];
+        for (int i = 0; i < k; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Long.compare(mergedCounts[y], mergedCounts[x]));
+
+        clear();
+        total = mergedTotal;
+        // in decreasing order every counter joins the head bucket or a new bucket before it in O(1)
+        for (int r = 0; r < Math.min(k, capacity); r++) {
+            final int source = order[r];
+            offer(mergedKeys[source], mergedCounts[source], mergedErrors[source]);
+        }
+        return this;
+    }
+
+    private void clear() {
+        Arrays.fill(slotCounters, NONE);
+        for (int b = 0; b <= capacity; b++) {
+            bucketNext[b] = b + 1 <= capacity ? b + 1 : NONE;
+        }
+        free = 0;
+        head = NONE;
+        tail = NONE;
+        size = 0;
+        total = 0;
+    }
+
+    private int lookup(double key) {
+        final int mask = slotKeys.length - 1;
+        final long bits = Double.doubleToLongBits(key);
+        for (int slot = DoubleIndex.hash(bits) & mask; slotCounters[slot] != NONE; slot = (slot + 1) & mask) {
+            if (Double.doubleToLongBits(slotKeys[slot]) == bits) {
+                return slotCounters[slot];
+            }
+        }
+        return NONE;
+    }
+
+    private void insert(double key, int counter) {
+        final int mask = slotKeys.length - 1;
+        int slot = DoubleIndex.hash(Double.doubleToLongBits(key)) & mask;
+        while (slotCounters[slot] != NONE) {
+            slot = (slot + 1) & mask;
+        }
+        slotKeys[slot] = key;
+        slotCounters[slot] = counter;
+    }
+
+    /**
+     * Removes a key from the hash table, shifting the following entries of its probe sequence back.
+     */
+    private void delete(double key) {
+        final int mask = slotKeys.length - 1;
+        final long bits = Double.doubleToLongBits(key);
+        int slot = DoubleIndex.hash(bits) & mask;
+        while (Double.doubleToLongBits(slotKeys[slot]) != bits || slotCounters[slot] == NONE) {
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        for (int cursor = (gap + 1) & mask; slotCounters[cursor] != NONE; cursor = (cursor + 1) & mask) {
+            final int home = DoubleIndex.hash(Double.doubleToLongBits(slotKeys[cursor])) & mask;
+            if (((cursor - home) & mask) >= ((cursor - gap) & mask)) {
+                slotKeys[gap] = slotKeys[cursor];
+                slotCounters[gap] = slotCounters[cursor];
+                gap = cursor;
+            }
+        }
+        slotCounters[gap] = NONE;
+    }
+}
@@ -0,0 +1,357 @@
+package gr.james.stats.utils;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sparse vector of {@code double} values.
+ * <p>
+ * The vector has a fixed dimension and stores only its non-zero elements as two parallel arrays of strictly
+ * increasing indices and their values, so that operations between vectors take time proportional to the number of
+ * non-zero elements instead of the dimension.
+ */
+public final class SparseVector {
+    private final int dimension;
+    private final int[] indices;
+    private final double[] values;
+
+    /**
+     * Construct a new {@link SparseVector} from its non-zero elements.
+     * <p>
+     * Elements with a zero value are allowed but are discarded. The arrays are copied.
+     *
+     * @param dimension the dimension of the vector
+     * @param indices   the indices of the elements in strictly increasing order
+     * @param values    the values of the elements
+     * @throws NullPointerException     if either {@code indices} or {@code values} is {@code null}
+     * @throws IllegalArgumentException if {@code dimension} is negative
+     * @throws IllegalArgumentException if {@code indices} and {@code values} are of different size
+     * @throws IllegalArgumentException if {@code indices} is not strictly increasing or contains indices outside
+     *                                  {@code [0, dimension)}
+     * @throws IllegalArgumentException if {@code values} contains non-finite values
+     */
+    public SparseVector(int dimension, int[] indices, double[] values) {
+        if (dimension < 0) {
+            throw new IllegalArgumentException("dimension cannot be negative");
+        }
+        if (indices.length != values.length) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        int nonZero = 0;
+        for (int k = 0; k < indices.length; k++) {
+            if (indices[k] < 0 || indices[k] >= dimension) {
+                throw new IllegalArgumentException("index out of range: " + indices[k]);
+            }
+            if (k > 0 && indices[k] <= indices[k - 1]) {
+                throw new IllegalArgumentException("indices must be strictly increasing");
+            }
+            if (!Double.isFinite(values[k])) {
+                throw new IllegalArgumentException("values must be finite");
+            }
+            if (values[k] != 0) {
+                nonZero++;
+            }
+        }
+        this.dimension = dimension;
+        this.indices = new int[nonZero];
+        this.values = new double[nonZero];
+        int j = 0;
+        for (int k = 0; k < indices.length; k++) {
+            if (values[k] != 0) {
+                this.indices[j] = indices[k];
+                this.values[j] = values[k];
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Returns the dimension of this vector.
+     *
+     * @return the dimension of this vector
+     */
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the number of non-zero elements of this vector.
+     *
+     * @return the number of non-zero elements of this vector
+     */
+    public int size() {
+        return indices.length;
+    }
+
+    /**
+     * Returns the index of the {@code k}-th non-zero element of this vector.
+     *
+     * @param k the position of the element in {@code [0, size())}
+     * @return the index of the {@code k}-th non-zero element
+     * @throws IndexOutOfBoundsException if {@code k} is not in {@code [0, size())}
+     */
+    public int index(int k) {
+        return indices[k];
+    }
+
+    /**
+     * Returns the value of the {@code k}-th non-zero element of this vector.
+     *
+     * @param k the position of the element in {@code [0, size())}
+     * @return the value of the {@code k}-th non-zero element
+     * @throws IndexOutOfBoundsException if {@code k} is not in {@code [0, size())}
+     */
+    public double value(int k) {
+        return values[k];
+    }
+
+    /**
+     * Returns the element of this vector at the given index.
+     *
+     * @param index the index of the element
+     * @return the element at {@code index}, which is 0 if it is not stored
+     * @throws IndexOutOfBoundsException if {@code index} is not in {@code [0, dimension())}
+     */
+    public double get(int index) {
+        if (index < 0 || index >= dimension) {
+            throw new IndexOutOfBoundsException(String.format("%d out of bounds for dimension %d", index, dimension));
+        }
+        final int k = Arrays.binarySearch(indices, index);
+        return k >= 0 ? values[k] : 0;
+    }
+
+    /**
+     * Returns the sum of the elements of this vector.
+     *
+     * @return the sum of the elements of this vector
+     */
+    public double sum() {
+        return Kernels.sum(values);
+    }
+
+    /**
+     * Returns the sum of the squares of the elements of this vector.
+     *
+     * @return the sum of the squares of the elements of this vector
+     */
+    public double sumOfSquares() {
+        return Kernels.sumOfSquares(values);
+    }
+
+    /**
+     * Returns the dot product of this vector with another.
+     * <p>
+     * The non-zero elements of the vectors are merged in a single pass, or, if one vector has far fewer non-zero
+     * elements than the other, its elements are looked up in the other with binary search.
+     *
+     * @param other the other vector
+     * @return the dot product of this vector with {@code other}
+     * @throws NullPointerException     if {@code other} is {@code null}
+     * @throws IllegalArgumentException if the vectors have different dimensions
+     */
+    public double dot(SparseVector other) {
+        if (this.dimension != other.dimension) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        final SparseVector small = this.size() <= other.size() ? this : other;
+        final SparseVector big = small == this ? other : this;
+        double sum = 0;
+        if ((long) small.size() * (32 - Integer.numberOfLeadingZeros(big.size())) < big.size()) {
+            int from = 0;
+            for (int k = 0; k < small.size() && from < big.size(); k++) {
+                final int j = Arrays.binarySearch(big.indices, from, big.size(), small.indices[k]);
+                if (j >= 0) {
+                    sum += small.values[k] * big.values[j];
+                    from = j + 1;
+                } else {
+                    from = -j - 1;
+                }
+            }
+            return sum;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < small.size() && j < big.size()) {
+            if (small.indices[i] < big.indices[j]) {
+                i++;
+            } else if (small.indices[i] > big.indices[j]) {
+                j++;
+            } else {
+                sum += small.values[i++] * big.values[j++];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the co-moment of this vector with another about the given means, i.e. the sum of
+     * {@code (a[i] - meanA) * (b[i] - meanB)} over all {@code dimension()} elements.
+     * <p>
+     * Only the union of the non-zero elements is visited, the contribution of the elements that are zero in both
+     * vectors is added analytically.
+     *
+     * @param other     the other vector
+     * @param meanThis  the mean of this vector
+     * @param meanOther the mean of {@code other}
+     * @return the co-moment of this vector with {@code other}
+     * @throws NullPointerException     if {@code other} is {@code null}
+     * @throws IllegalArgumentException if the vectors have different dimensions
+     */
+    public double coMoment(SparseVector other, double meanThis, double meanOther) {
+        if (this.dimension != other.dimension) {
+            throw new IllegalArgumentException("Inputs must have the same size");
+        }
+        double sum = 0;
+        long union = 0;
+        int i = 0;
+        int j = 0;
+        while (i < this.size() || j < other.size()) {
+            final int c = i == this.size() ? 1 : j == other.size() ? -1 :
+                    Integer.compare(this.indices[i], other.indices[j]);
+            final double x = c <= 0 ? this.values[i++] : 0;
+            final double y = c >= 0 ? other.values[j++] : 0;
+            sum += (x - meanThis) * (y - meanOther);
+            union++;
+        }
+        return sum + (dimension - union) * meanThis * meanOther;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SparseVector)) {
+            return false;
+        }
+        final SparseVector other = (SparseVector) obj;
+        return dimension == other.dimension && Arrays.equals(indices, other.indices)
+                && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * dimension + Arrays.hashCode(indices)) + Arrays.hashCode(values);
+    }
+
+    /**
+     * A builder of {@link SparseVector} instances backed by a primitive hash map from indices to values.
+     * <p>
+     * Elements can be added in any order and values added to the same index are summed.
+     */
+    public static final class Builder {
+        private final int dimension;
+        private int[] keys;
+        private double[] sums;
+        private boolean[] used;
+        private int size;
+
+        /**
+         * Construct a new empty {@link Builder} of a vector with the given dimension.
+         *
+         * @param dimension the dimension of the vector
+         * @throws IllegalArgumentException if {@code dimension} is negative
+         */
+        public Builder(int dimension) {
+            if (dimension < 0) {
+                throw new IllegalArgumentException("dimension cannot be negative");
+            }
+            this.dimension = dimension;
+            this.keys = new int[16];
+            this.sums = new double[16];
+            this.used = new boolean[16];
+            this.size = 0;
+        }
+
+        /**
+         * Add a value to the element at the given index.
+         *
+         * @param index the index of the element
+         * @param value the value to add
+         * @return this builder
+         * @throws IndexOutOfBoundsException if {@code index} is not in {@code [0, dimension)}
+         * @throws IllegalArgumentException  if {@code value} is not finite
+         */
+        public Builder add(int index, double value) {
+            if (index < 0 || index >= dimension) {
+                throw new IndexOutOfBoundsException(String.format("%d out of bounds for dimension %d",
+                        index, dimension));
+            }
+            if (!Double.isFinite(value)) {
+                throw new IllegalArgumentException("value must be finite");
+            }
+            final int mask = keys.length - 1;
+            int slot = hash(index) & mask;
+            while (used[slot]) {
+                if (keys[slot] == index) {
+                    sums[slot] += value;
+                    return this;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = index;
+            sums[slot] = value;
+            if (++size > keys.length * 2L / 3) {
+                resize();
+            }
+            return this;
+        }
+
+        /**
+         * Build the {@link SparseVector} with the elements added so far.
+         * <p>
+         * Elements whose values sum to zero are not stored.
+         *
+         * @return a new {@link SparseVector} with the elements added so far
+         */
+        public SparseVector build() {
+            int[] indices = new int[size];
+            int k = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (used[slot] && sums[slot] != 0) {
+                    indices[k++] = keys[slot];
+                }
+            }
+            indices = Arrays.copyOf(indices, k);
+            Arrays.sort(indices);
+            final double[] values = new double[k];
+            final int mask = keys.length - 1;
+            for (int i = 0; i < k; i++) {
+                int slot = hash(indices[i]) & mask;
+                while (!used[slot] || keys[slot] != indices[i]) {
+                    slot = (slot + 1) & mask;
+                }
+                values[i] = sums[slot];
+            }
+            return new SparseVector(dimension, indices, values);
+        }
+
+        private void resize() {
+            final int[] oldKeys = keys;
+            final double[] oldSums = sums;
+            final boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            sums = new double[oldSums.length * 2];
+            used = new boolean[oldUsed.length * 2];
+            size = 0;
+            final int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (used[slot]) {
+                        slot = (slot + 1) & mask;
+                    }
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    sums[slot] = oldSums[i];
+                    size++;
+                }
+            }
+        }
+
+        private static int hash(int key) {
+            final int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
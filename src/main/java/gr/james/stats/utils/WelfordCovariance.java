@@ -0,0 +1,145 @@
+package gr.james.stats.utils;
+
+/**
+ * Implementation of Welford's online covariance algorithm.
+ * <p>
+ * The method computes the covariance and the Pearson correlation coefficient of paired observations in one pass
+ * using constant memory and allows querying them at any point. Instances can be merged, which allows partial results
+ * computed independently, for example in different threads, to be combined.
+ * <p>
+ * The raw sums of squares and products are also maintained so that the Cosine similarity of the observations can be
+ * queried as well.
+ */
+public class WelfordCovariance {
+    private long observations;
+    private double meanX;
+    private double meanY;
+    private double m2x;
+    private double m2y;
+    private double cxy;
+    private double sumXX;
+    private double sumYY;
+    private double sumXY;
+
+    /**
+     * Construct a new instance of {@link WelfordCovariance} with no observations.
+     */
+    public WelfordCovariance() {
+    }
+
+    /**
+     * Add a paired observation.
+     * <p>
+     * This method updates the state of the instance to reflect the new observation added.
+     *
+     * @param x the observation of the one variable
+     * @param y the observation of the other variable
+     */
+    public void add(double x, double y) {
+        this.observations = Math.addExact(this.observations, 1);
+        final double dx = x - meanX;
+        final double dy = y - meanY;
+        meanX += dx / observations;
+        meanY += dy / observations;
+        m2x += dx * (x - meanX);
+        m2y += dy * (y - meanY);
+        cxy += dx * (y - meanY);
+        sumXX += x * x;
+        sumYY += y * y;
+        sumXY += x * y;
+    }
+
+    /**
+     * Merge the observations of another instance into this instance.
+     * <p>
+     * After this method returns, this instance reflects the union of the observations of both instances, as if they
+     * had all been added to this instance. The other instance is not modified.
+     *
+     * @param other the other instance
+     * @return this instance
+     * @throws NullPointerException if {@code other} is {@code null}
+     */
+    public WelfordCovariance merge(WelfordCovariance other) {
+        if (other.observations == 0) {
+            return this;
+        }
+        final long observations = Math.addExact(this.observations, other.observations);
+        final double dx = other.meanX - this.meanX;
+        final double dy = other.meanY - this.meanY;
+        final double f = (double) this.observations * other.observations / observations;
+        this.m2x += other.m2x + dx * dx * f;
+        this.m2y += other.m2y + dy * dy * f;
+        this.cxy += other.cxy + dx * dy * f;
+        this.meanX += dx * other.observations / observations;
+        this.meanY += dy * other.observations / observations;
+        this.sumXX += other.sumXX;
+        this.sumYY += other.sumYY;
+        this.sumXY += other.sumXY;
+        this.observations = observations;
+        return this;
+    }
+
+    /**
+     * Returns the total number of paired observations that have been added in this instance.
+     *
+     * @return the total number of paired observations that have been added in this instance
+     */
+    public long observations() {
+        return this.observations;
+    }
+
+    /**
+     * Returns the mean value of the observations of the one variable.
+     *
+     * @return the mean value of the observations of the one variable
+     */
+    public double meanX() {
+        return this.observations == 0 ? Double.NaN : this.meanX;
+    }
+
+    /**
+     * Returns the mean value of the observations of the other variable.
+     *
+     * @return the mean value of the observations of the other variable
+     */
+    public double meanY() {
+        return this.observations == 0 ? Double.NaN : this.meanY;
+    }
+
+    /**
+     * Returns the population covariance of the observations that have been added to this instance.
+     *
+     * @return the population covariance of the observations that have been added to this instance
+     */
+    public double populationCovariance() {
+        return this.cxy / this.observations;
+    }
+
+    /**
+     * Returns the sample covariance of the observations that have been added to this instance.
+     *
+     * @return the sample covariance of the observations that have been added to this instance
+     */
+    public double sampleCovariance() {
+        return this.cxy / (this.observations - 1);
+    }
+
+    /**
+     * Returns the Pearson correlation coefficient of the observations that have been added to this instance.
+     *
+     * @return the Pearson correlation coefficient of the observations that have been added to this instance
+     */
+    public double pearson() {
+        return this.cxy / (Math.sqrt(this.m2x) * Math.sqrt(this.m2y));
+    }
+
+    /**
+     * Returns the Cosine similarity of the observations that have been added to this instance, treating the
+     * observations of each variable as a vector.
+     *
+     * @return the Cosine similarity of the observations that have been added to this instance
+     */
+    public double cosine() {
+        return this.sumXY / (Math.sqrt(this.sumXX) * Math.sqrt(this.sumYY));
+    }
+}
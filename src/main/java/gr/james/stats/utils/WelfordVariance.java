@@ -37,6 +37,56 @@ public class WelfordVariance {
         m += (observation - nextMean) * (observation - previousMean);
     }
 
+    /**
+     * Add all values of an array as observations.
+     * <p>
+     * The mean and the sum of squared deviations of the array are computed in two passes with the {@link Kernels},
+     * which are vectorized when available, and then merged into this instance with {@link #merge(WelfordVariance)}.
+     *
+     * @param observations the observation values
+     * @throws NullPointerException if {@code observations} is {@code null}
+     */
+    public void addAll(double[] observations) {
+        if (observations.length == 0) {
+            return;
+        }
+        final WelfordVariance other = new WelfordVariance();
+        other.observations = observations.length;
+        other.sum = Kernels.sum(observations);
+        final double mean = other.sum / observations.length;
+        other.m = Kernels.coMoment(observations, observations, mean, mean);
+        merge(other);
+    }
+
+    /**
+     * Merge the observations of another instance into this instance.
+     * <p>
+     * After this method returns, this instance reflects the union of the observations of both instances, as if they
+     * had all been added to this instance. The other instance is not modified. This method uses the pairwise update of
+     * Chan et al. and allows partial results computed independently, for example in different threads, to be combined.
+     *
+     * @param other the other instance
+     * @return this instance
+     * @throws NullPointerException if {@code other} is {@code null}
+     */
+    public WelfordVariance merge(WelfordVariance other) {
+        if (other.observations == 0) {
+            return this;
+        }
+        if (this.observations == 0) {
+            this.m = other.m;
+            this.sum = other.sum;
+            this.observations = other.observations;
+            return this;
+        }
+        final long observations = Math.addExact(this.observations, other.observations);
+        final double delta = other.sum / other.observations - this.sum / this.observations;
+        this.m += other.m + delta * delta * ((double) this.observations * other.observations / observations);
+        this.sum += other.sum;
+        this.observations = observations;
+        return this;
+    }
+
     /**
      * Returns the total number of observations that have been added in this instance.
      *
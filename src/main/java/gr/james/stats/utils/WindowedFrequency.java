@@ -0,0 +1,217 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.DataBinning;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Frequency} over a sliding time window, made of rotating time buckets.
+ * <p>
+ * Time is an arbitrary {@code long}, for example milliseconds, and is split into buckets of equal width. The window
+ * consists of the bucket of the most recent observation and the {@code buckets - 1} buckets before it. Every bucket is
+ * a primitive hash table from values to counts, so an observation is added in {@code O(1)} amortized time, and a bucket
+ * is cleared and reused as soon as it falls out of the window, so the memory is bounded by the distinct values of
+ * {@code buckets} buckets. The buckets are merged into a {@link Frequency} on read.
+ * <p>
+ * Observations older than the window are dropped.
+ */
+public class WindowedFrequency {
+    private final long width;
+    private final Bucket[] buckets;
+    private final long[] epochs;
+    private long latest = Long.MIN_VALUE;
+
+    /**
+     * Construct a new empty {@link WindowedFrequency}.
+     *
+     * @param bucketWidth the width of each bucket in time units
+     * @param buckets     the number of buckets in the window
+     * @throws IllegalArgumentException if either {@code bucketWidth} or {@code buckets} is not positive
+     */
+    public WindowedFrequency(long bucketWidth, int buckets) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException("bucketWidth must be positive");
+        }
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive");
+        }
+        this.width = bucketWidth;
+        this.buckets = new Bucket[buckets];
+        this.epochs = new long[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new Bucket();
+            this.epochs[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Add a single observation at the given time.
+     * <p>
+     * If {@code time} is after the current window, the window slides forward so that it ends at the bucket of
+     * {@code time}.
+     *
+     * @param t    the observation value
+     * @param time the time of the observation
+     * @return {@code true} if the observation was added, {@code false} if it was older than the window
+     * @throws IllegalArgumentException if {@code t} is not finite
+     */
+    public boolean add(double t, long time) {
+        if (!Double.isFinite(t)) {
+            throw new IllegalArgumentException("argument must be finite");
+        }
+        final long epoch = Math.floorDiv(time, width);
+        advanceTo(epoch);
+        if (!live(epoch)) {
+            return false;
+        }
+        final int slot = (int) Math.floorMod(epoch, (long) buckets.length);
+        if (epochs[slot] != epoch) {
+            buckets[slot].clear();
+            epochs[slot] = epoch;
+        }
+        buckets[slot].add(t);
+        return true;
+    }
+
+    /**
+     * Slide the window forward so that it ends at the bucket of {@code time}, without adding an observation.
+     * <p>
+     * This method does nothing if {@code time} is not after the current window.
+     *
+     * @param time the current time
+     */
+    public void advance(long time) {
+        advanceTo(Math.floorDiv(time, width));
+    }
+
+    private void advanceTo(long epoch) {
+        if (epoch > latest) {
+            latest = epoch;
+        }
+    }
+
+    private boolean live(long epoch) {
+        return epoch != Long.MIN_VALUE && epoch > latest - buckets.length;
+    }
+
+    /**
+     * Returns the sum of all frequencies in the window.
+     *
+     * @return the sum of all frequencies in the window
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (live(epochs[i])) {
+                sum += buckets[i].total;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Merge the buckets of the window into a new {@link Frequency}.
+     *
+     * @return a new {@link Frequency} of the observations in the window
+     */
+    public Frequency toFrequency() {
+        final Bucket merged = new Bucket();
+        for (int i = 0; i < buckets.length; i++) {
+            if (live(epochs[i])) {
+                buckets[i].addTo(merged);
+            }
+        }
+        final double[] keys = merged.sortedKeys();
+        final long[] counts = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            counts[i] = merged.get(keys[i]);
+        }
+        return new Frequency(new ArraySortedMap<>(keys, i -> counts[i], 0, keys.length));
+    }
+
+    /**
+     * Convert the window into a {@link Distribution}.
+     *
+     * @return a new {@link Distribution} of the observations in the window
+     * @see Frequency#toDistribution()
+     */
+    public Distribution toDistribution() {
+        return toFrequency().toDistribution();
+    }
+
+    /**
+     * Returns a new {@link Distribution} by binning the window.
+     *
+     * @param binning the binning method
+     * @return a new {@link Distribution} by binning the window
+     * @see Frequency#bin(DataBinning)
+     */
+    public Distribution bin(DataBinning binning) {
+        return toFrequency().bin(binning);
+    }
+
+    /**
+     * Return a normalized distribution of the window for which the frequencies sum to 1.
+     *
+     * @return a normalized distribution of the window for which the frequencies sum to 1
+     * @see Frequency#normalize()
+     */
+    public Distribution normalize() {
+        return toFrequency().normalize();
+    }
+
+    /**
+     * The counts of the values of one time bucket.
+     */
+    private static final class Bucket {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final DoubleIndex index = new DoubleIndex();
+        private long[] counts = new long[INITIAL_CAPACITY];
+        private long total = 0;
+
+        void add(double key) {
+            add(key, 1);
+        }
+
+        void add(double key, long count) {
+            final int size = index.size();
+            final int i = index.add(key);
+            if (i == size) {
+                if (i == counts.length) {
+                    counts = Arrays.copyOf(counts, i * 2);
+                }
+                counts[i] = count;
+            } else {
+                counts[i] = Math.addExact(counts[i], count);
+            }
+            total = Math.addExact(total, count);
+        }
+
+        long get(double key) {
+            final int i = index.indexOf(key);
+            return i < 0 ? 0 : counts[i];
+        }
+
+        void addTo(Bucket other) {
+            for (int i = 0; i < index.size(); i++) {
+                other.add(index.key(i), counts[i]);
+            }
+        }
+
+        double[] sortedKeys() {
+            return index.sortedKeys();
+        }
+
+        /**
+         * Empties the bucket, shrinking it if it is much larger than its contents were.
+         */
+        void clear() {
+            if (counts.length > INITIAL_CAPACITY && index.size() < counts.length / 8) {
+                counts = new long[INITIAL_CAPACITY];
+            }
+            index.clear();
+            total = 0;
+        }
+    }
+}
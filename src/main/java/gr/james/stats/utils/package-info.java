@@ -2,9 +2,20 @@
  * Various statistical utilities not belonging to other packages.
  * <ul>
  *     <li>{@link gr.james.stats.utils.Frequency}</li>
+ *     <li>{@link gr.james.stats.utils.WindowedFrequency}</li>
+ *     <li>{@link gr.james.stats.utils.DecayedFrequency}</li>
+ *     <li>{@link gr.james.stats.utils.SpaceSaving}</li>
+ *     <li>{@link gr.james.stats.utils.HyperLogLog}</li>
  *     <li>{@link gr.james.stats.utils.Distribution}</li>
+ *     <li>{@link gr.james.stats.utils.ImmutableDistribution}</li>
+ *     <li>{@link gr.james.stats.utils.DistributionPipeline}</li>
  *     <li>{@link gr.james.stats.utils.Plotting}</li>
+ *     <li>{@link gr.james.stats.utils.ChartRenderer}</li>
+ *     <li>{@link gr.james.stats.utils.Downsampling}</li>
+ *     <li>{@link gr.james.stats.utils.Kernels}</li>
+ *     <li>{@link gr.james.stats.utils.SparseVector}</li>
  *     <li>{@link gr.james.stats.utils.WelfordVariance}</li>
+ *     <li>{@link gr.james.stats.utils.WelfordCovariance}</li>
  * </ul>
  */
 package gr.james.stats.utils;
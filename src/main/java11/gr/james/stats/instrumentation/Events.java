@@ -0,0 +1,54 @@
+package gr.james.stats.instrumentation;
+
+import jdk.jfr.*;
+
+/**
+ * Emits JDK Flight Recorder events for instrumented computations.
+ * <p>
+ * This is the Java 11 version of this class.
+ */
+final class Events {
+    private Events() {
+    }
+
+    static Object begin() {
+        final ComputationEvent event = new ComputationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commit(Object event, Class<?> source, String path, long elements, long allocated) {
+        final ComputationEvent e = (ComputationEvent) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.source = source;
+            e.path = path;
+            e.elements = elements;
+            e.allocated = allocated;
+            e.commit();
+        }
+    }
+
+    @Name("gr.james.stats.Computation")
+    @Label("Computation")
+    @Category("Stats")
+    @Description("A measure construction or binning call")
+    @StackTrace(false)
+    static class ComputationEvent extends Event {
+        @Label("Class")
+        Class<?> source;
+
+        @Label("Path")
+        @Description("The algorithm or input path chosen")
+        String path;
+
+        @Label("Elements")
+        @Description("The number of input elements processed")
+        long elements;
+
+        @Label("Allocated")
+        @Description("The bytes allocated in the calling thread or -1 if not supported")
+        @DataAmount
+        long allocated;
+    }
+}
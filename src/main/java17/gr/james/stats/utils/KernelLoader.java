@@ -0,0 +1,27 @@
+package gr.james.stats.utils;
+
+/**
+ * Selects the implementation of the {@link Kernels}.
+ * <p>
+ * This is the Java 17 version of this class which selects the {@code VectorKernels} if the
+ * {@code jdk.incubator.vector} module is present, for example with {@code --add-modules jdk.incubator.vector}, and the
+ * system property {@code gr.james.stats.kernels} is not {@code scalar}. Otherwise, it selects the
+ * {@link ScalarKernels}.
+ */
+final class KernelLoader {
+    private KernelLoader() {
+    }
+
+    static ScalarKernels load() {
+        if (!"scalar".equals(System.getProperty("gr.james.stats.kernels"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (ScalarKernels) Class.forName("gr.james.stats.utils.VectorKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall back to the scalar kernels
+            }
+        }
+        return new ScalarKernels();
+    }
+}
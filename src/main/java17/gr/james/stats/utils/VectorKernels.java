@@ -0,0 +1,154 @@
+package gr.james.stats.utils;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The implementation of the {@link Kernels} using the Vector API of the {@code jdk.incubator.vector} module.
+ * <p>
+ * The loops accumulate one partial result per lane with fused multiply-add and reduce the lanes at the end, followed
+ * by a scalar loop over the remaining elements. The {@code float} kernels widen the values to {@code double} lanes.
+ */
+final class VectorKernels extends ScalarKernels {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    VectorKernels() {
+        // fail here rather than on first use if the vector classes cannot be linked
+        DoubleVector.zero(DOUBLES);
+        FloatVector.zero(FLOATS);
+    }
+
+    @Override
+    double sum(double[] a) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        final int bound = DOUBLES.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            acc = acc.add(DoubleVector.fromArray(DOUBLES, a, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    double sum(float[] a) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        final int bound = FLOATS.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += FLOATS.length()) {
+            acc = acc.add(widen(a, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    double sumOfSquares(double[] a) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        final int bound = DOUBLES.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(DOUBLES, a, i);
+            acc = x.fma(x, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    double sumOfSquares(float[] a) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        final int bound = FLOATS.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += FLOATS.length()) {
+            final DoubleVector x = widen(a, i);
+            acc = x.fma(x, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            final double x = a[i];
+            sum += x * x;
+        }
+        return sum;
+    }
+
+    @Override
+    double dot(double[] a, double[] b) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        final int bound = DOUBLES.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            acc = DoubleVector.fromArray(DOUBLES, a, i).fma(DoubleVector.fromArray(DOUBLES, b, i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    double dot(float[] a, float[] b) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        final int bound = FLOATS.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += FLOATS.length()) {
+            acc = widen(a, i).fma(widen(b, i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += (double) a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    double coMoment(double[] a, double[] b, double meanA, double meanB) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        final int bound = DOUBLES.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(DOUBLES, a, i).sub(meanA);
+            final DoubleVector y = DoubleVector.fromArray(DOUBLES, b, i).sub(meanB);
+            acc = x.fma(y, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += (a[i] - meanA) * (b[i] - meanB);
+        }
+        return sum;
+    }
+
+    @Override
+    double coMoment(float[] a, float[] b, double meanA, double meanB) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        final int bound = FLOATS.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += FLOATS.length()) {
+            acc = widen(a, i).sub(meanA).fma(widen(b, i).sub(meanB), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += (a[i] - meanA) * (b[i] - meanB);
+        }
+        return sum;
+    }
+
+    private static DoubleVector widen(float[] a, int i) {
+        return (DoubleVector) FloatVector.fromArray(FLOATS, a, i).convertShape(VectorOperators.F2D, DOUBLES, 0);
+    }
+}
@@ -0,0 +1,89 @@
+package gr.james.stats.instrumentation;
+
+import gr.james.stats.binning.LinearDataBinning;
+import gr.james.stats.measures.Kendall;
+import gr.james.stats.utils.Frequency;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class InstrumentationTests {
+    @After
+    public void cleanup() {
+        Instrumentation.setEnabled(false);
+        Instrumentation.reset();
+    }
+
+    /**
+     * Nothing is recorded while disabled.
+     */
+    @Test
+    public void disabled() {
+        Instrumentation.setEnabled(false);
+        Instrumentation.reset();
+        new Kendall(Arrays.asList(1, 2, 3), Arrays.asList(3, 1, 2));
+        Assert.assertNull(Probe.begin(Kendall.class, "pairwise"));
+        Assert.assertEquals(0, Instrumentation.counters(Kendall.class).calls());
+        Assert.assertTrue(Instrumentation.counters().isEmpty());
+    }
+
+    /**
+     * Calls and elements are counted per class while enabled.
+     */
+    @Test
+    public void enabled() {
+        Instrumentation.reset();
+        Instrumentation.setEnabled(true);
+        new Kendall(Arrays.asList(1, 2, 3), Arrays.asList(3, 1, 2));
+        new Kendall(Arrays.asList(1, 2, 3, 4), Arrays.asList(3, 1, 2, 4));
+        final Frequency f = new Frequency();
+        for (int i = 1; i <= 10; i++) {
+            f.add(i);
+        }
+        f.bin(new LinearDataBinning(3));
+        final Counters kendall = Instrumentation.counters(Kendall.class);
+        Assert.assertEquals(2, kendall.calls());
+        Assert.assertEquals(7, kendall.elements());
+        Assert.assertTrue(kendall.nanos() > 0);
+        Assert.assertEquals(1, Instrumentation.counters(LinearDataBinning.class).calls());
+        Assert.assertEquals(10, Instrumentation.counters().get(Frequency.class).elements());
+    }
+
+    /**
+     * A JFR event with the class, path, elements and allocated bytes is emitted for every computation while enabled.
+     */
+    @Test
+    public void flightRecorder() throws IOException {
+        Instrumentation.setEnabled(true);
+        final Path file = Files.createTempFile("instrumentation", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("gr.james.stats.Computation");
+                recording.start();
+                new Kendall(Arrays.asList(1, 2, 3, 4, 5), Arrays.asList(3, 1, 2, 5, 4));
+                recording.stop();
+                recording.dump(file);
+            }
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            final RecordedEvent event = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("gr.james.stats.Computation"))
+                    .filter(e -> e.getClass("source").getName().equals(Kendall.class.getName()))
+                    .findFirst()
+                    .orElseThrow(AssertionError::new);
+            Assert.assertEquals("pairwise", event.getString("path"));
+            Assert.assertEquals(5, event.getLong("elements"));
+            Assert.assertTrue(event.getLong("allocated") >= 0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package gr.james.stats.io;
+
+import gr.james.stats.measures.Pearson;
+import gr.james.stats.utils.Frequency;
+import gr.james.stats.utils.WelfordCovariance;
+import gr.james.stats.utils.WelfordVariance;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CsvColumnReaderTests {
+    /**
+     * Quoted fields, escaped quotes, embedded delimiters and line breaks, CRLF and blank lines.
+     */
+    @Test
+    public void quoting() throws IOException {
+        final String csv = "id,\"name, full\",value\r\n" +
+                "1,\"a \"\"quoted\"\"\nname\",2.5\r\n" +
+                "\r\n" +
+                "2,b,\"-1e3\"\n" +
+                "\n" +
+                "3,\"c,d\",7";
+        final List<Double> values = new ArrayList<>();
+        final long count = reader(csv, ',', true, 7).forEach(2, values::add);
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(3, values.size());
+        Assert.assertEquals(2.5, values.get(0), 0);
+        Assert.assertEquals(-1000, values.get(1), 0);
+        Assert.assertEquals(7, values.get(2), 0);
+    }
+
+    /**
+     * Records with missing or empty selected fields are skipped.
+     */
+    @Test
+    public void missing() throws IOException {
+        final String csv = "1;2\n3\n;4\n5;\"\"\n6;7\n";
+        final List<double[]> rows = new ArrayList<>();
+        final long count = reader(csv, ';', false, 3).forEach(new int[]{1, 0}, row -> rows.add(row.clone()));
+        Assert.assertEquals(2, count);
+        Assert.assertArrayEquals(new double[]{2, 1}, rows.get(0), 0);
+        Assert.assertArrayEquals(new double[]{7, 6}, rows.get(1), 0);
+    }
+
+    /**
+     * Streaming a file into accumulators agrees with feeding them directly.
+     */
+    @Test
+    public void accumulators() throws IOException {
+        final Random r = new Random(1182L);
+        final StringBuilder sb = new StringBuilder("x,label,y\n");
+        final List<Double> lx = new ArrayList<>();
+        final List<Double> ly = new ArrayList<>();
+        final WelfordVariance expected = new WelfordVariance();
+        final Frequency expectedFrequency = new Frequency();
+        for (int i = 0; i < 5000; i++) {
+            final double x = r.nextInt(20);
+            final double y = x * 0.3 + r.nextGaussian();
+            lx.add(x);
+            ly.add(y);
+            expected.add(y);
+            expectedFrequency.add(x);
+            sb.append(x).append(",\"row ").append(i).append("\",").append(y).append('\n');
+        }
+        final Path p = Files.createTempFile("csv", ".csv");
+        try {
+            Files.write(p, sb.toString().getBytes(StandardCharsets.US_ASCII));
+            final WelfordVariance wv = new WelfordVariance();
+            try (CsvColumnReader reader = new CsvColumnReader(p, ',', true)) {
+                Assert.assertEquals(5000, reader.forEach(2, wv::add));
+            }
+            Assert.assertEquals(expected.mean(), wv.mean(), 0);
+            Assert.assertEquals(expected.sampleVariance(), wv.sampleVariance(), 0);
+            final Frequency f = new Frequency();
+            try (CsvColumnReader reader = new CsvColumnReader(p, ',', true)) {
+                reader.forEach(0, f::add);
+            }
+            Assert.assertEquals(expectedFrequency.map(), f.map());
+            final WelfordCovariance wc = new WelfordCovariance();
+            try (CsvColumnReader reader = new CsvColumnReader(p, ',', true)) {
+                reader.forEach(0, 2, wc::add);
+            }
+            Assert.assertEquals(new Pearson(lx, ly).value(), wc.pearson(), 1e-12);
+        } finally {
+            Files.delete(p);
+        }
+    }
+
+    /**
+     * Invalid numbers report their position.
+     */
+    @Test
+    public void invalidNumber() throws IOException {
+        try {
+            reader("1\n2\nabc\n", ',', false, 4).forEach(0, x -> {
+            });
+            Assert.fail();
+        } catch (NumberFormatException e) {
+            Assert.assertTrue(e.getMessage().contains("line 3, column 0"));
+        }
+    }
+
+    /**
+     * A reader can only be read once.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void readOnce() throws IOException {
+        final CsvColumnReader reader = reader("1\n", ',', false, 16);
+        reader.forEach(0, x -> {
+        });
+        reader.forEach(0, x -> {
+        });
+    }
+
+    /**
+     * Duplicate columns are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateColumns() throws IOException {
+        reader("1,2\n", ',', false, 16).forEach(1, 1, (x, y) -> {
+        });
+    }
+
+    private static CsvColumnReader reader(String csv, char delimiter, boolean header, int buffer) {
+        return new CsvColumnReader(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.US_ASCII))),
+                delimiter, header, buffer);
+    }
+}
@@ -0,0 +1,75 @@
+package gr.james.stats.io;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class DoubleParserTests {
+    /**
+     * Parsed values must be bit-identical to {@link Double#parseDouble(String)} on random inputs.
+     */
+    @Test
+    public void random() {
+        final Random r = new Random(4419L);
+        for (int i = 0; i < 200000; i++) {
+            final String s;
+            switch (i % 4) {
+                case 0:
+                    s = Double.toString(r.nextGaussian() * Math.pow(10, r.nextInt(40) - 20));
+                    break;
+                case 1:
+                    s = String.format("%.6f", r.nextDouble() * 1000 - 500);
+                    break;
+                case 2:
+                    s = Long.toString(r.nextLong() >> r.nextInt(64));
+                    break;
+                default:
+                    s = String.format("%.12e", r.nextDouble() * Math.pow(10, r.nextInt(600) - 300));
+                    break;
+            }
+            assertParse(s);
+        }
+    }
+
+    /**
+     * Edge cases must be parsed identically to {@link Double#parseDouble(String)}.
+     */
+    @Test
+    public void edges() {
+        final String[] inputs = {
+                "0", "-0", "+0", "0.0", ".5", "5.", "-.5", "1e22", "1e23", "1e-22", "1e-23", "9007199254740992",
+                "9007199254740993", "1234567890123456789", "12345678901234567890", "0.1", "0.3", "1E5", "1e+5",
+                "  42  ", "4.9e-324", "1.7976931348623157e308", "1e400", "NaN", "-Infinity", "0x1p3", "1.5d",
+                "0.000000000000000000000000001", "100000000000000000000000"
+        };
+        for (String s : inputs) {
+            assertParse(s);
+        }
+    }
+
+    /**
+     * Invalid inputs must throw {@link NumberFormatException}.
+     */
+    @Test
+    public void invalid() {
+        final String[] inputs = {"", "-", ".", "e5", "1e", "1e+", "abc", "1.2.3", "1,5"};
+        for (String s : inputs) {
+            try {
+                parse(s);
+                Assert.fail(s);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+
+    private static void assertParse(String s) {
+        Assert.assertEquals(s, Double.doubleToRawLongBits(Double.parseDouble(s)), Double.doubleToRawLongBits(parse(s)));
+    }
+
+    private static double parse(String s) {
+        final byte[] b = ("#" + s + "#").getBytes(StandardCharsets.US_ASCII);
+        return DoubleParser.parse(b, 1, b.length - 1);
+    }
+}
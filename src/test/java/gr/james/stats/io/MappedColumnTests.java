@@ -0,0 +1,105 @@
+package gr.james.stats.io;
+
+import gr.james.stats.measures.Cosine;
+import gr.james.stats.measures.Pearson;
+import gr.james.stats.utils.Frequency;
+import gr.james.stats.utils.WelfordCovariance;
+import gr.james.stats.utils.WelfordVariance;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MappedColumnTests {
+    /**
+     * Accumulators fed from a column with many small windows must agree with feeding them directly.
+     */
+    @Test
+    public void float64() throws IOException {
+        final Random r = new Random(6712L);
+        final double[] x = new double[10007];
+        final double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = r.nextGaussian() * 10 + 3;
+            y[i] = x[i] * 0.5 + r.nextGaussian();
+        }
+        final Path px = write(x, null);
+        final Path py = write(y, null);
+        try (MappedColumn cx = new MappedColumn(px, MappedColumn.Type.FLOAT64, 8 * 100);
+             MappedColumn cy = new MappedColumn(py, MappedColumn.Type.FLOAT64, 8 * 64)) {
+            Assert.assertEquals(x.length, cx.size());
+            final WelfordVariance expected = new WelfordVariance();
+            final List<Double> lx = new ArrayList<>();
+            final List<Double> ly = new ArrayList<>();
+            for (int i = 0; i < x.length; i++) {
+                expected.add(x[i]);
+                lx.add(x[i]);
+                ly.add(y[i]);
+            }
+            final WelfordVariance actual = cx.variance();
+            Assert.assertEquals(expected.observations(), actual.observations());
+            Assert.assertEquals(expected.mean(), actual.mean(), 1e-8);
+            Assert.assertEquals(expected.sampleVariance(), actual.sampleVariance(), 1e-8);
+            final WelfordCovariance wc = cx.covariance(cy);
+            Assert.assertEquals(new Pearson(lx, ly).value(), wc.pearson(), 1e-8);
+            Assert.assertEquals(new Cosine(lx, ly).value(), wc.cosine(), 1e-8);
+        } finally {
+            Files.delete(px);
+            Files.delete(py);
+        }
+    }
+
+    /**
+     * Integer columns are read as doubles.
+     */
+    @Test
+    public void int64() throws IOException {
+        final long[] x = {5, -3, 5, 8, 1L << 40, 5};
+        final Path p = write(null, x);
+        try (MappedColumn c = new MappedColumn(p, MappedColumn.Type.INT64, 16)) {
+            final Frequency f = new Frequency();
+            c.addTo(f);
+            Assert.assertEquals(6, f.sum());
+            Assert.assertEquals(5.0, f.mode(), 0);
+            Assert.assertEquals(Long.valueOf(1), f.map().get((double) (1L << 40)));
+        } finally {
+            Files.delete(p);
+        }
+    }
+
+    /**
+     * Files with a size that is not a multiple of 8 are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void truncated() throws IOException {
+        final Path p = Files.createTempFile("column", ".bin");
+        try {
+            Files.write(p, new byte[12]);
+            new MappedColumn(p, MappedColumn.Type.FLOAT64).close();
+        } finally {
+            Files.delete(p);
+        }
+    }
+
+    private static Path write(double[] doubles, long[] longs) throws IOException {
+        final int n = doubles != null ? doubles.length : longs.length;
+        final ByteBuffer buffer = ByteBuffer.allocate(n * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < n; i++) {
+            if (doubles != null) {
+                buffer.putDouble(doubles[i]);
+            } else {
+                buffer.putLong(longs[i]);
+            }
+        }
+        final Path p = Files.createTempFile("column", ".bin");
+        Files.write(p, buffer.array());
+        return p;
+    }
+}
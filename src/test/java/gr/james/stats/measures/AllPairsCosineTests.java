@@ -0,0 +1,219 @@
+package gr.james.stats.measures;
+
+import gr.james.stats.utils.SparseVector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AllPairsCosineTests {
+    /**
+     * The pairs must be exactly the pairs above the threshold according to {@link Cosine}.
+     */
+    @Test
+    public void equality() {
+        final List<SparseVector> vectors = vectors(new Random(8131L), 400, 60);
+        for (double threshold : new double[]{0.2, 0.5, 0.8}) {
+            final Map<Long, Double> expected = new HashMap<>();
+            for (int a = 0; a < vectors.size(); a++) {
+                for (int b = a + 1; b < vectors.size(); b++) {
+                    final double similarity = new Cosine(vectors.get(a), vectors.get(b)).value();
+                    if (similarity >= threshold) {
+                        expected.put((long) a * vectors.size() + b, similarity);
+                    }
+                }
+            }
+            Assert.assertFalse(expected.isEmpty());
+            final AllPairsCosine allPairs = new AllPairsCosine(vectors, threshold);
+            Assert.assertEquals(vectors.size(), allPairs.size());
+            final Map<Long, Double> actual = new ConcurrentHashMap<>();
+            final long count = allPairs.forEach((a, b, similarity) -> {
+                Assert.assertTrue(a < b);
+                Assert.assertNull(actual.put((long) a * vectors.size() + b, similarity));
+            });
+            Assert.assertEquals(expected.size(), count);
+            Assert.assertEquals(expected.keySet(), actual.keySet());
+            for (Map.Entry<Long, Double> e : expected.entrySet()) {
+                Assert.assertEquals(e.getValue(), actual.get(e.getKey()), 1e-12);
+            }
+        }
+    }
+
+    /**
+     * Sequential and parallel probing must report the same pairs.
+     */
+    @Test
+    public void parallel() {
+        final List<SparseVector> vectors = vectors(new Random(1090L), 1000, 200);
+        final AllPairsCosine allPairs = new AllPairsCosine(vectors, 0.4);
+        final Set<Long> sequential = new HashSet<>();
+        final Set<Long> parallel = ConcurrentHashMap.newKeySet();
+        final long count = allPairs.forEach((a, b, s) -> sequential.add((long) a * vectors.size() + b), false);
+        Assert.assertEquals(count, allPairs.forEach((a, b, s) -> parallel.add((long) a * vectors.size() + b)));
+        Assert.assertEquals(sequential.size(), count);
+        Assert.assertEquals(sequential, parallel);
+        Assert.assertTrue(allPairs.indexSize() < vectors.stream().mapToInt(SparseVector::size).sum());
+    }
+
+    /**
+     * Zero vectors never appear in a pair and identical vectors are always reported.
+     */
+    @Test
+    public void zeroAndDuplicates() {
+        final SparseVector v = new SparseVector(5, new int[]{0, 3}, new double[]{1, 2});
+        final SparseVector zero = new SparseVector(5, new int[0], new double[0]);
+        final List<SparseVector> vectors = Arrays.asList(v, zero, new SparseVector(5, new int[]{1}, new double[]{4}), v);
+        final List<int[]> pairs = new ArrayList<>();
+        new AllPairsCosine(vectors, 0.99).forEach((a, b, s) -> pairs.add(new int[]{a, b}), false);
+        Assert.assertEquals(1, pairs.size());
+        Assert.assertArrayEquals(new int[]{0, 3}, pairs.get(0));
+    }
+
+    /**
+     * With a threshold of 1, every pair of identical vectors must be reported.
+     */
+    @Test
+    public void thresholdOne() {
+        final Random r = new Random(3301L);
+        final List<SparseVector> vectors = new ArrayList<>();
+        for (SparseVector v : vectors(r, 20, 50)) {
+            vectors.add(v);
+            vectors.add(v);
+        }
+        Collections.shuffle(vectors, r);
+        final Set<Long> expected = new HashSet<>();
+        for (int a = 0; a < vectors.size(); a++) {
+            for (int b = a + 1; b < vectors.size(); b++) {
+                if (new Cosine(vectors.get(a), vectors.get(b)).value() >= 1) {
+                    expected.add((long) a * vectors.size() + b);
+                }
+            }
+        }
+        Assert.assertFalse(expected.isEmpty());
+        final Set<Long> actual = ConcurrentHashMap.newKeySet();
+        new AllPairsCosine(vectors, 1).forEach((a, b, s) -> actual.add((long) a * vectors.size() + b));
+        Assert.assertEquals(expected, actual);
+    }
+
+    /**
+     * A pair must be reported when the threshold is exactly its {@link Cosine} similarity.
+     */
+    @Test
+    public void thresholdOnPair() {
+        final Random r = new Random(6421L);
+        final List<SparseVector> vectors = vectors(r, 60, 40);
+        int tested = 0;
+        for (int a = 0; a < vectors.size(); a++) {
+            for (int b = a + 1; b < vectors.size(); b++) {
+                final double similarity = new Cosine(vectors.get(a), vectors.get(b)).value();
+                if (similarity <= 0 || r.nextInt(10) != 0) {
+                    continue;
+                }
+                final int x = a;
+                final int y = b;
+                final boolean[] found = new boolean[1];
+                new AllPairsCosine(vectors, Math.min(similarity, 1)).forEach((i, j, s) -> {
+                    if (i == x && j == y) {
+                        found[0] = true;
+                    }
+                }, false);
+                Assert.assertTrue(found[0]);
+                tested++;
+            }
+        }
+        Assert.assertTrue(tested > 20);
+    }
+
+    /**
+     * With vectors of many equal non-zero elements, whose rounding errors accumulate in the same direction, a pair must
+     * be reported at a threshold equal to its {@link Cosine} similarity and must not be reported at the next larger
+     * threshold.
+     */
+    @Test
+    public void thresholdOnLongVectors() {
+        final int dimension = 100000;
+        for (double value : new double[]{1.1, 0.1, 3.0}) {
+            final SparseVector.Builder one = new SparseVector.Builder(dimension);
+            final SparseVector.Builder other = new SparseVector.Builder(dimension);
+            final SparseVector.Builder half = new SparseVector.Builder(dimension);
+            for (int d = 0; d < dimension; d++) {
+                one.add(d, value);
+                other.add(d, value);
+                half.add(d, d % 2 == 0 ? value : 2 * value);
+            }
+            final List<SparseVector> vectors = Arrays.asList(one.build(), other.build(), half.build());
+            for (int a = 0; a < vectors.size(); a++) {
+                for (int b = a + 1; b < vectors.size(); b++) {
+                    final double similarity = new Cosine(vectors.get(a), vectors.get(b)).value();
+                    final long pair = (long) a * vectors.size() + b;
+                    Assert.assertTrue(pairs(vectors, Math.min(similarity, 1)).contains(pair));
+                    if (similarity < 1) {
+                        Assert.assertFalse(pairs(vectors, Math.nextUp(similarity)).contains(pair));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Empty input must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void empty() {
+        new AllPairsCosine(Collections.emptyList(), 0.5);
+    }
+
+    /**
+     * Vectors of different dimensions must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void differentDimensions() {
+        new AllPairsCosine(Arrays.asList(
+                new SparseVector(3, new int[]{0}, new double[]{1}),
+                new SparseVector(4, new int[]{0}, new double[]{1})
+        ), 0.5);
+    }
+
+    /**
+     * Negative values must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void negative() {
+        new AllPairsCosine(Collections.singletonList(new SparseVector(3, new int[]{0}, new double[]{-1})), 0.5);
+    }
+
+    /**
+     * A threshold outside {@code (0, 1]} must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void threshold() {
+        new AllPairsCosine(Collections.singletonList(new SparseVector(3, new int[]{0}, new double[]{1})), 0);
+    }
+
+    /**
+     * Returns the pairs found at the given threshold, encoded as {@code a * size + b}.
+     */
+    private static Set<Long> pairs(List<SparseVector> vectors, double threshold) {
+        final Set<Long> pairs = ConcurrentHashMap.newKeySet();
+        new AllPairsCosine(vectors, threshold).forEach((a, b, s) -> pairs.add((long) a * vectors.size() + b));
+        return pairs;
+    }
+
+    /**
+     * Random non-negative vectors with a skewed distribution of dimensions, like term frequencies.
+     */
+    private static List<SparseVector> vectors(Random r, int count, int dimension) {
+        final List<SparseVector> vectors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final SparseVector.Builder builder = new SparseVector.Builder(dimension);
+            final int elements = 1 + r.nextInt(8);
+            for (int k = 0; k < elements; k++) {
+                final int index = (int) (dimension * Math.pow(r.nextDouble(), 3));
+                builder.add(index, 1 + 2 * r.nextDouble());
+            }
+            vectors.add(builder.build());
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,145 @@
+package gr.james.stats.measures;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ApproximateKendallTests {
+    /**
+     * The estimate must be within the requested precision of {@link Kendall}, including inputs with ties.
+     */
+    @Test
+    public void accuracy() {
+        final Random r = new Random(3301L);
+        final double[] a = new double[3000];
+        final double[] b = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = r.nextInt(100);
+            b[i] = Math.round(a[i] + r.nextGaussian() * 40);
+        }
+        final double exact = new Kendall(boxed(a), boxed(b)).value();
+        final ApproximateKendall approximate = new ApproximateKendall(a, b, 0.01, 0.99, 10_000_000L, r);
+        Assert.assertTrue(approximate.lower() <= exact && exact <= approximate.upper());
+        Assert.assertTrue(approximate.upper() - approximate.lower() <= 0.02);
+        Assert.assertEquals(exact, approximate.value(), 0.01);
+        Assert.assertTrue(approximate.samples() < 10_000_000L);
+    }
+
+    /**
+     * The confidence interval must contain the exact value in roughly the requested fraction of the runs.
+     */
+    @Test
+    public void coverage() {
+        final Random r = new Random(8170L);
+        final double[] a = new double[500];
+        final double[] b = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = r.nextGaussian();
+            b[i] = a[i] + r.nextGaussian();
+        }
+        final double exact = new Kendall(boxed(a), boxed(b)).value();
+        int covered = 0;
+        for (int run = 0; run < 100; run++) {
+            final ApproximateKendall approximate = new ApproximateKendall(a, b, 0.05, 0.9, 10_000_000L, r);
+            if (approximate.lower() <= exact && exact <= approximate.upper()) {
+                covered++;
+            }
+        }
+        Assert.assertTrue(covered >= 80);
+    }
+
+    /**
+     * Sampling must stop at the maximum number of samples if the precision is not reached.
+     */
+    @Test
+    public void maxSamples() {
+        final Random r = new Random(12L);
+        final double[] a = r.doubles(1000).toArray();
+        final double[] b = r.doubles(1000).toArray();
+        final ApproximateKendall approximate = new ApproximateKendall(a, b, 1e-6, 0.95, 5000, r);
+        Assert.assertEquals(5000, approximate.samples());
+        Assert.assertTrue(approximate.lower() <= approximate.value() && approximate.value() <= approximate.upper());
+    }
+
+    /**
+     * Near 1, where an early batch may contain no discordant sample, the interval must not collapse to a point
+     * before the minimum number of samples.
+     */
+    @Test
+    public void nearPerfect() {
+        final Random r = new Random(6007L);
+        final double[] a = new double[2000];
+        final double[] b = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i;
+            b[i] = (i >= 1000 && i < 1064 ? 2063 - i : i);
+        }
+        final double exact = new Kendall(boxed(a), boxed(b)).value();
+        int covered = 0;
+        for (int run = 0; run < 20; run++) {
+            final ApproximateKendall approximate = new ApproximateKendall(a, b, 0.05, 0.95, 10_000_000L, r);
+            Assert.assertTrue(approximate.samples() >= SampledCorrelation.MIN_SAMPLES);
+            Assert.assertTrue(approximate.lower() < approximate.upper());
+            if (approximate.lower() <= exact && exact <= approximate.upper()) {
+                covered++;
+            }
+        }
+        Assert.assertTrue(covered >= 16);
+    }
+
+    /**
+     * With a discordance rate below {@code 1 / MIN_SAMPLES}, most runs sample no discordant term at all and the
+     * interval must still have a positive width and contain the exact value.
+     */
+    @Test
+    public void rareDiscordance() {
+        final Random r = new Random(7103L);
+        final double[] a = new double[2000];
+        final double[] b = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i;
+            b[i] = (i >= 1000 && i < 1010 ? 2009 - i : i);
+        }
+        final double exact = new Kendall(boxed(a), boxed(b)).value();
+        for (int run = 0; run < 20; run++) {
+            final ApproximateKendall approximate = new ApproximateKendall(a, b, 0.05, 0.95, 10_000_000L, r);
+            Assert.assertTrue(approximate.lower() < approximate.upper());
+            Assert.assertTrue(approximate.lower() <= exact && exact <= approximate.upper());
+        }
+    }
+
+    /**
+     * Empty input must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void empty() {
+        new ApproximateKendall(new double[0], new double[0], 0.01);
+    }
+
+    /**
+     * Inputs of different size must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void differentSize() {
+        new ApproximateKendall(new double[]{1, 2}, new double[]{1, 2, 3}, 0.01);
+    }
+
+    /**
+     * A confidence outside {@code (0, 1)} must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void confidence() {
+        new ApproximateKendall(new double[]{1, 2}, new double[]{1, 2}, 0.01, 1, 1000, new Random());
+    }
+
+    private static List<Double> boxed(double[] x) {
+        final List<Double> list = new ArrayList<>(x.length);
+        for (double v : x) {
+            list.add(v);
+        }
+        return list;
+    }
+}
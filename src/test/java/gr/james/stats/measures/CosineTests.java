@@ -72,4 +72,24 @@ public class CosineTests {
         Assert.assertEquals((2.0 + 6.0 + 24.0) / Math.sqrt((1.0 + 4.0 + 16.0) * (4.0 + 9.0 + 36.0)),
                 new Cosine(a, b).value(), 1e-8);
     }
+
+    /**
+     * The definition of {@link Cosine#Cosine(double[], double[])} must be equivalent to
+     * {@link Cosine#Cosine(List, List)}.
+     */
+    @Test
+    public void primitiveEquality() {
+        final double[] a = {1.0, 2.0, 4.0, 0.5, 3.0};
+        final double[] b = {2.0, 3.0, 6.0, 1.0, 0.0};
+        Assert.assertEquals(new Cosine(Arrays.asList(1.0, 2.0, 4.0, 0.5, 3.0), Arrays.asList(2.0, 3.0, 6.0, 1.0, 0.0))
+                .value(), new Cosine(a, b).value(), 1e-12);
+    }
+
+    /**
+     * Empty primitive vectors throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void primitiveEmpty() {
+        new Cosine(new double[0], new double[0]);
+    }
 }
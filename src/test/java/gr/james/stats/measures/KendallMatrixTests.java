@@ -0,0 +1,63 @@
+package gr.james.stats.measures;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class KendallMatrixTests {
+    /**
+     * Every pair must agree with {@link Kendall}, including inputs with ties.
+     */
+    @Test
+    public void equality() {
+        final Random r = new Random(4172L);
+        final List<double[]> inputs = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            final double[] x = new double[200];
+            for (int k = 0; k < x.length; k++) {
+                x[k] = r.nextInt(i % 3 == 0 ? 10 : 1000);
+            }
+            inputs.add(x);
+        }
+        final KendallMatrix matrix = new KendallMatrix(inputs);
+        Assert.assertEquals(inputs.size(), matrix.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            for (int j = 0; j < inputs.size(); j++) {
+                final double expected = new Kendall(boxed(inputs.get(i)), boxed(inputs.get(j))).value();
+                Assert.assertEquals(expected, matrix.value(i, j), 1e-8);
+            }
+        }
+    }
+
+    /**
+     * Test with ties.
+     */
+    @Test
+    public void tauB() {
+        final double[] a = {1, 2, 2, 3, 2};
+        final double[] b = {4, 1, 3, 2, 1};
+        final KendallMatrix matrix = new KendallMatrix(Arrays.asList(a, b));
+        Assert.assertEquals(-3.0 / Math.sqrt(7 * 9), matrix.value(0, 1), 1e-8);
+        Assert.assertEquals(1.0, matrix.value(0, 0), 1e-8);
+    }
+
+    /**
+     * Inputs of different size are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void differentSize() {
+        new KendallMatrix(Arrays.asList(new double[]{1, 2}, new double[]{1, 2, 3}));
+    }
+
+    private static List<Double> boxed(double[] x) {
+        final List<Double> list = new ArrayList<>();
+        for (double v : x) {
+            list.add(v);
+        }
+        return list;
+    }
+}
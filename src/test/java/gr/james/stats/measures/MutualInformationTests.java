@@ -1,10 +1,12 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.utils.HyperLogLog;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 
 public class MutualInformationTests {
@@ -29,4 +31,92 @@ public class MutualInformationTests {
         final Set<Integer> world = new HashSet<>(Arrays.asList(1, 2, 3, 4, 5, 6));
         Assert.assertEquals(new MutualInformation(b, a, world).normalizedMutualInformation(), new MutualInformation(a, b, world).normalizedMutualInformation(), 1e-8);
     }
+
+    /**
+     * Known values for clustering labels.
+     */
+    @Test
+    public void labels() {
+        final int[] a = {0, 0, 0, 1, 1, 1, 2, 2, 2, 2};
+        final int[] b = {0, 0, 1, 1, 1, 2, 2, 2, 0, 1};
+        final MutualInformation mi = new MutualInformation(a, b);
+        Assert.assertEquals(0.419973094021975, mi.mutualInformation(), 1e-8);
+        Assert.assertEquals(0.26733692039994567, mi.normalizedMutualInformation(), 1e-8);
+        Assert.assertEquals(-0.0027124345987859554, mi.adjustedMutualInformation(), 1e-8);
+
+        final int[] c = {5, 5, -3, -3, 7, 7, 7, 1};
+        final int[] d = {1, 1, 2, 2, 3, 3, 4, 4};
+        final MutualInformation other = new MutualInformation(c, d);
+        Assert.assertEquals(1.6556390622295665, other.mutualInformation(), 1e-8);
+        Assert.assertEquals(0.8478197989367872, other.normalizedMutualInformation(), 1e-8);
+        Assert.assertEquals(0.6578662492646182, other.adjustedMutualInformation(), 1e-8);
+    }
+
+    /**
+     * Binary labels must agree with the set constructor.
+     */
+    @Test
+    public void labelsSetEquality() {
+        final Set<Integer> a = new HashSet<>(Arrays.asList(1, 2, 3, 7));
+        final Set<Integer> b = new HashSet<>(Arrays.asList(2, 3, 4, 8, 9));
+        final Set<Integer> world = new HashSet<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11));
+        final int[] labelsA = new int[world.size()];
+        final int[] labelsB = new int[world.size()];
+        int i = 0;
+        for (int w : world) {
+            labelsA[i] = a.contains(w) ? 1 : 0;
+            labelsB[i] = b.contains(w) ? 1 : 0;
+            i++;
+        }
+        final MutualInformation expected = new MutualInformation(a, b, world);
+        final MutualInformation actual = new MutualInformation(labelsA, labelsB);
+        Assert.assertEquals(expected.mutualInformation(), actual.mutualInformation(), 1e-8);
+        Assert.assertEquals(expected.normalizedMutualInformation(), actual.normalizedMutualInformation(), 1e-8);
+        Assert.assertEquals(expected.adjustedMutualInformation(), actual.adjustedMutualInformation(), 1e-8);
+    }
+
+    /**
+     * Identical labelings have adjusted mutual information 1 and independent ones close to 0.
+     */
+    @Test
+    public void adjusted() {
+        final Random r = new Random(3308L);
+        final int[] a = new int[3_000_000];
+        final int[] b = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = r.nextInt(50);
+            b[i] = r.nextInt(80) - 40;
+        }
+        Assert.assertEquals(1.0, new MutualInformation(a, a.clone(), true).adjustedMutualInformation(), 1e-6);
+        final MutualInformation parallel = new MutualInformation(a, b, true);
+        final MutualInformation sequential = new MutualInformation(a, b, false);
+        Assert.assertEquals(sequential.mutualInformation(), parallel.mutualInformation(), 1e-8);
+        Assert.assertEquals(0.0, parallel.adjustedMutualInformation(), 1e-3);
+    }
+
+    /**
+     * The estimate from {@link HyperLogLog} sketches must be close to the exact value of large sets.
+     */
+    @Test
+    public void sketches() {
+        final Set<Integer> a = new HashSet<>();
+        final Set<Integer> b = new HashSet<>();
+        final Set<Integer> world = new HashSet<>();
+        final HyperLogLog sa = new HyperLogLog();
+        final HyperLogLog sb = new HyperLogLog();
+        final HyperLogLog sw = new HyperLogLog();
+        for (int i = 0; i < 200000; i++) {
+            world.add(i);
+            sw.add(i);
+            if (i < 60000) {
+                a.add(i);
+                sa.add(i);
+            }
+            if (i >= 30000 && i < 100000) {
+                b.add(i);
+                sb.add(i);
+            }
+        }
+        Assert.assertEquals(new MutualInformation(a, b, world).normalizedMutualInformation(), new MutualInformation(sa, sb, sw).normalizedMutualInformation(), 0.05);
+    }
 }
@@ -1,5 +1,6 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.utils.HyperLogLog;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -48,4 +49,25 @@ public class OverlapTests {
         Assert.assertEquals(new Overlap(b, a).value(), new Overlap(a, b).value(), 1e-8);
         Assert.assertEquals(1.0 / 2.0, new Overlap(a, b).value(), 1e-8);
     }
+
+    /**
+     * The estimate from {@link HyperLogLog} sketches must be close to the exact value of large sets.
+     */
+    @Test
+    public void sketches() {
+        final Set<Integer> a = new HashSet<>();
+        final Set<Integer> b = new HashSet<>();
+        final HyperLogLog sa = new HyperLogLog();
+        final HyperLogLog sb = new HyperLogLog();
+        for (int i = 0; i < 60000; i++) {
+            a.add(i);
+            sa.add(i);
+        }
+        for (int i = 30000; i < 100000; i++) {
+            b.add(i);
+            sb.add(i);
+        }
+        Assert.assertEquals(new Overlap(a, b).value(), new Overlap(sa, sb).value(), 0.05);
+        Assert.assertEquals(new Overlap(sb, sa).value(), new Overlap(sa, sb).value(), 1e-8);
+    }
 }
@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PearsonTests {
     /**
@@ -93,4 +94,70 @@ public class PearsonTests {
         final List<Double> b = Arrays.asList(2.0, 4.0, 4.0);
         Assert.assertEquals(new Pearson(a, b).value(), new Pearson(a.iterator(), b.iterator()).value(), 1e-8);
     }
+
+    /**
+     * The definition of {@link Pearson#Pearson(double[], double[])} must be equivalent to
+     * {@link Pearson#Pearson(Iterable, Iterable)}.
+     */
+    @Test
+    public void primitiveEquality() {
+        final Random r = new Random(8850L);
+        final double[] a = new double[1001];
+        final double[] b = new double[a.length];
+        final List<Double> la = new ArrayList<>();
+        final List<Double> lb = new ArrayList<>();
+        for (int i = 0; i < a.length; i++) {
+            a[i] = r.nextGaussian();
+            b[i] = a[i] * 0.5 + r.nextGaussian();
+            la.add(a[i]);
+            lb.add(b[i]);
+        }
+        Assert.assertEquals(new Pearson(la, lb).value(), new Pearson(a, b).value(), 1e-12);
+        Assert.assertEquals(2 / Math.sqrt(7), new Pearson(new double[]{1, 2, 4}, new double[]{2, 4, 4}).value(), 1e-8);
+    }
+
+    /**
+     * Primitive vectors of different size throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void primitiveDifferentSize() {
+        new Pearson(new double[]{1, 2}, new double[]{1, 2, 3});
+    }
+
+    /**
+     * The population constructor evaluates each mapping once per element and agrees with the vector constructor,
+     * sequentially and in parallel.
+     */
+    @Test
+    public void population() {
+        final Random r = new Random(4036L);
+        final Map<Integer, double[]> features = new HashMap<>();
+        final List<Double> la = new ArrayList<>();
+        final List<Double> lb = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            final double x = r.nextGaussian() * 3 + 10;
+            final double y = x * -0.7 + r.nextGaussian();
+            features.put(i, new double[]{x, y});
+            la.add(x);
+            lb.add(y);
+        }
+        final AtomicInteger calls1 = new AtomicInteger();
+        final AtomicInteger calls2 = new AtomicInteger();
+        final double expected = new Pearson(la, lb).value();
+        final double sequential = new Pearson(features.keySet(),
+                t -> {
+                    calls1.incrementAndGet();
+                    return features.get(t)[0];
+                },
+                t -> {
+                    calls2.incrementAndGet();
+                    return features.get(t)[1];
+                }).value();
+        Assert.assertEquals(features.size(), calls1.get());
+        Assert.assertEquals(features.size(), calls2.get());
+        Assert.assertEquals(expected, sequential, 1e-10);
+        final double parallel = new Pearson(features.keySet(), t -> features.get(t)[0], t -> features.get(t)[1],
+                true).value();
+        Assert.assertEquals(expected, parallel, 1e-10);
+    }
 }
@@ -0,0 +1,142 @@
+package gr.james.stats.measures;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SetSimilarityIndexTests {
+    /**
+     * The top matches must be the ones of scoring every candidate and sorting by decreasing score and position.
+     */
+    @Test
+    public void bruteForce() {
+        final Random r = new Random(4211L);
+        final List<Set<Integer>> candidates = randomSets(r, 500, 200);
+        final SetSimilarityIndex<Integer> index = new SetSimilarityIndex<>(candidates);
+        Assert.assertEquals(500, index.size());
+        for (SetSimilarityIndex.Measure measure : SetSimilarityIndex.Measure.values()) {
+            for (int q = 0; q < 20; q++) {
+                final Set<Integer> query = randomSets(r, 1, 250).get(0);
+                final List<Integer> expected = new ArrayList<>();
+                final double[] scores = new double[candidates.size()];
+                for (int c = 0; c < candidates.size(); c++) {
+                    scores[c] = expectedScore(query, candidates.get(c), measure);
+                    if (scores[c] > 0) {
+                        expected.add(c);
+                    }
+                }
+                expected.sort((x, y) -> scores[x] != scores[y] ? Double.compare(scores[y], scores[x]) : x - y);
+                for (int k : new int[]{1, 7, 50, 1000}) {
+                    final List<SetSimilarityIndex.Match> top = index.top(query, measure, k);
+                    Assert.assertEquals(Math.min(k, expected.size()), top.size());
+                    for (int i = 0; i < top.size(); i++) {
+                        Assert.assertEquals(scores[expected.get(i)], top.get(i).value(), 1e-12);
+                        Assert.assertEquals((int) expected.get(i), top.get(i).candidate());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Identical candidates must score 1 and be ordered by position, disjoint ones must not be reported.
+     */
+    @Test
+    public void ties() {
+        final Set<String> a = new HashSet<>(Arrays.asList("a", "b", "c"));
+        final Set<String> b = new HashSet<>(Arrays.asList("x", "y"));
+        final SetSimilarityIndex<String> index = new SetSimilarityIndex<>(Arrays.asList(b, a, b, a, new HashSet<>()));
+        final List<SetSimilarityIndex.Match> top = index.top(a, SetSimilarityIndex.Measure.JACCARD, 3);
+        Assert.assertEquals(2, top.size());
+        Assert.assertEquals(1, top.get(0).candidate());
+        Assert.assertEquals(3, top.get(1).candidate());
+        Assert.assertEquals(1.0, top.get(0).value(), 0.0);
+        Assert.assertTrue(index.top(Collections.singleton("z"), SetSimilarityIndex.Measure.COSINE, 3).isEmpty());
+    }
+
+    /**
+     * Concurrent queries must not interfere with each other.
+     */
+    @Test
+    public void concurrent() {
+        final Random r = new Random(977L);
+        final List<Set<Integer>> candidates = randomSets(r, 2000, 300);
+        final List<Set<Integer>> queries = randomSets(r, 200, 300);
+        final SetSimilarityIndex<Integer> index = new SetSimilarityIndex<>(candidates);
+        final List<List<SetSimilarityIndex.Match>> sequential = new ArrayList<>();
+        for (Set<Integer> q : queries) {
+            sequential.add(index.top(q, SetSimilarityIndex.Measure.SORENSEN, 10));
+        }
+        queries.parallelStream().forEach(q -> {
+            final List<SetSimilarityIndex.Match> expected = sequential.get(queries.indexOf(q));
+            final List<SetSimilarityIndex.Match> actual = index.top(q, SetSimilarityIndex.Measure.SORENSEN, 10);
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals(expected.get(i).candidate(), actual.get(i).candidate());
+                Assert.assertEquals(expected.get(i).value(), actual.get(i).value(), 0.0);
+            }
+        });
+    }
+
+    /**
+     * An index over no candidates must be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyCandidates() {
+        new SetSimilarityIndex<Integer>(Collections.emptyList());
+    }
+
+    /**
+     * An empty query must be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyQuery() {
+        new SetSimilarityIndex<>(Collections.singletonList(Collections.singleton(1)))
+                .top(Collections.emptySet(), SetSimilarityIndex.Measure.JACCARD, 1);
+    }
+
+    /**
+     * A non-positive k must be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveK() {
+        new SetSimilarityIndex<>(Collections.singletonList(Collections.singleton(1)))
+                .top(Collections.singleton(1), SetSimilarityIndex.Measure.JACCARD, 0);
+    }
+
+    /**
+     * Random non-empty sets of up to 20 elements drawn from {@code [0, universe)}.
+     */
+    private static List<Set<Integer>> randomSets(Random r, int count, int universe) {
+        final List<Set<Integer>> sets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Set<Integer> s = new HashSet<>();
+            final int size = 1 + r.nextInt(20);
+            while (s.size() < size) {
+                s.add(r.nextInt(universe));
+            }
+            sets.add(s);
+        }
+        return sets;
+    }
+
+    /**
+     * The score of a pair computed independently of the index.
+     */
+    private static double expectedScore(Set<Integer> query, Set<Integer> candidate,
+                                        SetSimilarityIndex.Measure measure) {
+        switch (measure) {
+            case JACCARD:
+                return new Jaccard(query, candidate).value();
+            case SORENSEN:
+                return new Sorensen(query, candidate).value();
+            case OVERLAP:
+                return new Overlap(query, candidate).value();
+            default:
+                final Set<Integer> intersection = new HashSet<>(query);
+                intersection.retainAll(candidate);
+                return intersection.size() / Math.sqrt((double) query.size() * candidate.size());
+        }
+    }
+}
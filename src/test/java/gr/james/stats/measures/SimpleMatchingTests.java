@@ -1,5 +1,6 @@
 package gr.james.stats.measures;
 
+import gr.james.stats.utils.HyperLogLog;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -52,4 +53,30 @@ public class SimpleMatchingTests {
         Assert.assertEquals(new SimpleMatching(b, a, world).value(), new SimpleMatching(a, b, world).value(), 1e-8);
         Assert.assertEquals(2.0 / 5.0, new SimpleMatching(a, b, world).value(), 1e-8);
     }
+
+    /**
+     * The estimate from {@link HyperLogLog} sketches must be close to the exact value of large sets.
+     */
+    @Test
+    public void sketches() {
+        final Set<Integer> a = new HashSet<>();
+        final Set<Integer> b = new HashSet<>();
+        final Set<Integer> world = new HashSet<>();
+        final HyperLogLog sa = new HyperLogLog();
+        final HyperLogLog sb = new HyperLogLog();
+        final HyperLogLog sw = new HyperLogLog();
+        for (int i = 0; i < 200000; i++) {
+            world.add(i);
+            sw.add(i);
+            if (i < 60000) {
+                a.add(i);
+                sa.add(i);
+            }
+            if (i >= 30000 && i < 100000) {
+                b.add(i);
+                sb.add(i);
+            }
+        }
+        Assert.assertEquals(new SimpleMatching(a, b, world).value(), new SimpleMatching(sa, sb, sw).value(), 0.03);
+    }
 }
@@ -0,0 +1,77 @@
+package gr.james.stats.measures;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SlidingWindowKendallTests {
+    /**
+     * After every observation the value must agree with {@link Kendall} over the window, including inputs with ties.
+     */
+    @Test
+    public void equality() {
+        final Random r = new Random(6021L);
+        for (int window : new int[]{2, 37, 200}) {
+            final SlidingWindowKendall sliding = new SlidingWindowKendall(window);
+            final List<Double> a = new ArrayList<>();
+            final List<Double> b = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final double x = r.nextInt(i % 300 < 100 ? 5 : 1000);
+                final double y = Math.round(x + r.nextGaussian() * 100);
+                sliding.add(x, y);
+                a.add(x);
+                b.add(y);
+                if (a.size() > window) {
+                    a.remove(0);
+                    b.remove(0);
+                }
+                Assert.assertEquals(a.size(), sliding.size());
+                if (a.stream().distinct().count() == 1 || b.stream().distinct().count() == 1) {
+                    Assert.assertTrue(Double.isNaN(sliding.value()));
+                } else {
+                    Assert.assertEquals(new Kendall(a, b).value(), sliding.value(), 1e-10);
+                }
+            }
+        }
+    }
+
+    /**
+     * A window with less than 2 observations or a constant stream has no correlation, which is defined again once the
+     * window is no longer constant.
+     */
+    @Test
+    public void undefined() {
+        final SlidingWindowKendall sliding = new SlidingWindowKendall(3);
+        Assert.assertTrue(Double.isNaN(sliding.value()));
+        sliding.add(1, 2);
+        Assert.assertTrue(Double.isNaN(sliding.value()));
+        sliding.add(1, 3);
+        sliding.add(1, 4);
+        Assert.assertTrue(Double.isNaN(sliding.value()));
+        sliding.add(2, 5);
+        Assert.assertEquals(2 / Math.sqrt(6), sliding.value(), 1e-12);
+        final SlidingWindowKendall pair = new SlidingWindowKendall(2);
+        pair.add(1, 1);
+        pair.add(2, 2);
+        Assert.assertEquals(1.0, pair.value(), 0);
+    }
+
+    /**
+     * A window smaller than 2 must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void window() {
+        new SlidingWindowKendall(1);
+    }
+
+    /**
+     * Non-finite observations must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void finite() {
+        new SlidingWindowKendall(10).add(Double.NaN, 1);
+    }
+}
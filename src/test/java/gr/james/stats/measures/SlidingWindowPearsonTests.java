@@ -0,0 +1,89 @@
+package gr.james.stats.measures;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SlidingWindowPearsonTests {
+    /**
+     * After every observation the value must agree with {@link Pearson} over the window.
+     */
+    @Test
+    public void equality() {
+        final Random r = new Random(5150L);
+        for (int window : new int[]{2, 3, 100}) {
+            final SlidingWindowPearson sliding = new SlidingWindowPearson(window);
+            final double[] a = new double[2000];
+            final double[] b = new double[a.length];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = r.nextGaussian() * 10;
+                b[i] = a[i] * (i % 500 < 250 ? 1 : -1) + r.nextGaussian() * 10;
+                sliding.add(a[i], b[i]);
+                final int from = Math.max(0, i + 1 - window);
+                Assert.assertEquals(i + 1 - from, sliding.size());
+                if (i > 0) {
+                    final double[] wa = Arrays.copyOfRange(a, from, i + 1);
+                    final double[] wb = Arrays.copyOfRange(b, from, i + 1);
+                    Assert.assertEquals(new Pearson(wa, wb).value(), sliding.value(), 1e-9);
+                }
+            }
+        }
+    }
+
+    /**
+     * A long stream with a large offset and changing scale must not drift away from the exact value.
+     */
+    @Test
+    public void drift() {
+        final Random r = new Random(7L);
+        final int window = 1000;
+        final SlidingWindowPearson sliding = new SlidingWindowPearson(window);
+        final double[] a = new double[window];
+        final double[] b = new double[window];
+        for (int i = 0; i < 200000; i++) {
+            final double scale = i % 20000 < 10000 ? 1e-3 : 1e3;
+            final double x = 1e6 + r.nextGaussian() * scale;
+            final double y = 1e6 + (x - 1e6) * 0.5 + r.nextGaussian() * scale;
+            a[i % window] = x;
+            b[i % window] = y;
+            sliding.add(x, y);
+        }
+        Assert.assertEquals(new Pearson(a, b).value(), sliding.value(), 1e-6);
+    }
+
+    /**
+     * A window with less than 2 observations has no correlation and {@link SlidingWindowPearson#clear()} empties it.
+     */
+    @Test
+    public void clear() {
+        final SlidingWindowPearson sliding = new SlidingWindowPearson(4);
+        Assert.assertTrue(Double.isNaN(sliding.value()));
+        sliding.add(1, 2);
+        Assert.assertTrue(Double.isNaN(sliding.value()));
+        sliding.add(2, 4);
+        Assert.assertEquals(1.0, sliding.value(), 1e-12);
+        sliding.clear();
+        Assert.assertEquals(0, sliding.size());
+        sliding.add(1, 2);
+        sliding.add(2, 1);
+        Assert.assertEquals(-1.0, sliding.value(), 1e-12);
+    }
+
+    /**
+     * A window smaller than 2 must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void window() {
+        new SlidingWindowPearson(1);
+    }
+
+    /**
+     * Non-finite observations must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void finite() {
+        new SlidingWindowPearson(10).add(1, Double.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,45 @@
+package gr.james.stats.measures;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SpearmanMatrixTests {
+    /**
+     * Every pair must agree with {@link Spearman}, including inputs with ties.
+     */
+    @Test
+    public void equality() {
+        final Random r = new Random(9631L);
+        final List<double[]> inputs = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            final double[] x = new double[200];
+            for (int k = 0; k < x.length; k++) {
+                x[k] = r.nextInt(i % 3 == 0 ? 10 : 1000);
+            }
+            inputs.add(x);
+        }
+        final SpearmanMatrix matrix = new SpearmanMatrix(inputs);
+        Assert.assertEquals(inputs.size(), matrix.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            for (int j = 0; j < inputs.size(); j++) {
+                final double expected = new Spearman(inputs.get(i), inputs.get(j)).value();
+                Assert.assertEquals(expected, matrix.value(i, j), 1e-8);
+                Assert.assertEquals(matrix.value(j, i), matrix.value(i, j), 0);
+            }
+        }
+    }
+
+    /**
+     * Out of range positions are rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds() {
+        final List<double[]> inputs = new ArrayList<>();
+        inputs.add(new double[]{1, 2, 3});
+        new SpearmanMatrix(inputs).value(0, 1);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public class SpearmanTests {
     /**
@@ -46,4 +47,60 @@ public class SpearmanTests {
         final List<Integer> b = Arrays.asList(1, 2, 4, 3);
         Assert.assertEquals(new Spearman(b, a).value(), new Spearman(a, b).value(), 1e-8);
     }
+
+    /**
+     * The primitive constructor must agree with the list constructor when there are no ties.
+     */
+    @Test
+    public void primitiveEquality() {
+        final List<Integer> a = Arrays.asList(3, 1, 4, 2, 5);
+        final List<Integer> b = Arrays.asList(1, 5, 2, 3, 4);
+        final double[] scoresA = new double[a.size()];
+        final double[] scoresB = new double[b.size()];
+        for (int i = 0; i < a.size(); i++) {
+            scoresA[a.get(i) - 1] = -i;
+            scoresB[b.get(i) - 1] = -i;
+        }
+        Assert.assertEquals(new Spearman(a, b).value(), new Spearman(scoresA, scoresB).value(), 1e-8);
+    }
+
+    /**
+     * Ties are assigned the average of their ranks.
+     */
+    @Test
+    public void ties() {
+        final double[] a = {1.0, 2.0, 2.0, 3.0};
+        final double[] b = {1.0, 2.0, 3.0, 4.0};
+        final double[] ranksA = {1.0, 2.5, 2.5, 4.0};
+        final List<Double> ra = Arrays.asList(1.0, 2.5, 2.5, 4.0);
+        final List<Double> rb = Arrays.asList(1.0, 2.0, 3.0, 4.0);
+        Assert.assertEquals(new Pearson(ra, rb).value(), new Spearman(a, b).value(), 1e-8);
+        Assert.assertEquals(new Spearman(ranksA, b).value(), new Spearman(a, b).value(), 1e-8);
+    }
+
+    /**
+     * Commutativity and invariance to monotonic transformations for the primitive constructor.
+     */
+    @Test
+    public void primitiveMonotonic() {
+        final Random r = new Random(8425L);
+        final double[] a = new double[1000];
+        final double[] b = new double[1000];
+        final double[] c = new double[1000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = r.nextInt(100);
+            b[i] = a[i] + r.nextGaussian() * 20;
+            c[i] = Math.exp(b[i] / 50);
+        }
+        Assert.assertEquals(new Spearman(b, a).value(), new Spearman(a, b).value(), 1e-8);
+        Assert.assertEquals(new Spearman(a, b).value(), new Spearman(a, c).value(), 1e-8);
+    }
+
+    /**
+     * Inputs of different size are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void primitiveDifferentSize() {
+        new Spearman(new double[]{1.0, 2.0}, new double[]{1.0, 2.0, 3.0});
+    }
 }
@@ -0,0 +1,41 @@
+package gr.james.stats.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+public class ChartRendererTests {
+    /**
+     * More charts than the queue capacity are all rendered.
+     */
+    @Test
+    public void bounded() throws InterruptedException, ExecutionException {
+        final Distribution d = PlottingTests.distribution();
+        final List<Future<byte[]>> futures = new ArrayList<>();
+        try (ChartRenderer renderer = new ChartRenderer(2, 1)) {
+            for (int i = 0; i < 12; i++) {
+                futures.add(renderer.submit(Plotting.linearBinsChart(d, 10, "chart " + i, "x", "y"),
+                        i % 2 == 0 ? Plotting.Format.PNG : Plotting.Format.SVG));
+            }
+        }
+        for (Future<byte[]> f : futures) {
+            Assert.assertTrue(f.isDone());
+            Assert.assertTrue(f.get().length > 0);
+        }
+    }
+
+    /**
+     * A closed renderer rejects charts.
+     */
+    @Test(expected = RejectedExecutionException.class)
+    public void closed() {
+        final ChartRenderer renderer = new ChartRenderer(1, 1);
+        renderer.close();
+        renderer.submit(Plotting.linearChart(PlottingTests.distribution(), "t", "x", "y"), Plotting.Format.PNG);
+    }
+}
@@ -0,0 +1,80 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.LinearDataBinning;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class DecayedFrequencyTests {
+    /**
+     * The decayed frequencies must agree with the direct definition, including observations out of time order.
+     */
+    @Test
+    public void equality() {
+        final Random r = new Random(9090L);
+        final double halfLife = 50;
+        final DecayedFrequency decayed = new DecayedFrequency(halfLife);
+        final long[] times = new long[2000];
+        final double[] values = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = i + r.nextInt(20);
+            values[i] = r.nextInt(30);
+            decayed.add(values[i], times[i]);
+        }
+        final long now = 2100;
+        final Map<Double, Double> expected = new TreeMap<>();
+        for (int i = 0; i < times.length; i++) {
+            expected.merge(values[i], Math.pow(2, -(now - times[i]) / halfLife), Double::sum);
+        }
+        final Distribution actual = decayed.toDistribution(now);
+        Assert.assertEquals(expected.keySet(), actual.map().keySet());
+        double sum = 0;
+        for (Map.Entry<Double, Double> e : expected.entrySet()) {
+            Assert.assertEquals(e.getValue(), actual.map().get(e.getKey()), 1e-9 * e.getValue());
+            sum += e.getValue();
+        }
+        Assert.assertEquals(sum, decayed.sum(now), 1e-9 * sum);
+        for (Map.Entry<Double, Double> e : decayed.normalize().map().entrySet()) {
+            Assert.assertEquals(expected.get(e.getKey()) / sum, e.getValue(), 1e-9);
+        }
+        Assert.assertEquals(actual.bin(new LinearDataBinning(3)).map(),
+                decayed.bin(new LinearDataBinning(3), now).map());
+    }
+
+    /**
+     * After many half-lives the landmark moves, the weights stay finite and old values are forgotten.
+     */
+    @Test
+    public void landmark() {
+        final DecayedFrequency decayed = new DecayedFrequency(10);
+        for (int i = 0; i < 100; i++) {
+            decayed.add(i, 0);
+        }
+        for (long time = 0; time < 100000; time += 10) {
+            decayed.add(-1, time);
+        }
+        Assert.assertEquals(1, decayed.size());
+        final double expected = 1 / (1 - Math.pow(2, -1.0));
+        Assert.assertEquals(expected, decayed.sum(99990), 1e-9);
+        Assert.assertEquals(expected, decayed.toDistribution(99990).map().get(-1.0), 1e-9);
+    }
+
+    /**
+     * Non-finite observations must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void finite() {
+        new DecayedFrequency(10).add(Double.POSITIVE_INFINITY, 0);
+    }
+
+    /**
+     * A non-positive half-life must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void halfLife() {
+        new DecayedFrequency(0);
+    }
+}
@@ -0,0 +1,67 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.LogarithmicDataBinning;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.SortedMap;
+
+public class DistributionPipelineTests {
+    /**
+     * A fused pipeline agrees with the equivalent chain of eager operations on a {@link Frequency}.
+     */
+    @Test
+    public void frequency() {
+        final Random r = new Random(5541L);
+        final Frequency f = new Frequency();
+        for (int i = 0; i < 20000; i++) {
+            f.add(r.nextInt(1000) + 1);
+        }
+        Assert.assertEquals(f.tail(10).purge().normalize().map(),
+                f.pipeline().tail(10).purge().normalize().map());
+        Assert.assertEquals(f.tail(10).head(500).normalize().map(),
+                f.pipeline().head(500).tail(10).normalize().map());
+        Assert.assertEquals(f.tail(10).normalize().bin(new LogarithmicDataBinning(5, 2)).map(),
+                f.pipeline().tail(10).normalize().bin(new LogarithmicDataBinning(5, 2)).map());
+        Assert.assertEquals(f.sum(), f.pipeline().sum(), 0);
+        Assert.assertEquals(f.toDistribution().map(), f.pipeline().toDistribution().map());
+    }
+
+    /**
+     * Normalizing twice over narrowing ranges agrees with the eager chain.
+     */
+    @Test
+    public void distribution() {
+        final Random r = new Random(9013L);
+        final Distribution d = new Distribution();
+        for (int i = 0; i < 5000; i++) {
+            d.put(r.nextGaussian() * 100, r.nextDouble() + 0.01);
+        }
+        final SortedMap<Double, Double> expected = d.normalize().tail(-50).normalize().head(50).map();
+        assertClose(expected, d.pipeline().normalize().tail(-50).normalize().head(50).map());
+        assertClose(expected, d.toImmutable().pipeline().normalize().tail(-50).normalize().head(50).map());
+        Assert.assertEquals(1, d.pipeline().head(0).normalize().sum(), 1e-12);
+    }
+
+    /**
+     * Empty and inverted ranges produce empty distributions.
+     */
+    @Test
+    public void empty() {
+        final Distribution d = new Distribution();
+        d.put(1, 1);
+        d.put(2, 2);
+        Assert.assertTrue(d.pipeline().tail(2).map().isEmpty());
+        Assert.assertTrue(d.pipeline().tail(5).head(0).map().isEmpty());
+        Assert.assertTrue(d.pipeline().tail(Double.NaN).map().isEmpty());
+        Assert.assertTrue(new Distribution().pipeline().normalize().map().isEmpty());
+    }
+
+    private static void assertClose(SortedMap<Double, Double> expected, SortedMap<Double, Double> actual) {
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        for (Double k : expected.keySet()) {
+            Assert.assertEquals(expected.get(k), actual.get(k), 1e-12);
+        }
+    }
+}
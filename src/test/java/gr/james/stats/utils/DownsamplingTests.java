@@ -0,0 +1,85 @@
+package gr.james.stats.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class DownsamplingTests {
+    /**
+     * The selections respect the budget, are strictly increasing and contain the endpoints.
+     */
+    @Test
+    public void budget() {
+        final Random r = new Random(6650L);
+        for (int n : new int[]{1, 5, 100, 1001, 100000}) {
+            final double[] x = new double[n];
+            final double[] y = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = i + 1;
+                y[i] = r.nextDouble() + 0.01;
+            }
+            for (int budget : new int[]{6, 7, 50, 1000}) {
+                for (boolean log : new boolean[]{false, true}) {
+                    assertSelection(Downsampling.lttb(x, y, budget, log, log), n, budget);
+                    assertSelection(Downsampling.minMax(x, y, budget, log, log), n, budget);
+                    assertSelection(Downsampling.select(x, y, budget, log, log), n, budget);
+                }
+            }
+        }
+    }
+
+    /**
+     * The envelope keeps isolated spikes that fall between LTTB choices.
+     */
+    @Test
+    public void spikes() {
+        final int n = 100000;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i;
+            y[i] = Math.sin(i / 1000.0);
+        }
+        y[31337] = 100;
+        y[77777] = -100;
+        final int[] selected = Downsampling.select(x, y, 100, false, false);
+        boolean high = false;
+        boolean low = false;
+        for (int i : selected) {
+            high |= i == 31337;
+            low |= i == 77777;
+        }
+        Assert.assertTrue(high && low);
+    }
+
+    /**
+     * Charts of large distributions are limited to the point budget.
+     */
+    @Test
+    public void chart() {
+        final Distribution d = new Distribution();
+        for (int i = 1; i <= 50000; i++) {
+            d.put(i, 1.0 / i);
+        }
+        Assert.assertTrue(Plotting.logLogChart(d, "t", "x", "y").getSeriesMap().get("t").getXData().length
+                <= Plotting.DEFAULT_POINTS);
+        Assert.assertTrue(Plotting.linearChart(d, 100, "t", "x", "y").getSeriesMap().get("t").getXData().length
+                <= 100);
+    }
+
+    private static void assertSelection(int[] selected, int n, int budget) {
+        if (n <= budget) {
+            Assert.assertEquals(n, selected.length);
+        } else {
+            Assert.assertTrue(selected.length <= budget);
+        }
+        if (n > 0) {
+            Assert.assertEquals(0, selected[0]);
+            Assert.assertEquals(n - 1, selected[selected.length - 1]);
+        }
+        for (int i = 1; i < selected.length; i++) {
+            Assert.assertTrue(selected[i] > selected[i - 1]);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Random;
+import java.util.stream.DoubleStream;
 
 public class FrequencyTests {
     /**
@@ -50,4 +51,71 @@ public class FrequencyTests {
         }
         Assert.assertEquals(1.0, d.normalize().sum(), 1e-4);
     }
+
+    /**
+     * Merging partial distributions is equivalent to adding all observations to one.
+     */
+    @Test
+    public void merge() {
+        final Random r = new Random(7731L);
+        final Frequency all = new Frequency();
+        final Frequency a = new Frequency();
+        final Frequency b = new Frequency();
+        final Frequency small = new Frequency();
+        for (int i = 0; i < 5000; i++) {
+            final double x = r.nextInt(300);
+            all.add(x);
+            (i % 3 == 0 ? a : b).add(x);
+        }
+        for (int i = 0; i < 20; i++) {
+            final double x = r.nextInt(400);
+            all.add(x);
+            small.add(x);
+        }
+        Assert.assertSame(a, a.merge(b));
+        a.merge(small).merge(new Frequency());
+        Assert.assertEquals(all.map(), a.map());
+        Assert.assertEquals(all.map(), new Frequency().merge(all).map());
+    }
+
+    /**
+     * Adding with a count is equivalent to adding repeatedly.
+     */
+    @Test
+    public void addCount() {
+        final Frequency a = new Frequency();
+        final Frequency b = new Frequency();
+        a.add(2.5, 3);
+        a.add(1.0, 1);
+        a.add(2.5, 2);
+        for (int i = 0; i < 5; i++) {
+            b.add(2.5);
+        }
+        b.add(1.0);
+        Assert.assertEquals(b.map(), a.map());
+    }
+
+    /**
+     * Adding with a non-positive count throws an {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void addNonPositiveCount() {
+        new Frequency().add(1.0, 0);
+    }
+
+    /**
+     * Parallel streams produce the same distribution as sequential adds.
+     */
+    @Test
+    public void collector() {
+        final double[] values = new Random(1209L).doubles(200000).map(x -> Math.floor(x * 1000)).toArray();
+        final Frequency expected = new Frequency();
+        for (double x : values) {
+            expected.add(x);
+        }
+        Assert.assertEquals(expected.map(),
+                DoubleStream.of(values).parallel().collect(Frequency::new, Frequency::add, Frequency::merge).map());
+        Assert.assertEquals(expected.map(), DoubleStream.of(values).parallel().boxed()
+                .collect(Frequency.collector()).map());
+    }
 }
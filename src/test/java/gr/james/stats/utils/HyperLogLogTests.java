@@ -0,0 +1,106 @@
+package gr.james.stats.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class HyperLogLogTests {
+    /**
+     * The estimate must be within a few standard errors over the whole range of cardinalities.
+     */
+    @Test
+    public void accuracy() {
+        final Random r = new Random(1234L);
+        for (int precision : new int[]{HyperLogLog.MIN_PRECISION, 10, HyperLogLog.DEFAULT_PRECISION, 14}) {
+            final double error = 1.04 / Math.sqrt(1 << precision);
+            for (int n : new int[]{1, 10, 100, 1000, 50000, 1000000}) {
+                final HyperLogLog sketch = new HyperLogLog(precision);
+                final long offset = r.nextLong();
+                for (int i = 0; i < n; i++) {
+                    sketch.add(offset + i);
+                    sketch.add(offset + i);
+                }
+                Assert.assertEquals(n, sketch.cardinality(), Math.max(0.5, 4 * error * n));
+            }
+        }
+        Assert.assertEquals(0, new HyperLogLog().cardinality(), 0);
+    }
+
+    /**
+     * Merging must give exactly the sketch of the union and the intersection must be estimated.
+     */
+    @Test
+    public void merge() {
+        final HyperLogLog a = new HyperLogLog();
+        final HyperLogLog b = new HyperLogLog();
+        final HyperLogLog union = new HyperLogLog();
+        for (long i = 0; i < 60000; i++) {
+            a.add(i);
+            union.add(i);
+        }
+        for (long i = 30000; i < 100000; i++) {
+            b.add(i);
+            union.add(i);
+        }
+        Assert.assertEquals(union.cardinality(), a.unionCardinality(b), 0);
+        Assert.assertEquals(30000, a.intersectionCardinality(b), 3000);
+        final HyperLogLog merged = a.copy().merge(b);
+        Assert.assertEquals(union, merged);
+        Assert.assertNotEquals(union, a);
+    }
+
+    /**
+     * Objects are counted by their hash codes.
+     */
+    @Test
+    public void objects() {
+        final HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 20000; i++) {
+            sketch.add("element-" + (i % 5000));
+        }
+        Assert.assertEquals(5000, sketch.cardinality(), 5000 * 4 * 1.04 / 64);
+    }
+
+    /**
+     * Serialization must round-trip and take 6 bits per register.
+     */
+    @Test
+    public void bytes() {
+        final Random r = new Random(99L);
+        for (int precision = HyperLogLog.MIN_PRECISION; precision <= HyperLogLog.MAX_PRECISION; precision++) {
+            final HyperLogLog sketch = new HyperLogLog(precision);
+            for (int i = 0; i < 10000; i++) {
+                sketch.add(r.nextLong());
+            }
+            final byte[] bytes = sketch.toBytes();
+            Assert.assertEquals(1 + (6 * (1 << precision) + 7) / 8, bytes.length);
+            Assert.assertEquals(sketch, HyperLogLog.fromBytes(bytes));
+        }
+        Assert.assertEquals(3073, new HyperLogLog().toBytes().length);
+    }
+
+    /**
+     * Invalid serialized sketches must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBytes() {
+        HyperLogLog.fromBytes(new byte[]{12, 0, 0});
+    }
+
+    /**
+     * Sketches of different precisions must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void differentPrecision() {
+        new HyperLogLog(10).merge(new HyperLogLog(12));
+    }
+
+    /**
+     * An invalid precision must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void precision() {
+        new HyperLogLog(3);
+    }
+}
@@ -0,0 +1,64 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.LinearDataBinning;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class ImmutableDistributionTests {
+    /**
+     * Views and queries agree with the equivalent {@link Distribution} operations.
+     */
+    @Test
+    public void equivalence() {
+        final Random r = new Random(3319L);
+        final Distribution d = new Distribution();
+        for (int i = 0; i < 2000; i++) {
+            d.put(r.nextInt(1000) - 500 + (r.nextBoolean() ? 0.5 : 0), r.nextDouble() + 0.01);
+        }
+        d.put(-0.0, 1);
+        d.put(0.0, 2);
+        final ImmutableDistribution im = d.toImmutable();
+        Assert.assertEquals(d.map(), im.map());
+        Assert.assertEquals(d.map().size(), im.size());
+        Assert.assertEquals(d.sum(), im.sum(), 1e-9);
+        Assert.assertEquals(d.mode(), im.mode(), 0);
+        for (double v : new double[]{-1000, -250.5, -0.0, 0.0, 3, 499.5, 1000, Double.NaN}) {
+            Assert.assertEquals(d.head(v).map(), im.head(v).map());
+            Assert.assertEquals(d.tail(v).map(), im.tail(v).map());
+            Assert.assertEquals(d.head(v).map(), im.head(v).toDistribution().map());
+            Assert.assertEquals(d.tail(v).head(100).map(), im.tail(v).head(100).map());
+            Assert.assertEquals(d.tail(v).head(100).map(), im.head(100).tail(v).map());
+        }
+        Assert.assertEquals(d.map().subMap(-10.0, 20.0), im.subRange(-10, 20).map());
+        Assert.assertEquals(d.map().subMap(-10.0, 20.0), im.map().subMap(-10.0, 20.0));
+        Assert.assertEquals(d.normalize().map(), im.normalize().map());
+        Assert.assertEquals(d.tail(100).normalize().map(), im.tail(100).normalize().map());
+        Assert.assertEquals(d.bin(new LinearDataBinning(7)).map(), im.bin(new LinearDataBinning(7)).map());
+    }
+
+    /**
+     * Empty ranges are handled.
+     */
+    @Test
+    public void empty() {
+        final Distribution d = new Distribution();
+        d.put(1, 1);
+        d.put(2, 1);
+        final ImmutableDistribution im = d.toImmutable();
+        Assert.assertEquals(0, im.head(1).size());
+        Assert.assertEquals(0, im.tail(2).size());
+        Assert.assertEquals(0, im.subRange(5, 1).size());
+        Assert.assertEquals(0, im.tail(1).head(2).tail(2).size());
+        Assert.assertTrue(im.head(1).map().isEmpty());
+    }
+
+    /**
+     * The mode of an empty distribution throws {@link java.util.NoSuchElementException}.
+     */
+    @Test(expected = java.util.NoSuchElementException.class)
+    public void emptyMode() {
+        new Distribution().toImmutable().mode();
+    }
+}
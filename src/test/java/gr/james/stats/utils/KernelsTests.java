@@ -0,0 +1,87 @@
+package gr.james.stats.utils;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class KernelsTests {
+    /**
+     * The vectorized kernels agree with the scalar kernels within the tolerance documented in {@link Kernels}.
+     * <p>
+     * The test is skipped if the vectorized kernels are not on the class path or the {@code jdk.incubator.vector}
+     * module is not present.
+     */
+    @Test
+    public void vectorEquivalence() {
+        final ScalarKernels vector = vectorKernels();
+        Assume.assumeNotNull(vector);
+        final ScalarKernels scalar = new ScalarKernels();
+        final Random r = new Random(7109L);
+        for (int n : new int[]{0, 1, 3, 7, 8, 9, 31, 1000, 100003}) {
+            final double[] a = new double[n];
+            final double[] b = new double[n];
+            final float[] fa = new float[n];
+            final float[] fb = new float[n];
+            double sumAbs = 0;
+            double sumSquares = 0;
+            double sumProducts = 0;
+            double sumMoments = 0;
+            for (int i = 0; i < n; i++) {
+                a[i] = r.nextGaussian() * 100 + 20;
+                b[i] = a[i] * 0.2 + r.nextGaussian() * 50;
+                fa[i] = (float) a[i];
+                fb[i] = (float) b[i];
+                sumAbs += Math.abs(a[i]);
+                sumSquares += a[i] * a[i];
+                sumProducts += Math.abs(a[i] * b[i]);
+                sumMoments += Math.abs((a[i] - 20) * (b[i] - 4));
+            }
+            assertClose(scalar.sum(a), vector.sum(a), n, sumAbs);
+            assertClose(scalar.sum(fa), vector.sum(fa), n, sumAbs);
+            assertClose(scalar.sumOfSquares(a), vector.sumOfSquares(a), n, sumSquares);
+            assertClose(scalar.sumOfSquares(fa), vector.sumOfSquares(fa), n, sumSquares);
+            assertClose(scalar.dot(a, b), vector.dot(a, b), n, sumProducts);
+            assertClose(scalar.dot(fa, fb), vector.dot(fa, fb), n, sumProducts);
+            assertClose(scalar.coMoment(a, b, 20, 4), vector.coMoment(a, b, 20, 4), n, sumMoments);
+            assertClose(scalar.coMoment(fa, fb, 20, 4), vector.coMoment(fa, fb, 20, 4), n, sumMoments);
+        }
+    }
+
+    /**
+     * The public kernels agree with straightforward loops.
+     */
+    @Test
+    public void kernels() {
+        final double[] a = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+        final double[] b = {2, 0, 1, 0, 2, 0, 1, 0, 2, 0, 1};
+        Assert.assertEquals(66, Kernels.sum(a), 0);
+        Assert.assertEquals(506, Kernels.sumOfSquares(a), 0);
+        Assert.assertEquals(2 + 3 + 10 + 7 + 18 + 11, Kernels.dot(a, b), 0);
+        Assert.assertEquals(110, Kernels.coMoment(a, a, 6, 6), 0);
+        Assert.assertEquals(66, Kernels.sum(new float[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}), 0);
+    }
+
+    /**
+     * The dot product of arrays of different size throws {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void differentSize() {
+        Kernels.dot(new double[3], new double[4]);
+    }
+
+    private static void assertClose(double expected, double actual, int n, double magnitude) {
+        final double tolerance = 2 * Math.max(n, 1) * Math.ulp(1.0) * magnitude;
+        Assert.assertEquals(expected, actual, tolerance);
+    }
+
+    private static ScalarKernels vectorKernels() {
+        try {
+            return (ScalarKernels) Class.forName("gr.james.stats.utils.VectorKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
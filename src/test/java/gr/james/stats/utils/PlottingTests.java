@@ -0,0 +1,41 @@
+package gr.james.stats.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class PlottingTests {
+    /**
+     * Charts are rendered to PNG and SVG without a display.
+     */
+    @Test
+    public void render() throws IOException {
+        final Distribution d = distribution();
+        final byte[] png = Plotting.render(Plotting.logLogBinsChart(d, 10, "title", "x", "y"), Plotting.Format.PNG);
+        Assert.assertEquals((byte) 0x89, png[0]);
+        Assert.assertEquals('P', png[1]);
+        final byte[] svg = Plotting.render(Plotting.linearChart(d, "title", "x", "y"), Plotting.Format.SVG);
+        Assert.assertTrue(new String(svg, StandardCharsets.UTF_8).contains("<svg"));
+        final Path p = Files.createTempFile("chart", ".png");
+        try {
+            Plotting.render(Plotting.logLogChart(d, "title", "x", "y"), Plotting.Format.PNG, p);
+            Assert.assertTrue(Files.size(p) > 0);
+        } finally {
+            Files.delete(p);
+        }
+    }
+
+    static Distribution distribution() {
+        final Random r = new Random(4127L);
+        final Frequency f = new Frequency();
+        for (int i = 0; i < 1000; i++) {
+            f.add(Math.floor(Math.exp(r.nextDouble() * 5)));
+        }
+        return f.normalize();
+    }
+}
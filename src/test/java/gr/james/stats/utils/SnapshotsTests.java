@@ -0,0 +1,149 @@
+package gr.james.stats.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Random;
+
+public class SnapshotsTests {
+    /**
+     * A {@link Frequency} survives a round trip, including negative zero and extreme values.
+     */
+    @Test
+    public void frequencyRoundTrip() throws IOException {
+        final Random r = new Random(2291L);
+        final Frequency f = new Frequency();
+        for (int i = 0; i < 10000; i++) {
+            f.add(r.nextInt(500) - 250);
+            f.add(r.nextGaussian());
+        }
+        f.add(-0.0);
+        f.add(Double.MAX_VALUE);
+        f.add(-Double.MIN_VALUE);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        f.write(out);
+        final Frequency g = Frequency.read(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals(f.map(), g.map());
+        Assert.assertEquals(f.sum(), g.sum());
+    }
+
+    /**
+     * A {@link Distribution} survives a round trip.
+     */
+    @Test
+    public void distributionRoundTrip() throws IOException {
+        final Random r = new Random(8127L);
+        final Distribution d = new Distribution();
+        for (int i = 0; i < 5000; i++) {
+            d.put(r.nextDouble() * 100, r.nextDouble() + 1e-9);
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        d.write(out);
+        Assert.assertEquals(d.map(), Distribution.read(new ByteArrayInputStream(out.toByteArray())).map());
+    }
+
+    /**
+     * Integer keys with small counts take a few bytes per entry and consecutive snapshots can share a stream.
+     */
+    @Test
+    public void compactAndConcatenated() throws IOException {
+        final Frequency f = new Frequency();
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j <= i % 5; j++) {
+                f.add(i);
+            }
+        }
+        final Frequency empty = new Frequency();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        f.write(out);
+        final int size = out.size();
+        Assert.assertTrue(size < 1000 * 5);
+        empty.write(out);
+        f.normalize().write(out);
+        final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        Assert.assertEquals(f.map(), Frequency.read(in).map());
+        Assert.assertTrue(Frequency.read(in).map().isEmpty());
+        Assert.assertEquals(f.normalize().map(), Distribution.read(in).map());
+        Assert.assertEquals(-1, in.read());
+    }
+
+    /**
+     * Reading a snapshot of the wrong kind fails.
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void wrongKind() throws IOException {
+        final Frequency f = new Frequency();
+        f.add(1);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        f.write(out);
+        Distribution.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    /**
+     * Reading a snapshot with a corrupted payload fails.
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void corrupted() throws IOException {
+        final Frequency f = new Frequency();
+        f.add(1);
+        f.add(2);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        f.write(out);
+        final byte[] b = out.toByteArray();
+        final byte[] swapped = b.clone();
+        final int payload = 14;
+        final int half = (b.length - payload) / 2;
+        System.arraycopy(b, payload, swapped, b.length - half, half);
+        System.arraycopy(b, b.length - half, swapped, payload, half);
+        Frequency.read(new ByteArrayInputStream(swapped));
+    }
+
+    /**
+     * Reading a {@link Frequency} snapshot with a zero frequency fails.
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void zeroFrequency() throws IOException {
+        final Frequency f = new Frequency();
+        f.add(1);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        f.write(out);
+        final byte[] b = out.toByteArray();
+        Assert.assertEquals(1, b[b.length - 1]);
+        b[b.length - 1] = 0;
+        Frequency.read(new ByteArrayInputStream(b));
+    }
+
+    /**
+     * A payload length that is inconsistent with the number of entries is rejected before the payload is read.
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void excessiveLength() throws IOException {
+        Frequency.read(new ByteArrayInputStream(header(Snapshots.FREQUENCY, 1, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * A header that claims many entries with a short stream fails without allocating memory for all the entries.
+     */
+    @Test(expected = EOFException.class)
+    public void truncated() throws IOException {
+        Distribution.read(new ByteArrayInputStream(header(Snapshots.DISTRIBUTION, 100_000_000, 2_000_000_000)));
+    }
+
+    private static byte[] header(byte kind, int size, int length) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(Snapshots.MAGIC);
+        data.writeByte(Snapshots.VERSION);
+        data.writeByte(kind);
+        data.writeInt(size);
+        data.writeInt(length);
+        data.writeByte(0);
+        return out.toByteArray();
+    }
+}
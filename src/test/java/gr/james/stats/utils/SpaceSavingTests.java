@@ -0,0 +1,151 @@
+package gr.james.stats.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class SpaceSavingTests {
+    /**
+     * With fewer distinct values than the capacity the summary must be exact.
+     */
+    @Test
+    public void exact() {
+        final Random r = new Random(311L);
+        final SpaceSaving summary = new SpaceSaving(64);
+        final Frequency expected = new Frequency();
+        for (int i = 0; i < 10000; i++) {
+            final double value = r.nextInt(50) - 25;
+            final long count = 1 + r.nextInt(3);
+            summary.add(value, count);
+            expected.add(value, count);
+        }
+        Assert.assertEquals(expected.map(), summary.toFrequency().map());
+        Assert.assertEquals(expected.sum(), summary.sum());
+        Assert.assertEquals(expected.mode(), summary.mode(), 0);
+        Assert.assertEquals(50, summary.size());
+    }
+
+    /**
+     * On a skewed stream with many distinct values the error bounds must hold for every value.
+     */
+    @Test
+    public void bounds() {
+        final Random r = new Random(7412L);
+        final int capacity = 100;
+        final SpaceSaving summary = new SpaceSaving(capacity);
+        final Map<Double, Long> truth = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            final double value = zipf(r);
+            summary.add(value);
+            truth.merge(value, 1L, Long::sum);
+        }
+        assertBounds(summary, truth, 200000);
+        Assert.assertEquals(0.0, summary.mode(), 0);
+        Assert.assertEquals(capacity, summary.size());
+    }
+
+    /**
+     * Merging summaries of the parts of a stream must keep the guarantees for the whole stream.
+     */
+    @Test
+    public void merge() {
+        final Random r = new Random(2024L);
+        final int capacity = 50;
+        final SpaceSaving[] parts = new SpaceSaving[4];
+        final Map<Double, Long> truth = new HashMap<>();
+        for (int p = 0; p < parts.length; p++) {
+            parts[p] = new SpaceSaving(capacity);
+            for (int i = 0; i < 50000; i++) {
+                final double value = p == 3 ? r.nextInt(1000) + 0.5 : zipf(r);
+                parts[p].add(value);
+                truth.merge(value, 1L, Long::sum);
+            }
+        }
+        final SpaceSaving merged = new SpaceSaving(capacity).merge(parts[0]).merge(parts[1]);
+        merged.merge(parts[2].merge(parts[3]));
+        Assert.assertEquals(200000, merged.sum());
+        assertBounds(merged, truth, 200000);
+        Assert.assertEquals(0.0, merged.mode(), 0);
+    }
+
+    /**
+     * Heavy hitters must contain every value above the support and no value far below it.
+     */
+    @Test
+    public void heavyHitters() {
+        final Random r = new Random(55L);
+        final SpaceSaving summary = new SpaceSaving(100);
+        final Map<Double, Long> truth = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            final double value = zipf(r);
+            summary.add(value);
+            truth.merge(value, 1L, Long::sum);
+        }
+        final Frequency hitters = summary.heavyHitters(0.02);
+        for (Map.Entry<Double, Long> e : truth.entrySet()) {
+            if (e.getValue() > 0.02 * 100000) {
+                Assert.assertTrue(hitters.map().containsKey(e.getKey()));
+            }
+            if (e.getValue() <= 0.02 * 100000 - 100000 / 100) {
+                Assert.assertFalse(hitters.map().containsKey(e.getKey()));
+            }
+        }
+    }
+
+    /**
+     * An empty summary has no mode.
+     */
+    @Test(expected = java.util.NoSuchElementException.class)
+    public void emptyMode() {
+        new SpaceSaving(10).mode();
+    }
+
+    /**
+     * Non-finite observations must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void finite() {
+        new SpaceSaving(10).add(Double.NaN);
+    }
+
+    /**
+     * Merging summaries of different capacities must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeCapacity() {
+        final SpaceSaving small = new SpaceSaving(5);
+        small.add(1);
+        new SpaceSaving(10).merge(small);
+    }
+
+    /**
+     * A non-positive capacity must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void capacity() {
+        new SpaceSaving(0);
+    }
+
+    private static void assertBounds(SpaceSaving summary, Map<Double, Long> truth, long n) {
+        final long maxError = n / summary.capacity();
+        for (Map.Entry<Double, Long> e : truth.entrySet()) {
+            final long lower = summary.lowerBound(e.getKey());
+            final long upper = summary.upperBound(e.getKey());
+            Assert.assertTrue(lower <= e.getValue() && e.getValue() <= upper);
+            Assert.assertTrue(upper - lower <= maxError);
+            if (e.getValue() > maxError) {
+                Assert.assertTrue(summary.toFrequency().map().containsKey(e.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Draws from a Zipf-like distribution over {@code [0, 100000)} where 0 is the most frequent value.
+     */
+    private static double zipf(Random r) {
+        return Math.floor(Math.pow(100000, r.nextDouble()) - 1);
+    }
+}
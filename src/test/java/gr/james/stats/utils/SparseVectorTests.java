@@ -0,0 +1,78 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.measures.Cosine;
+import gr.james.stats.measures.Pearson;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class SparseVectorTests {
+    /**
+     * Sparse Cosine and Pearson must agree with their dense counterparts.
+     */
+    @Test
+    public void denseEquality() {
+        final Random r = new Random(1402L);
+        final int dimension = 5000;
+        for (int trial = 0; trial < 20; trial++) {
+            final double[] a = new double[dimension];
+            final double[] b = new double[dimension];
+            final SparseVector.Builder ba = new SparseVector.Builder(dimension);
+            final SparseVector.Builder bb = new SparseVector.Builder(dimension);
+            final int nonZeroA = 1 + r.nextInt(trial % 2 == 0 ? 20 : 2000);
+            final int nonZeroB = 1 + r.nextInt(50);
+            for (int k = 0; k < nonZeroA; k++) {
+                final int i = r.nextInt(dimension);
+                final double v = r.nextGaussian();
+                a[i] += v;
+                ba.add(i, v);
+            }
+            for (int k = 0; k < nonZeroB; k++) {
+                final int i = r.nextInt(dimension);
+                final double v = r.nextDouble();
+                b[i] += v;
+                bb.add(i, v);
+            }
+            final SparseVector sa = ba.build();
+            final SparseVector sb = bb.build();
+            Assert.assertEquals(Kernels.dot(a, b), sa.dot(sb), 1e-10);
+            Assert.assertEquals(Kernels.dot(a, b), sb.dot(sa), 1e-10);
+            Assert.assertEquals(new Cosine(a, b).value(), new Cosine(sa, sb).value(), 1e-10);
+            Assert.assertEquals(new Pearson(a, b).value(), new Pearson(sa, sb).value(), 1e-10);
+            for (int i = 0; i < dimension; i += 7) {
+                Assert.assertEquals(a[i], sa.get(i), 0);
+            }
+        }
+    }
+
+    /**
+     * The builder sums duplicate indices and drops zeros.
+     */
+    @Test
+    public void builder() {
+        final SparseVector v = new SparseVector.Builder(10).add(7, 1).add(0, 2).add(7, 2).add(3, 1).add(3, -1).build();
+        Assert.assertEquals(new SparseVector(10, new int[]{0, 7}, new double[]{2, 3}), v);
+        Assert.assertEquals(2, v.size());
+        Assert.assertEquals(0, v.index(0));
+        Assert.assertEquals(3, v.value(1), 0);
+        Assert.assertEquals(0, v.get(3), 0);
+    }
+
+    /**
+     * Unsorted indices throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unsorted() {
+        new SparseVector(10, new int[]{3, 1}, new double[]{1, 1});
+    }
+
+    /**
+     * Vectors of different dimension throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void differentDimension() {
+        new Cosine(new SparseVector(10, new int[]{1}, new double[]{1}),
+                new SparseVector(11, new int[]{1}, new double[]{1}));
+    }
+}
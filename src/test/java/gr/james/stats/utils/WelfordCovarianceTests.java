@@ -0,0 +1,51 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.measures.Cosine;
+import gr.james.stats.measures.Pearson;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class WelfordCovarianceTests {
+    /**
+     * Test the covariance and the correlation.
+     */
+    @Test
+    public void covariance() {
+        final List<Double> x = Arrays.asList(1.0, 2.0, 4.0, 7.0);
+        final List<Double> y = Arrays.asList(2.0, 4.0, 4.0, 9.0);
+        final WelfordCovariance wc = new WelfordCovariance();
+        for (int i = 0; i < x.size(); i++) {
+            wc.add(x.get(i), y.get(i));
+        }
+        Assert.assertEquals(3.5, wc.meanX(), 1.0e-8);
+        Assert.assertEquals(4.75, wc.meanY(), 1.0e-8);
+        Assert.assertEquals(7.5, wc.sampleCovariance(), 1.0e-8);
+        Assert.assertEquals(new Pearson(x, y).value(), wc.pearson(), 1.0e-8);
+        Assert.assertEquals(new Cosine(x, y).value(), wc.cosine(), 1.0e-8);
+    }
+
+    /**
+     * Merging partial instances must be equivalent to adding all observations to a single instance.
+     */
+    @Test
+    public void merge() {
+        final WelfordCovariance all = new WelfordCovariance();
+        final WelfordCovariance a = new WelfordCovariance();
+        final WelfordCovariance b = new WelfordCovariance();
+        for (int i = 0; i < 100; i++) {
+            final double x = Math.sin(i) * 100;
+            final double y = Math.cos(i / 3.0) + x / 50;
+            all.add(x, y);
+            (i % 3 == 0 ? a : b).add(x, y);
+        }
+        final WelfordCovariance merged = new WelfordCovariance().merge(a).merge(b);
+        Assert.assertEquals(all.observations(), merged.observations());
+        Assert.assertEquals(all.meanY(), merged.meanY(), 1.0e-8);
+        Assert.assertEquals(all.populationCovariance(), merged.populationCovariance(), 1.0e-8);
+        Assert.assertEquals(all.pearson(), merged.pearson(), 1.0e-8);
+        Assert.assertEquals(all.cosine(), merged.cosine(), 1.0e-8);
+    }
+}
@@ -3,6 +3,8 @@ package gr.james.stats.utils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 public class WelfordVarianceTests {
     /**
      * Test the average.
@@ -32,4 +34,47 @@ public class WelfordVarianceTests {
         wv.add(9.0);
         Assert.assertEquals(4.0, wv.populationVariance(), 1.0e-8);
     }
+
+    /**
+     * Merging partial instances must be equivalent to adding all observations to a single instance.
+     */
+    @Test
+    public void merge() {
+        final Random r = new Random(2207L);
+        final WelfordVariance all = new WelfordVariance();
+        final WelfordVariance a = new WelfordVariance();
+        final WelfordVariance b = new WelfordVariance();
+        for (int i = 0; i < 1000; i++) {
+            final double x = r.nextGaussian() * 5 + 100;
+            all.add(x);
+            (i < 300 ? a : b).add(x);
+        }
+        a.merge(b).merge(new WelfordVariance());
+        Assert.assertEquals(all.observations(), a.observations());
+        Assert.assertEquals(all.mean(), a.mean(), 1.0e-8);
+        Assert.assertEquals(all.sampleVariance(), a.sampleVariance(), 1.0e-8);
+        Assert.assertEquals(all.sampleVariance(), new WelfordVariance().merge(all).sampleVariance(), 1.0e-8);
+    }
+
+    /**
+     * Adding an array must be equivalent to adding its values one by one.
+     */
+    @Test
+    public void addAll() {
+        final Random r = new Random(5513L);
+        final double[] x = new double[777];
+        final WelfordVariance expected = new WelfordVariance();
+        expected.add(3.0);
+        for (int i = 0; i < x.length; i++) {
+            x[i] = r.nextGaussian() * 5 + 100;
+            expected.add(x[i]);
+        }
+        final WelfordVariance actual = new WelfordVariance();
+        actual.add(3.0);
+        actual.addAll(x);
+        actual.addAll(new double[0]);
+        Assert.assertEquals(expected.observations(), actual.observations());
+        Assert.assertEquals(expected.mean(), actual.mean(), 1.0e-8);
+        Assert.assertEquals(expected.sampleVariance(), actual.sampleVariance(), 1.0e-8);
+    }
 }
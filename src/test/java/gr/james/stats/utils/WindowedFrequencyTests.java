@@ -0,0 +1,95 @@
+package gr.james.stats.utils;
+
+import gr.james.stats.binning.LinearDataBinning;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+public class WindowedFrequencyTests {
+    /**
+     * The window must be identical to a {@link Frequency} of the observations in the live buckets.
+     */
+    @Test
+    public void equality() {
+        final Random r = new Random(1414L);
+        final WindowedFrequency windowed = new WindowedFrequency(100, 5);
+        final Deque<long[]> observations = new ArrayDeque<>();
+        long time = 0;
+        for (int i = 0; i < 5000; i++) {
+            time += r.nextInt(7);
+            final long value = r.nextInt(50) - 25;
+            Assert.assertTrue(windowed.add(value, time));
+            observations.addLast(new long[]{value, time});
+            final long firstLiveBucket = time / 100 - 4;
+            while (observations.peekFirst()[1] / 100 < firstLiveBucket) {
+                observations.removeFirst();
+            }
+            if (i % 97 == 96) {
+                final Frequency expected = new Frequency();
+                for (long[] o : observations) {
+                    expected.add(o[0]);
+                }
+                Assert.assertEquals(expected.map(), windowed.toFrequency().map());
+                Assert.assertEquals(expected.sum(), windowed.sum());
+                Assert.assertEquals(expected.toDistribution().map(), windowed.toDistribution().map());
+                Assert.assertEquals(expected.normalize().map(), windowed.normalize().map());
+                Assert.assertEquals(expected.bin(new LinearDataBinning(3)).map(),
+                        windowed.bin(new LinearDataBinning(3)).map());
+            }
+        }
+    }
+
+    /**
+     * Observations older than the window are dropped and advancing the time expires the old buckets.
+     */
+    @Test
+    public void expiry() {
+        final WindowedFrequency windowed = new WindowedFrequency(10, 3);
+        Assert.assertTrue(windowed.add(1.0, 5));
+        Assert.assertTrue(windowed.add(2.0, 25));
+        Assert.assertFalse(windowed.add(3.0, -10));
+        Assert.assertTrue(windowed.add(2.0, 1));
+        Assert.assertEquals(3, windowed.sum());
+        windowed.advance(30);
+        Assert.assertEquals(1, windowed.sum());
+        Assert.assertFalse(windowed.add(1.0, 9));
+        windowed.advance(1000);
+        Assert.assertEquals(0, windowed.sum());
+        Assert.assertTrue(windowed.toFrequency().map().isEmpty());
+    }
+
+    /**
+     * Many distinct values and signed zeros must be counted separately, as in {@link Frequency}.
+     */
+    @Test
+    public void distinct() {
+        final WindowedFrequency windowed = new WindowedFrequency(1, 1);
+        final Frequency expected = new Frequency();
+        for (int i = 0; i < 10000; i++) {
+            windowed.add(i % 3000, 0);
+            expected.add(i % 3000);
+        }
+        windowed.add(-0.0, 0);
+        expected.add(-0.0);
+        Assert.assertEquals(expected.map(), windowed.toFrequency().map());
+    }
+
+    /**
+     * Non-finite observations must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void finite() {
+        new WindowedFrequency(10, 3).add(Double.NaN, 0);
+    }
+
+    /**
+     * A non-positive bucket width must throw {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void width() {
+        new WindowedFrequency(0, 3);
+    }
+}
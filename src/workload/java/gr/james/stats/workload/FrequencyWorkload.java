@@ -0,0 +1,50 @@
+package gr.james.stats.workload;
+
+import gr.james.stats.binning.DataBin;
+import gr.james.stats.binning.LogarithmicDataBinning;
+import gr.james.stats.utils.Distribution;
+import gr.james.stats.utils.Frequency;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ingest power-law samples into a {@link Frequency}, normalize, log-bin and export the result.
+ * <p>
+ * At full scale the workload ingests 100M samples.
+ */
+public class FrequencyWorkload implements Workload {
+    @Override
+    public String name() {
+        return "frequency-ingest";
+    }
+
+    @Override
+    public long run(long seed, double scale) throws IOException {
+        final long samples = (long) (100_000_000L * scale);
+        final Random random = new Random(seed);
+        final Frequency frequency = new Frequency();
+        for (long i = 0; i < samples; i++) {
+            frequency.add(Math.floor(Math.pow(1 - random.nextDouble(), -1 / 1.5)));
+        }
+        final Distribution normalized = frequency.normalize();
+        final List<DataBin<Double, Double>> bins = new LogarithmicDataBinning(30, 10).bin(normalized.map());
+        final Path output = Files.createTempFile("frequency-workload", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (DataBin<Double, Double> b : bins) {
+                if (b.value > 0) {
+                    writer.write(b.center + "," + b.value);
+                    writer.newLine();
+                }
+            }
+        } finally {
+            Files.delete(output);
+        }
+        return samples;
+    }
+}
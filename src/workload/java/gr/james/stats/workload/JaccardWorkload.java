@@ -0,0 +1,48 @@
+package gr.james.stats.workload;
+
+import gr.james.stats.measures.Jaccard;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * All-pairs Jaccard index over synthetic sets with Zipf distributed elements.
+ * <p>
+ * At full scale the workload compares every pair of 100k sets.
+ */
+public class JaccardWorkload implements Workload {
+    @Override
+    public String name() {
+        return "all-pairs-jaccard";
+    }
+
+    @Override
+    public long run(long seed, double scale) {
+        final int count = Math.max(2, (int) (100_000 * scale));
+        final Random random = new Random(seed);
+        final List<Set<Integer>> sets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int size = 10 + random.nextInt(90);
+            final Set<Integer> set = new HashSet<>();
+            while (set.size() < size) {
+                set.add((int) Math.floor(Math.pow(1 - random.nextDouble(), -2.0) % 100_000));
+            }
+            sets.add(set);
+        }
+        long pairs = 0;
+        double checksum = 0;
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                checksum += new Jaccard(sets.get(i), sets.get(j)).value();
+                pairs++;
+            }
+        }
+        if (Double.isNaN(checksum)) {
+            throw new IllegalStateException();
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,37 @@
+package gr.james.stats.workload;
+
+import gr.james.stats.utils.WelfordVariance;
+
+import java.util.Random;
+
+/**
+ * Running variance over a random walk series, querying the variance periodically.
+ * <p>
+ * At full scale the series has 1B points.
+ */
+public class VarianceWorkload implements Workload {
+    @Override
+    public String name() {
+        return "running-variance";
+    }
+
+    @Override
+    public long run(long seed, double scale) {
+        final long points = (long) (1_000_000_000L * scale);
+        final Random random = new Random(seed);
+        final WelfordVariance variance = new WelfordVariance();
+        double x = 0;
+        double checksum = 0;
+        for (long i = 0; i < points; i++) {
+            x += random.nextGaussian();
+            variance.add(x);
+            if (i % 1_000_000 == 0) {
+                checksum += variance.sampleVariance();
+            }
+        }
+        if (Double.isInfinite(checksum)) {
+            throw new IllegalStateException();
+        }
+        return points;
+    }
+}
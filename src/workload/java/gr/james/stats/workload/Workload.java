@@ -0,0 +1,26 @@
+package gr.james.stats.workload;
+
+/**
+ * Represents a reproducible end-to-end workload.
+ */
+public interface Workload {
+    /**
+     * Returns the unique name of this workload.
+     *
+     * @return the unique name of this workload
+     */
+    String name();
+
+    /**
+     * Run this workload.
+     * <p>
+     * The input data of the workload must be generated deterministically from {@code seed} and their size must be
+     * proportional to {@code scale}, where a scale of 1 corresponds to the full size of the workload.
+     *
+     * @param seed  the seed of the data generator
+     * @param scale the scale of the workload
+     * @return the number of elements processed, used to compute the throughput
+     * @throws Exception if the workload fails
+     */
+    long run(long seed, double scale) throws Exception;
+}
@@ -0,0 +1,115 @@
+package gr.james.stats.workload;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Runs the end-to-end workloads and records their throughput, peak heap and GC totals in a JSON file.
+ * <p>
+ * Usage: {@code Workloads <output file> [workload names...]}. When no names are given all workloads are run and an
+ * unknown name is rejected before any workload is run. The system properties {@code workload.seed} and
+ * {@code workload.scale} control the seed of the data generators and the scale of the workloads and
+ * {@code workload.version} is recorded in the output to identify the measured version.
+ */
+public final class Workloads {
+    private static final List<Workload> WORKLOADS = Arrays.asList(
+            new FrequencyWorkload(),
+            new JaccardWorkload(),
+            new VarianceWorkload()
+    );
+
+    private Workloads() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: Workloads <output file> [workload names...]");
+        }
+        final Path output = Paths.get(args[0]);
+        final Set<String> names = new HashSet<>(Arrays.asList(args).subList(1, args.length));
+        final long seed = Long.getLong("workload.seed", 42L);
+        final double scale = Double.parseDouble(System.getProperty("workload.scale", "0.01"));
+        final String version = System.getProperty("workload.version", "unknown");
+        for (String name : names) {
+            if (WORKLOADS.stream().noneMatch(w -> w.name().equals(name))) {
+                throw new IllegalArgumentException("Unknown workload: " + name);
+            }
+        }
+
+        final List<String> results = new ArrayList<>();
+        for (Workload w : WORKLOADS) {
+            if (!names.isEmpty() && !names.contains(w.name())) {
+                continue;
+            }
+            results.add(measure(w, seed, scale, version));
+            System.out.println(results.get(results.size() - 1));
+        }
+        write(output, results);
+    }
+
+    private static String measure(Workload workload, long seed, double scale, String version) throws Exception {
+        System.gc();
+        final List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                pools.add(pool);
+            }
+        }
+        final long gcCountBefore = gcCount();
+        final long gcTimeBefore = gcTime();
+
+        final long start = System.nanoTime();
+        final long elements = workload.run(seed, scale);
+        final long elapsed = System.nanoTime() - start;
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        final double seconds = elapsed / 1e9;
+        return String.format(Locale.ROOT,
+                "{\"workload\":\"%s\",\"version\":\"%s\",\"java\":\"%s\",\"seed\":%d,\"scale\":%s,\"elements\":%d," +
+                        "\"seconds\":%.6f,\"throughput\":%.3f,\"peakHeapBytes\":%d,\"gcCount\":%d,\"gcMillis\":%d}",
+                workload.name(), version, System.getProperty("java.version"), seed, scale, elements,
+                seconds, elements / seconds, peakHeap, gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static void write(Path output, List<String> results) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            writer.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                writer.println("  " + results.get(i) + (i < results.size() - 1 ? "," : ""));
+            }
+            writer.println("]");
+        }
+    }
+}